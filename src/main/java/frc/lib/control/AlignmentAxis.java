@@ -0,0 +1,101 @@
+package frc.lib.control;
+
+import frc.lib.util.AlignmentAxisConstants;
+
+/**
+ * Drives the remaining error of one axis to zero along a trapezoidal profile.
+ * The profile velocity is used as a feedforward and the PD terms only correct
+ * the difference between the measured error and the profiled error, so the
+ * axis can cruise at its full profile velocity instead of waiting for the
+ * feedback to build up. Everything is kept in primitives so a step does not
+ * allocate.
+ */
+public class AlignmentAxis {
+    private final AlignmentAxisConstants m_constants;
+
+    private double m_setpointError;
+    private double m_setpointVelocity;
+    private double m_lastTrackingError;
+    private double m_output;
+    private boolean m_atGoal;
+
+    public AlignmentAxis(AlignmentAxisConstants constants) {
+        m_constants = constants;
+    }
+
+    /**
+     * Restarts the profile from the current error. Must be called each time an
+     * alignment is activated so no state carries over from the previous run.
+     *
+     * @param error The current remaining error
+     */
+    public void reset(double error) {
+        m_setpointError = error;
+        m_setpointVelocity = 0.0;
+        m_lastTrackingError = 0.0;
+        m_output = 0.0;
+        m_atGoal = Math.abs(error) <= m_constants.tolerance;
+    }
+
+    /**
+     * @param error Remaining error, positive when the robot must move in the positive direction
+     * @param dt Seconds since the last call
+     * @return Velocity command for this axis
+     */
+    public double calculate(double error, double dt) {
+        // Advance the profiled error toward zero
+        double remaining = m_setpointError;
+        double stoppingVelocity = Math.sqrt(2.0 * m_constants.maxAcceleration * Math.abs(remaining));
+        double targetVelocity = Math.copySign(Math.min(m_constants.maxVelocity, stoppingVelocity), remaining);
+        double maxDelta = m_constants.maxAcceleration * dt;
+        double delta = targetVelocity - m_setpointVelocity;
+        if (delta > maxDelta) {
+            delta = maxDelta;
+        } else if (delta < -maxDelta) {
+            delta = -maxDelta;
+        }
+        m_setpointVelocity += delta;
+
+        double step = m_setpointVelocity * dt;
+        if (Math.abs(step) >= Math.abs(remaining)) {
+            m_setpointError = 0.0;
+            m_setpointVelocity = 0.0;
+        } else {
+            m_setpointError = remaining - step;
+        }
+
+        m_atGoal = Math.abs(error) <= m_constants.tolerance;
+        if (m_atGoal) {
+            m_lastTrackingError = 0.0;
+            m_output = 0.0;
+            return m_output;
+        }
+
+        double trackingError = error - m_setpointError;
+        double output = m_setpointVelocity + m_constants.kP * trackingError
+                + m_constants.kD * (trackingError - m_lastTrackingError) / dt;
+        m_lastTrackingError = trackingError;
+
+        // Need to ensure a minimum velocity that is high enough to move the robot
+        if (Math.abs(output) < m_constants.minVelocity) {
+            output = Math.copySign(m_constants.minVelocity, error);
+        }
+
+        if (output > m_constants.maxVelocity) {
+            output = m_constants.maxVelocity;
+        } else if (output < -m_constants.maxVelocity) {
+            output = -m_constants.maxVelocity;
+        }
+
+        m_output = output;
+        return m_output;
+    }
+
+    public double getOutput() {
+        return m_output;
+    }
+
+    public boolean atGoal() {
+        return m_atGoal;
+    }
+}
@@ -0,0 +1,134 @@
+package frc.lib.control;
+
+import frc.lib.util.AlignmentAxisConstants;
+
+/**
+ * Aligns the robot to a target in x, y and heading at the same time. Each axis
+ * follows its own profile, and the target is supplied by a pluggable
+ * {@link AlignmentTargetSource} so the same engine can dock with an AprilTag or
+ * drive to a pose on the field.
+ *
+ * <p>
+ * Call {@link #start(AlignmentTargetSource)} every time the alignment is
+ * activated, then {@link #calculate()} once per control step and read the
+ * resulting velocities. A step only does primitive math, so it can be run at
+ * a much higher rate than the main robot loop.
+ */
+public class AlignmentController {
+    private final AlignmentAxis m_xAxis;
+    private final AlignmentAxis m_yAxis;
+    private final AlignmentAxis m_headingAxis;
+
+    private AlignmentTargetSource m_targetSource;
+
+    private double m_xVelocity;
+    private double m_yVelocity;
+    private double m_rotationalVelocity;
+
+    private long m_lastStepNanos;
+    private long m_lastComputeNanos;
+    private long m_maxComputeNanos;
+    private long m_totalComputeNanos;
+    private long m_stepCount;
+
+    public AlignmentController(AlignmentAxisConstants xConstants, AlignmentAxisConstants yConstants,
+            AlignmentAxisConstants headingConstants) {
+        m_xAxis = new AlignmentAxis(xConstants);
+        m_yAxis = new AlignmentAxis(yConstants);
+        m_headingAxis = new AlignmentAxis(headingConstants);
+    }
+
+    /**
+     * Resets all controller state and starts aligning to the given target.
+     *
+     * @return false if the target can't currently be measured
+     */
+    public boolean start(AlignmentTargetSource targetSource) {
+        m_targetSource = targetSource;
+        m_targetSource.activate();
+
+        m_xVelocity = 0.0;
+        m_yVelocity = 0.0;
+        m_rotationalVelocity = 0.0;
+        m_lastComputeNanos = 0;
+        m_maxComputeNanos = 0;
+        m_totalComputeNanos = 0;
+        m_stepCount = 0;
+
+        if (!m_targetSource.update()) {
+            return false;
+        }
+
+        m_xAxis.reset(m_targetSource.getXError());
+        m_yAxis.reset(m_targetSource.getYError());
+        m_headingAxis.reset(m_targetSource.getHeadingError());
+        m_lastStepNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Runs one control step using the time elapsed since the previous step.
+     *
+     * @return false if the target couldn't be measured, in which case all outputs are zero
+     */
+    public boolean calculate() {
+        long startNanos = System.nanoTime();
+        double dt = (startNanos - m_lastStepNanos) * 1.0e-9;
+        m_lastStepNanos = startNanos;
+        if (dt <= 0.0) {
+            dt = 1.0e-3;
+        }
+
+        boolean hasTarget = m_targetSource.update();
+        if (hasTarget) {
+            m_xVelocity = m_xAxis.calculate(m_targetSource.getXError(), dt);
+            m_yVelocity = m_yAxis.calculate(m_targetSource.getYError(), dt);
+            m_rotationalVelocity = m_headingAxis.calculate(m_targetSource.getHeadingError(), dt);
+        } else {
+            m_xVelocity = 0.0;
+            m_yVelocity = 0.0;
+            m_rotationalVelocity = 0.0;
+        }
+
+        m_lastComputeNanos = System.nanoTime() - startNanos;
+        m_totalComputeNanos += m_lastComputeNanos;
+        m_stepCount++;
+        if (m_lastComputeNanos > m_maxComputeNanos) {
+            m_maxComputeNanos = m_lastComputeNanos;
+        }
+
+        return hasTarget;
+    }
+
+    public boolean atGoal() {
+        return m_xAxis.atGoal() && m_yAxis.atGoal() && m_headingAxis.atGoal();
+    }
+
+    public boolean isFieldRelative() {
+        return m_targetSource.isFieldRelative();
+    }
+
+    public double getXVelocity() {
+        return m_xVelocity;
+    }
+
+    public double getYVelocity() {
+        return m_yVelocity;
+    }
+
+    public double getRotationalVelocity() {
+        return m_rotationalVelocity;
+    }
+
+    public double getLastComputeMicros() {
+        return m_lastComputeNanos / 1000.0;
+    }
+
+    public double getMaxComputeMicros() {
+        return m_maxComputeNanos / 1000.0;
+    }
+
+    public double getAverageComputeMicros() {
+        return (m_stepCount == 0) ? 0.0 : (m_totalComputeNanos / 1000.0) / m_stepCount;
+    }
+}
@@ -0,0 +1,34 @@
+package frc.lib.control;
+
+/**
+ * Supplies the remaining x, y and heading error for an {@link AlignmentController}.
+ * Errors are expressed in the frame the drivebase will be commanded in, and are
+ * positive when the robot needs to move in the positive direction of that axis.
+ */
+public interface AlignmentTargetSource {
+
+    /**
+     * Called once each time an alignment is started, before the first update.
+     */
+    default void activate() {
+    }
+
+    /**
+     * Reads a fresh measurement of the target.
+     *
+     * @return false if the target can't be measured this cycle
+     */
+    boolean update();
+
+    /** @return Remaining x error in meters */
+    double getXError();
+
+    /** @return Remaining y error in meters */
+    double getYError();
+
+    /** @return Remaining heading error in radians, wrapped to [-pi, pi] */
+    double getHeadingError();
+
+    /** @return true if the errors are in the field frame rather than the robot frame */
+    boolean isFieldRelative();
+}
@@ -0,0 +1,57 @@
+package frc.lib.control;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Aligns the robot to a fixed pose on the field using odometry.
+ */
+public class FieldPoseTargetSource implements AlignmentTargetSource {
+    private final Supplier<Pose2d> m_poseSupplier;
+    private Pose2d m_targetPose;
+
+    private double m_xError;
+    private double m_yError;
+    private double m_headingError;
+
+    public FieldPoseTargetSource(Supplier<Pose2d> poseSupplier, Pose2d targetPose) {
+        m_poseSupplier = poseSupplier;
+        m_targetPose = targetPose;
+    }
+
+    public void setTargetPose(Pose2d targetPose) {
+        m_targetPose = targetPose;
+    }
+
+    @Override
+    public boolean update() {
+        Pose2d pose = m_poseSupplier.get();
+        m_xError = m_targetPose.getX() - pose.getX();
+        m_yError = m_targetPose.getY() - pose.getY();
+        m_headingError = MathUtil.angleModulus(
+                m_targetPose.getRotation().getRadians() - pose.getRotation().getRadians());
+        return true;
+    }
+
+    @Override
+    public double getXError() {
+        return m_xError;
+    }
+
+    @Override
+    public double getYError() {
+        return m_yError;
+    }
+
+    @Override
+    public double getHeadingError() {
+        return m_headingError;
+    }
+
+    @Override
+    public boolean isFieldRelative() {
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package frc.lib.control;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.lib.trajectory.MutableTrajectoryState;
+
+/**
+ * Holonomic path following controller: the reference velocity is used as a
+ * feedforward with PID correction on x, y and rotation, the same as
+ * PathPlanner's PPHolonomicDriveController. It works on a
+ * {@link MutableTrajectoryState} and writes into a reused ChassisSpeeds, so a
+ * step doesn't allocate.
+ *
+ * <p>
+ * PPHolonomicDriveController only takes a PathPlannerState, which would have
+ * to be built from the sampled state every loop. Its output is matched to
+ * within floating point error by HolonomicFollowerTest, so keep the two in
+ * step if PathPlannerLib changes its control law.
+ */
+public class HolonomicFollower {
+    private final PIDController m_xController;
+    private final PIDController m_yController;
+    private final PIDController m_rotationController;
+
+    private final ChassisSpeeds m_speeds = new ChassisSpeeds();
+
+    public HolonomicFollower(PIDController xController, PIDController yController,
+            PIDController rotationController) {
+        m_xController = xController;
+        m_yController = yController;
+        m_rotationController = rotationController;
+        m_rotationController.enableContinuousInput(-Math.PI, Math.PI);
+    }
+
+    public void reset() {
+        m_xController.reset();
+        m_yController.reset();
+        m_rotationController.reset();
+    }
+
+    /**
+     * @param currentPose Current robot pose from odometry
+     * @param reference State the robot should be at right now
+     * @return Robot relative speeds. The returned object is reused by the next call.
+     */
+    public ChassisSpeeds calculate(Pose2d currentPose, MutableTrajectoryState reference) {
+        double currentRotation = currentPose.getRotation().getRadians();
+
+        double xFieldSpeed = reference.velocityMetersPerSecond * Math.cos(reference.headingRadians)
+                + m_xController.calculate(currentPose.getX(), reference.xMeters);
+        double yFieldSpeed = reference.velocityMetersPerSecond * Math.sin(reference.headingRadians)
+                + m_yController.calculate(currentPose.getY(), reference.yMeters);
+        double rotationSpeed = reference.holonomicAngularVelocityRadPerSec
+                + m_rotationController.calculate(currentRotation, reference.holonomicRotationRadians);
+
+        // Field relative to robot relative, same as ChassisSpeeds.fromFieldRelativeSpeeds
+        double cos = Math.cos(currentRotation);
+        double sin = Math.sin(currentRotation);
+        m_speeds.vxMetersPerSecond = xFieldSpeed * cos + yFieldSpeed * sin;
+        m_speeds.vyMetersPerSecond = -xFieldSpeed * sin + yFieldSpeed * cos;
+        m_speeds.omegaRadiansPerSecond = rotationSpeed;
+        return m_speeds;
+    }
+}
@@ -0,0 +1,124 @@
+package frc.lib.logging;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a log written by {@link BinaryLogger} one record at a time. Record
+ * type and name definitions are consumed as they're found, so callers only
+ * ever see data records.
+ */
+public class BinaryLogReader implements Closeable {
+    private final DataInputStream m_input;
+
+    private final Map<Integer, String> m_typeNames = new HashMap<>();
+    private final Map<Integer, String[]> m_fieldNames = new HashMap<>();
+    private final Map<Integer, String> m_names = new HashMap<>();
+
+    private int m_type;
+    private long m_timestampMicros;
+    private int m_valueCount;
+    private final double[] m_values = new double[BinaryLogger.MAX_VALUES];
+
+    public BinaryLogReader(File file) throws IOException {
+        m_input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+
+        int magic = m_input.readInt();
+        int version = m_input.readInt();
+        if (magic != BinaryLogger.MAGIC || version != BinaryLogger.VERSION) {
+            m_input.close();
+            throw new IOException(file + " is not a version " + BinaryLogger.VERSION + " robot log");
+        }
+    }
+
+    /**
+     * Advances to the next data record.
+     *
+     * @return false at the end of the log
+     */
+    public boolean next() throws IOException {
+        try {
+            while (true) {
+                short tag = m_input.readShort();
+
+                if (tag == BinaryLogger.TAG_RECORD_TYPE) {
+                    int type = m_input.readShort();
+                    m_typeNames.put(type, readUtf());
+                    String[] fieldNames = new String[m_input.readByte()];
+                    for (int i = 0; i < fieldNames.length; i++) {
+                        fieldNames[i] = readUtf();
+                    }
+                    m_fieldNames.put(type, fieldNames);
+                } else if (tag == BinaryLogger.TAG_NAME) {
+                    int id = m_input.readInt();
+                    m_names.put(id, readUtf());
+                } else {
+                    m_type = tag;
+                    m_timestampMicros = m_input.readLong();
+                    m_valueCount = m_input.readByte();
+                    for (int i = 0; i < m_valueCount; i++) {
+                        m_values[i] = m_input.readDouble();
+                    }
+                    return true;
+                }
+            }
+        } catch (EOFException e) {
+            // The writer can stop part way through a record if the robot loses power
+            return false;
+        }
+    }
+
+    public int getType() {
+        return m_type;
+    }
+
+    /**
+     * @return The name the current record's type was defined with, or null if
+     *         it hasn't been defined yet
+     */
+    public String getTypeName() {
+        return m_typeNames.get(m_type);
+    }
+
+    public String[] getFieldNames() {
+        return m_fieldNames.get(m_type);
+    }
+
+    public long getTimestampMicros() {
+        return m_timestampMicros;
+    }
+
+    public int getValueCount() {
+        return m_valueCount;
+    }
+
+    public double getValue(int index) {
+        return m_values[index];
+    }
+
+    /**
+     * Looks up a string logged with {@link BinaryLogger#nameId(String)}.
+     */
+    public String getName(int id) {
+        return m_names.get(id);
+    }
+
+    @Override
+    public void close() throws IOException {
+        m_input.close();
+    }
+
+    private String readUtf() throws IOException {
+        byte[] bytes = new byte[m_input.readUnsignedShort()];
+        m_input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,368 @@
+package frc.lib.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured binary logger for the control loop.
+ *
+ * <p>
+ * Producers claim a slot in a preallocated ring buffer with a single CAS and
+ * copy their values into it, so logging from the hot path never allocates or
+ * blocks. If the buffer is full the record is dropped and counted rather than
+ * waiting. A dedicated writer thread drains published records in batches to
+ * a file. Once the file reaches its size limit the writer stops writing and
+ * keeps draining, so the log can never fill the disk.
+ *
+ * <p>
+ * File layout (big-endian): int magic ("CTLG"), int version, then a stream of
+ * entries that each start with a short tag:
+ * <ul>
+ * <li>{@link #TAG_RECORD_TYPE}: short type, UTF name, byte field count, UTF field names</li>
+ * <li>{@link #TAG_NAME}: int id, UTF name</li>
+ * <li>any other tag is a record type: long timestamp (us), byte value count, doubles</li>
+ * </ul>
+ */
+public class BinaryLogger {
+    public static final int MAGIC = 0x43544C47;
+    public static final int VERSION = 1;
+    public static final short TAG_RECORD_TYPE = -1;
+    public static final short TAG_NAME = -2;
+    public static final int MAX_VALUES = 8;
+
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final int MAX_RECORD_BYTES = Short.BYTES + Long.BYTES + 1 + MAX_VALUES * Double.BYTES;
+    private static final long IDLE_PARK_NANOS = 5_000_000;
+
+    private final int m_capacity;
+    private final int m_mask;
+    private final int[] m_types;
+    private final long[] m_timestamps;
+    private final int[] m_valueCounts;
+    private final double[] m_values;
+    private final AtomicLongArray m_published;
+
+    private final AtomicLong m_writeSequence = new AtomicLong();
+    private volatile long m_readSequence = 0;
+
+    private final AtomicLong m_droppedCount = new AtomicLong();
+    private final AtomicLong m_highWaterMark = new AtomicLong();
+    private volatile long m_writtenCount = 0;
+
+    private final AtomicInteger m_nextRecordType = new AtomicInteger();
+    private final AtomicInteger m_nextNameId = new AtomicInteger();
+    private final Map<String, Integer> m_nameIds = new ConcurrentHashMap<>();
+    private final Queue<byte[]> m_pendingDefinitions = new ConcurrentLinkedQueue<>();
+
+    private final File m_file;
+    private final long m_maxFileBytes;
+    private long m_fileBytes = 0;
+    private final Thread m_writerThread;
+    private volatile boolean m_running = true;
+
+    /**
+     * @param file File to write the log to
+     * @param capacity Number of records the ring buffer holds, rounded up to a power of two
+     */
+    public BinaryLogger(File file, int capacity) {
+        this(file, capacity, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param file File to write the log to
+     * @param capacity Number of records the ring buffer holds, rounded up to a power of two
+     * @param maxFileBytes Nothing more is written once the file would grow past this. If
+     *                     0, no file is created and every record is discarded.
+     */
+    public BinaryLogger(File file, int capacity, long maxFileBytes) {
+        m_capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        m_mask = m_capacity - 1;
+        m_types = new int[m_capacity];
+        m_timestamps = new long[m_capacity];
+        m_valueCounts = new int[m_capacity];
+        m_values = new double[m_capacity * MAX_VALUES];
+        m_published = new AtomicLongArray(m_capacity);
+        for (int i = 0; i < m_capacity; i++) {
+            m_published.set(i, -1);
+        }
+
+        m_file = file;
+        m_maxFileBytes = maxFileBytes;
+        m_writerThread = new Thread(this::writeLoop, "BinaryLogger");
+        m_writerThread.setDaemon(true);
+        m_writerThread.setPriority(Thread.MIN_PRIORITY);
+        m_writerThread.start();
+    }
+
+    /**
+     * Registers a record type. Call this at startup, not from the hot path.
+     *
+     * @return The type id to pass to log()
+     */
+    public int defineRecordType(String name, String... fieldNames) {
+        if (fieldNames.length > MAX_VALUES) {
+            throw new IllegalArgumentException("Record type " + name + " has more than " + MAX_VALUES + " fields");
+        }
+
+        int type = m_nextRecordType.getAndIncrement();
+        ByteBuffer definition = ByteBuffer.allocate(1024);
+        definition.putShort(TAG_RECORD_TYPE);
+        definition.putShort((short) type);
+        putUtf(definition, name);
+        definition.put((byte) fieldNames.length);
+        for (String fieldName : fieldNames) {
+            putUtf(definition, fieldName);
+        }
+        m_pendingDefinitions.add(toArray(definition));
+        return type;
+    }
+
+    /**
+     * Returns a stable id for a string, such as a command name, so records can
+     * refer to it by number. Only the first use of a string allocates.
+     */
+    public int nameId(String name) {
+        return m_nameIds.computeIfAbsent(name, key -> {
+            int id = m_nextNameId.getAndIncrement();
+            ByteBuffer definition = ByteBuffer.allocate(Short.BYTES + Integer.BYTES + Short.BYTES + key.length() * 3);
+            definition.putShort(TAG_NAME);
+            definition.putInt(id);
+            putUtf(definition, key);
+            m_pendingDefinitions.add(toArray(definition));
+            return id;
+        });
+    }
+
+    public void log(int type, double value0) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            int base = begin(sequence, type, 1);
+            m_values[base] = value0;
+            m_published.set((int) (sequence & m_mask), sequence);
+        }
+    }
+
+    public void log(int type, double value0, double value1) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            int base = begin(sequence, type, 2);
+            m_values[base] = value0;
+            m_values[base + 1] = value1;
+            m_published.set((int) (sequence & m_mask), sequence);
+        }
+    }
+
+    public void log(int type, double value0, double value1, double value2) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            int base = begin(sequence, type, 3);
+            m_values[base] = value0;
+            m_values[base + 1] = value1;
+            m_values[base + 2] = value2;
+            m_published.set((int) (sequence & m_mask), sequence);
+        }
+    }
+
+    public void log(int type, double value0, double value1, double value2, double value3) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            int base = begin(sequence, type, 4);
+            m_values[base] = value0;
+            m_values[base + 1] = value1;
+            m_values[base + 2] = value2;
+            m_values[base + 3] = value3;
+            m_published.set((int) (sequence & m_mask), sequence);
+        }
+    }
+
+    /**
+     * Logs the first count values of a caller-owned array.
+     */
+    public void log(int type, double[] values, int count) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            int valueCount = Math.min(count, MAX_VALUES);
+            int base = begin(sequence, type, valueCount);
+            System.arraycopy(values, 0, m_values, base, valueCount);
+            m_published.set((int) (sequence & m_mask), sequence);
+        }
+    }
+
+    public long getDroppedCount() {
+        return m_droppedCount.get();
+    }
+
+    /**
+     * @return The most records that have been waiting to be written at once
+     */
+    public long getHighWaterMark() {
+        return m_highWaterMark.get();
+    }
+
+    public long getWrittenCount() {
+        return m_writtenCount;
+    }
+
+    public int getCapacity() {
+        return m_capacity;
+    }
+
+    /**
+     * Stops the writer thread after it drains what's already been logged,
+     * waiting up to a second for it to finish.
+     */
+    public void close() {
+        m_running = false;
+        LockSupport.unpark(m_writerThread);
+        try {
+            m_writerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The claimed sequence number, or -1 if the buffer is full
+     */
+    private long claim() {
+        while (true) {
+            long sequence = m_writeSequence.get();
+            long depth = sequence - m_readSequence;
+            if (depth >= m_capacity) {
+                m_droppedCount.incrementAndGet();
+                return -1;
+            }
+            if (m_writeSequence.compareAndSet(sequence, sequence + 1)) {
+                long highWaterMark = m_highWaterMark.get();
+                while (depth + 1 > highWaterMark && !m_highWaterMark.compareAndSet(highWaterMark, depth + 1)) {
+                    highWaterMark = m_highWaterMark.get();
+                }
+                return sequence;
+            }
+        }
+    }
+
+    private int begin(long sequence, int type, int valueCount) {
+        int slot = (int) (sequence & m_mask);
+        m_types[slot] = type;
+        m_timestamps[slot] = System.nanoTime() / 1000;
+        m_valueCounts[slot] = valueCount;
+        return slot * MAX_VALUES;
+    }
+
+    private void writeLoop() {
+        if (m_maxFileBytes <= 0) {
+            System.out.println("BinaryLogger: no room to log, not writing " + m_file);
+            discardUntilClosed();
+            return;
+        }
+
+        ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+
+        File directory = m_file.getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        try (FileChannel channel = FileChannel.open(m_file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            batch.putInt(MAGIC);
+            batch.putInt(VERSION);
+
+            while (true) {
+                boolean running = m_running;
+
+                byte[] definition;
+                while ((definition = m_pendingDefinitions.poll()) != null) {
+                    if (batch.remaining() < definition.length) {
+                        flush(channel, batch);
+                    }
+                    batch.put(definition);
+                }
+
+                long readSequence = m_readSequence;
+                long written = 0;
+                while (m_published.get((int) (readSequence & m_mask)) == readSequence) {
+                    if (batch.remaining() < MAX_RECORD_BYTES) {
+                        flush(channel, batch);
+                    }
+
+                    int slot = (int) (readSequence & m_mask);
+                    int valueCount = m_valueCounts[slot];
+                    batch.putShort((short) m_types[slot]);
+                    batch.putLong(m_timestamps[slot]);
+                    batch.put((byte) valueCount);
+                    int base = slot * MAX_VALUES;
+                    for (int i = 0; i < valueCount; i++) {
+                        batch.putDouble(m_values[base + i]);
+                    }
+
+                    readSequence++;
+                    written++;
+                    // Free the slot for producers as soon as it's copied out
+                    m_readSequence = readSequence;
+                }
+
+                if (written > 0 || batch.position() > 0) {
+                    flush(channel, batch);
+                    m_writtenCount += written;
+                }
+
+                if (!running) {
+                    break;
+                }
+                if (written == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("BinaryLogger: stopped writing " + m_file + ": " + e.getMessage());
+            discardUntilClosed();
+        }
+    }
+
+    // Keep draining so producers see free slots instead of counting drops forever
+    private void discardUntilClosed() {
+        while (m_running) {
+            m_readSequence = m_writeSequence.get();
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private void flush(FileChannel channel, ByteBuffer batch) throws IOException {
+        if (m_fileBytes + batch.position() > m_maxFileBytes) {
+            throw new IOException("reached the " + m_maxFileBytes / (1024 * 1024) + " MB size limit");
+        }
+        m_fileBytes += batch.position();
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        batch.clear();
+    }
+
+    private static void putUtf(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,157 @@
+package frc.lib.logging;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Times the stages of a pipeline that runs once per cycle. {@link #start()}
+ * marks the beginning of the cycle, each {@link #mark(int)} records the time
+ * since the previous mark as that stage's latency, and {@link #finish()}
+ * records the total. The last few hundred samples of each stage are kept so
+ * {@link #publish()} can report percentiles.
+ *
+ * <p>
+ * Everything is allocated up front. A probe belongs to one thread. Stage
+ * times are held until {@link #finish()} and only recorded if the cycle was
+ * armed and every stage was marked, so every stage and the total count the
+ * same cycles. Marks before {@link #arm()} (other than
+ * {@link #markUnarmed(int)}) or after {@link #finish()} are ignored, so code
+ * that is sometimes called from elsewhere (a different command, another
+ * thread's loop) doesn't pollute the numbers.
+ */
+public class LatencyProbe {
+    private final String m_name;
+    private final String[] m_stageNames;
+    private final int m_windowSize;
+
+    // One ring per stage plus one for the total, in nanoseconds
+    private final long[][] m_samples;
+    private final int[] m_counts;
+    private final int[] m_nextIndex;
+    private final long[] m_sortBuffer;
+    // This cycle's stage times, recorded by finish()
+    private final long[] m_pending;
+
+    private long m_startNanos;
+    private long m_lastMarkNanos;
+    private boolean m_armed = false;
+    private int m_nextStage = 0;
+
+    /**
+     * @param name       Prefix for the dashboard keys
+     * @param windowSize Samples kept per stage for the percentiles
+     * @param stageNames In the order they happen
+     */
+    public LatencyProbe(String name, int windowSize, String... stageNames) {
+        m_name = name;
+        m_stageNames = stageNames;
+        m_windowSize = windowSize;
+
+        m_samples = new long[stageNames.length + 1][windowSize];
+        m_counts = new int[stageNames.length + 1];
+        m_nextIndex = new int[stageNames.length + 1];
+        m_sortBuffer = new long[windowSize];
+        m_pending = new long[stageNames.length];
+    }
+
+    /**
+     * Marks the start of a cycle. Stages aren't recorded until the probe is
+     * armed, since the start of the cycle comes before anything knows whether
+     * the pipeline will run this time.
+     */
+    public void start() {
+        m_startNanos = System.nanoTime();
+        m_lastMarkNanos = m_startNanos;
+        m_armed = false;
+        m_nextStage = 0;
+    }
+
+    /**
+     * Marks the first stages before arming, e.g. work that happens every
+     * cycle ahead of the pipeline. They're still only recorded if the cycle
+     * gets armed.
+     */
+    public void markUnarmed(int stage) {
+        if (stage != m_nextStage) {
+            return;
+        }
+        long now = System.nanoTime();
+        m_pending[stage] = now - m_lastMarkNanos;
+        m_lastMarkNanos = now;
+        m_nextStage = stage + 1;
+    }
+
+    /**
+     * Says this cycle runs the pipeline, so the following marks count.
+     */
+    public void arm() {
+        m_armed = true;
+    }
+
+    public void mark(int stage) {
+        if (!m_armed || stage != m_nextStage) {
+            return;
+        }
+        long now = System.nanoTime();
+        m_pending[stage] = now - m_lastMarkNanos;
+        m_lastMarkNanos = now;
+        m_nextStage = stage + 1;
+    }
+
+    /**
+     * Records every stage and the total, then disarms until the next cycle.
+     * Nothing counts unless the cycle was armed and every stage was marked.
+     */
+    public void finish() {
+        if (m_armed && m_nextStage == m_stageNames.length) {
+            for (int i = 0; i < m_pending.length; i++) {
+                record(i, m_pending[i]);
+            }
+            record(m_stageNames.length, m_lastMarkNanos - m_startNanos);
+        }
+        m_armed = false;
+        m_nextStage = m_stageNames.length;
+    }
+
+    private void record(int index, long nanos) {
+        m_samples[index][m_nextIndex[index]] = nanos;
+        m_nextIndex[index] = (m_nextIndex[index] + 1) % m_windowSize;
+        m_counts[index] = Math.min(m_counts[index] + 1, m_windowSize);
+    }
+
+    /**
+     * @param stage A stage, or the stage count for the total
+     * @return How many samples of it are kept, at most the window size
+     */
+    public int getSampleCount(int stage) {
+        return m_counts[stage];
+    }
+
+    /**
+     * Puts the p50, p95, p99 and max of each stage and the total on the
+     * dashboard, in milliseconds.
+     */
+    public void publish() {
+        for (int i = 0; i <= m_stageNames.length; i++) {
+            String prefix = m_name + "/" + (i < m_stageNames.length ? m_stageNames[i] : "Total");
+            int count = m_counts[i];
+            if (count == 0) {
+                continue;
+            }
+
+            System.arraycopy(m_samples[i], 0, m_sortBuffer, 0, count);
+            Arrays.sort(m_sortBuffer, 0, count);
+            SmartDashboard.putNumber(prefix + " p50 ms", percentile(count, 0.50));
+            SmartDashboard.putNumber(prefix + " p95 ms", percentile(count, 0.95));
+            SmartDashboard.putNumber(prefix + " p99 ms", percentile(count, 0.99));
+            SmartDashboard.putNumber(prefix + " max ms", m_sortBuffer[count - 1] / 1.0e6);
+        }
+    }
+
+    // m_sortBuffer must hold count sorted samples
+    private double percentile(int count, double percentile) {
+        int index = Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+        return m_sortBuffer[Math.max(0, index)] / 1.0e6;
+    }
+}
@@ -0,0 +1,65 @@
+package frc.lib.logging;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps a log directory under a file count and total size by deleting the
+ * oldest logs, and works out how big the next log may grow given the free
+ * space left on the disk.
+ */
+public final class LogRetention {
+    private LogRetention() {
+    }
+
+    /**
+     * Deletes the oldest logs until there is room for one more file within
+     * maxFiles, and the remaining logs take up at most maxTotalBytes.
+     *
+     * @param extension Only files ending with this are counted or deleted
+     */
+    public static void deleteOldLogs(File directory, String extension, int maxFiles, long maxTotalBytes) {
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(extension));
+        if (logs == null) {
+            return;
+        }
+        Arrays.sort(logs, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+
+        long totalBytes = 0;
+        for (File log : logs) {
+            totalBytes += log.length();
+        }
+
+        int remaining = logs.length;
+        for (File log : logs) {
+            if (remaining < maxFiles && totalBytes <= maxTotalBytes) {
+                break;
+            }
+            long bytes = log.length();
+            if (log.delete()) {
+                System.out.println("LogRetention: deleted " + log);
+                totalBytes -= bytes;
+                remaining--;
+            } else {
+                System.out.println("LogRetention: unable to delete " + log);
+            }
+        }
+    }
+
+    /**
+     * @param maxFileBytes  The most a log is allowed to grow
+     * @param minFreeBytes  Space to leave free on the disk
+     * @return How big a new log in the directory may grow, 0 if there is no room for one
+     */
+    public static long allowedFileBytes(File directory, long maxFileBytes, long minFreeBytes) {
+        File existing = directory;
+        while (existing != null && !existing.exists()) {
+            existing = existing.getParentFile();
+        }
+        if (existing == null) {
+            return 0;
+        }
+        return Math.max(0, Math.min(maxFileBytes, existing.getUsableSpace() - minFreeBytes));
+    }
+}
@@ -0,0 +1,161 @@
+package frc.lib.logging;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Watches what the JVM does underneath the main loop: how many bytes the main
+ * thread allocates each cycle, and how often and for how long the garbage
+ * collector runs. {@link #sample()} is called once at the top of every cycle
+ * and measures everything since the previous call, so the loop time here is
+ * the interval from one cycle's start to the next.
+ *
+ * <p>
+ * A cycle that took longer than the period is an overrun. If the collector
+ * ran during it for at least half of the extra time, the overrun is counted
+ * as caused by GC. The collector beans only report milliseconds, so short
+ * pauses round down and are missed; for concurrent collectors the time also
+ * includes work that didn't stop the main thread.
+ *
+ * <p>
+ * Allocation counting needs the HotSpot thread bean. On a JVM without it the
+ * allocation numbers stay at zero and the GC numbers still work. Every cycle
+ * is also written to the log so individual overruns can be found later.
+ */
+public class LoopResourceMonitor {
+    public static final String LOOP_RECORD = "Loop";
+
+    private final long m_periodNanos;
+    private final long m_overrunToleranceNanos;
+    private final long m_threadId;
+    private final com.sun.management.ThreadMXBean m_threadBean;
+    private final List<GarbageCollectorMXBean> m_collectors;
+    private final BinaryLogger m_logger;
+    private final int m_loopLogType;
+
+    private long m_lastSampleNanos = 0;
+    private long m_lastAllocatedBytes = 0;
+    private long m_lastGcCount = 0;
+    private long m_lastGcMillis = 0;
+
+    // Since the last publish()
+    private long m_cycles = 0;
+    private long m_totalAllocatedBytes = 0;
+    private long m_maxAllocatedBytes = 0;
+    private long m_maxIntervalNanos = 0;
+    private long m_gcCount = 0;
+    private long m_gcMillis = 0;
+    private long m_maxGcMillis = 0;
+    private long m_overruns = 0;
+    private long m_gcOverruns = 0;
+
+    // Since startup
+    private long m_totalGcOverruns = 0;
+
+    /**
+     * Must be constructed on the thread it measures, normally the main robot
+     * thread in robotInit.
+     *
+     * @param periodSeconds           Main loop period
+     * @param overrunToleranceSeconds How late a cycle can be before it counts as an overrun
+     * @param logger                  Where each cycle's numbers are logged
+     */
+    public LoopResourceMonitor(double periodSeconds, double overrunToleranceSeconds, BinaryLogger logger) {
+        m_periodNanos = (long) (periodSeconds * 1.0e9);
+        m_overrunToleranceNanos = (long) (overrunToleranceSeconds * 1.0e9);
+        m_threadId = Thread.currentThread().getId();
+        m_collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        m_logger = logger;
+        m_loopLogType = logger.defineRecordType(LOOP_RECORD, "intervalMs", "allocatedBytes", "gcMs",
+                "gcOverrun");
+
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+            m_threadBean = (com.sun.management.ThreadMXBean) threadBean;
+            m_threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            m_threadBean = null;
+            System.out.println("Thread allocation counting isn't supported on this JVM");
+        }
+    }
+
+    /**
+     * Measures the cycle that just ended. Call at the top of every main loop
+     * cycle.
+     */
+    public void sample() {
+        long now = System.nanoTime();
+        long allocatedBytes = m_threadBean == null ? 0 : m_threadBean.getThreadAllocatedBytes(m_threadId);
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (int i = 0; i < m_collectors.size(); i++) {
+            GarbageCollectorMXBean collector = m_collectors.get(i);
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+
+        if (m_lastSampleNanos != 0) {
+            record(now - m_lastSampleNanos, allocatedBytes - m_lastAllocatedBytes, gcCount - m_lastGcCount,
+                    gcMillis - m_lastGcMillis);
+        }
+
+        m_lastSampleNanos = now;
+        m_lastAllocatedBytes = allocatedBytes;
+        m_lastGcCount = gcCount;
+        m_lastGcMillis = gcMillis;
+    }
+
+    private void record(long intervalNanos, long allocatedBytes, long gcCount, long gcMillis) {
+        long lateNanos = intervalNanos - m_periodNanos;
+        boolean overrun = lateNanos > m_overrunToleranceNanos;
+        boolean gcOverrun = overrun && gcMillis * 1.0e6 >= lateNanos / 2.0;
+
+        m_cycles++;
+        m_totalAllocatedBytes += allocatedBytes;
+        m_maxAllocatedBytes = Math.max(m_maxAllocatedBytes, allocatedBytes);
+        m_maxIntervalNanos = Math.max(m_maxIntervalNanos, intervalNanos);
+        m_gcCount += gcCount;
+        m_gcMillis += gcMillis;
+        m_maxGcMillis = Math.max(m_maxGcMillis, gcMillis);
+        if (overrun) {
+            m_overruns++;
+        }
+        if (gcOverrun) {
+            m_gcOverruns++;
+            m_totalGcOverruns++;
+        }
+
+        m_logger.log(m_loopLogType, intervalNanos / 1.0e6, allocatedBytes, gcMillis, gcOverrun ? 1.0 : 0.0);
+    }
+
+    /**
+     * Puts the numbers since the last call on the dashboard and starts a new
+     * window.
+     */
+    public void publish() {
+        SmartDashboard.putNumber("Loop/max interval ms", m_maxIntervalNanos / 1.0e6);
+        SmartDashboard.putNumber("Loop/mean allocated KB",
+                m_cycles == 0 ? 0.0 : m_totalAllocatedBytes / 1024.0 / m_cycles);
+        SmartDashboard.putNumber("Loop/max allocated KB", m_maxAllocatedBytes / 1024.0);
+        SmartDashboard.putNumber("Loop/GC count", m_gcCount);
+        SmartDashboard.putNumber("Loop/GC ms", m_gcMillis);
+        SmartDashboard.putNumber("Loop/max GC ms", m_maxGcMillis);
+        SmartDashboard.putNumber("Loop/overruns", m_overruns);
+        SmartDashboard.putNumber("Loop/GC overruns", m_gcOverruns);
+        SmartDashboard.putNumber("Loop/GC overruns total", m_totalGcOverruns);
+
+        m_cycles = 0;
+        m_totalAllocatedBytes = 0;
+        m_maxAllocatedBytes = 0;
+        m_maxIntervalNanos = 0;
+        m_gcCount = 0;
+        m_gcMillis = 0;
+        m_maxGcMillis = 0;
+        m_overruns = 0;
+        m_gcOverruns = 0;
+    }
+}
@@ -0,0 +1,283 @@
+package frc.lib.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Rigid body physics for a swerve drivetrain on carpet. It takes motor
+ * voltages in and gives wheel, module and chassis state out, and knows
+ * nothing about motor controllers, so it can sit behind the Phoenix sim
+ * collections or a plain Java model.
+ *
+ * <p>
+ * Each wheel's contact patch pushes on the chassis with whatever force it
+ * takes to stop the wheel from sliding, limited to the friction circle
+ * (coefficient of friction times a quarter of the robot's weight). Past that
+ * the wheel slips. Steering is a DC motor through the steering gear turning
+ * the module's inertia.
+ *
+ * <p>
+ * {@link #step(double)} always advances in fixed substeps, so results only
+ * depend on the inputs and not on how fast the host computer is.
+ */
+public class SwerveDrivePhysics {
+    private static final double GRAVITY = 9.81;
+
+    private final int m_moduleCount;
+    private final Translation2d[] m_moduleLocations;
+    private final DCMotor m_driveMotor;
+    private final DCMotor m_steerMotor;
+    private final double m_driveGearRatio;
+    private final double m_steerGearRatio;
+    private final double m_wheelRadiusMeters;
+    private final double m_massKg;
+    private final double m_moiKgMetersSq;
+    private final double m_driveInertiaKgMetersSq;
+    private final double m_steerInertiaKgMetersSq;
+    private final double m_maxTractionNewtons;
+    private final double m_substepSeconds;
+
+    // Inputs
+    private final double[] m_driveVolts;
+    private final double[] m_steerVolts;
+
+    // Module state, all on the mechanism side of the gearboxes
+    private final double[] m_wheelRadPerSec;
+    private final double[] m_wheelRadians;
+    private final double[] m_steerRadPerSec;
+    private final double[] m_steerRadians;
+    private final boolean[] m_slipping;
+
+    // Chassis state, field relative
+    private double m_x = 0.0;
+    private double m_y = 0.0;
+    private double m_heading = 0.0;
+    private double m_vx = 0.0;
+    private double m_vy = 0.0;
+    private double m_omega = 0.0;
+
+    private double m_elapsedSeconds = 0.0;
+
+    /**
+     * @param moduleLocations       Module positions relative to the robot center
+     * @param driveMotor            Motor model for one drive motor
+     * @param steerMotor            Motor model for one steering motor
+     * @param driveGearRatio        Drive motor rotations per wheel rotation
+     * @param steerGearRatio        Steering motor rotations per module rotation
+     * @param wheelRadiusMeters     Wheel radius
+     * @param massKg                Robot mass
+     * @param moiKgMetersSq         Robot moment of inertia about its center
+     * @param driveInertiaKgMetersSq Inertia of one wheel, including the reflected drive motor rotor
+     * @param steerInertiaKgMetersSq Inertia of one module's steering, including the reflected rotor
+     * @param wheelCoefficientOfFriction Wheel to carpet coefficient of friction
+     * @param substepSeconds        Length of each physics substep
+     */
+    public SwerveDrivePhysics(Translation2d[] moduleLocations, DCMotor driveMotor, DCMotor steerMotor,
+            double driveGearRatio, double steerGearRatio, double wheelRadiusMeters, double massKg,
+            double moiKgMetersSq, double driveInertiaKgMetersSq, double steerInertiaKgMetersSq,
+            double wheelCoefficientOfFriction, double substepSeconds) {
+        m_moduleCount = moduleLocations.length;
+        m_moduleLocations = moduleLocations;
+        m_driveMotor = driveMotor;
+        m_steerMotor = steerMotor;
+        m_driveGearRatio = driveGearRatio;
+        m_steerGearRatio = steerGearRatio;
+        m_wheelRadiusMeters = wheelRadiusMeters;
+        m_massKg = massKg;
+        m_moiKgMetersSq = moiKgMetersSq;
+        m_driveInertiaKgMetersSq = driveInertiaKgMetersSq;
+        m_steerInertiaKgMetersSq = steerInertiaKgMetersSq;
+        m_maxTractionNewtons = wheelCoefficientOfFriction * massKg * GRAVITY / m_moduleCount;
+        m_substepSeconds = substepSeconds;
+
+        m_driveVolts = new double[m_moduleCount];
+        m_steerVolts = new double[m_moduleCount];
+        m_wheelRadPerSec = new double[m_moduleCount];
+        m_wheelRadians = new double[m_moduleCount];
+        m_steerRadPerSec = new double[m_moduleCount];
+        m_steerRadians = new double[m_moduleCount];
+        m_slipping = new boolean[m_moduleCount];
+    }
+
+    public void setDriveVoltage(int module, double volts) {
+        m_driveVolts[module] = volts;
+    }
+
+    public void setSteerVoltage(int module, double volts) {
+        m_steerVolts[module] = volts;
+    }
+
+    /**
+     * Advances the simulation by whole substeps covering dtSeconds.
+     */
+    public void step(double dtSeconds) {
+        int substeps = Math.max(1, (int) Math.round(dtSeconds / m_substepSeconds));
+        for (int i = 0; i < substeps; i++) {
+            substep(m_substepSeconds);
+        }
+    }
+
+    private void substep(double h) {
+        double cos = Math.cos(m_heading);
+        double sin = Math.sin(m_heading);
+
+        // Chassis velocity in the robot frame
+        double vxRobot = m_vx * cos + m_vy * sin;
+        double vyRobot = -m_vx * sin + m_vy * cos;
+
+        double forceX = 0.0;
+        double forceY = 0.0;
+        double torque = 0.0;
+
+        for (int i = 0; i < m_moduleCount; i++) {
+            double rx = m_moduleLocations[i].getX();
+            double ry = m_moduleLocations[i].getY();
+
+            // Steering
+            double steerTorque = motorTorque(m_steerMotor, m_steerVolts[i], m_steerRadPerSec[i] * m_steerGearRatio)
+                    * m_steerGearRatio;
+            m_steerRadPerSec[i] += h * steerTorque / m_steerInertiaKgMetersSq;
+            m_steerRadians[i] += h * m_steerRadPerSec[i];
+
+            double ux = Math.cos(m_steerRadians[i]);
+            double uy = Math.sin(m_steerRadians[i]);
+
+            // How fast the ground under this module is moving, along and across the wheel
+            double groundX = vxRobot - m_omega * ry;
+            double groundY = vyRobot + m_omega * rx;
+            double groundLong = groundX * ux + groundY * uy;
+            double groundLat = -groundX * uy + groundY * ux;
+
+            double wheelTorque = motorTorque(m_driveMotor, m_driveVolts[i], m_wheelRadPerSec[i] * m_driveGearRatio)
+                    * m_driveGearRatio;
+
+            // Each module only gets a quarter of the chassis to push on so the four
+            // of them solving at once can't overshoot
+            double leverLong = rx * uy - ry * ux;
+            double leverLat = -rx * ux - ry * uy;
+            double invMassLong = m_moduleCount * (1.0 / m_massKg + leverLong * leverLong / m_moiKgMetersSq);
+            double invMassLat = m_moduleCount * (1.0 / m_massKg + leverLat * leverLat / m_moiKgMetersSq);
+            double invWheel = m_wheelRadiusMeters * m_wheelRadiusMeters / m_driveInertiaKgMetersSq;
+
+            // Force that makes the wheel surface and the ground match by the end of the substep
+            double surfaceSpeed = m_wheelRadPerSec[i] * m_wheelRadiusMeters;
+            double forceLong = (surfaceSpeed - groundLong
+                    + h * wheelTorque * m_wheelRadiusMeters / m_driveInertiaKgMetersSq)
+                    / (h * (invWheel + invMassLong));
+            double forceLat = -groundLat / (h * invMassLat);
+
+            // Friction circle
+            double force = Math.hypot(forceLong, forceLat);
+            m_slipping[i] = force > m_maxTractionNewtons;
+            if (m_slipping[i]) {
+                double scale = m_maxTractionNewtons / force;
+                forceLong *= scale;
+                forceLat *= scale;
+            }
+
+            m_wheelRadPerSec[i] += h * (wheelTorque - forceLong * m_wheelRadiusMeters) / m_driveInertiaKgMetersSq;
+            m_wheelRadians[i] += h * m_wheelRadPerSec[i];
+
+            double moduleForceX = forceLong * ux - forceLat * uy;
+            double moduleForceY = forceLong * uy + forceLat * ux;
+            forceX += moduleForceX;
+            forceY += moduleForceY;
+            torque += rx * moduleForceY - ry * moduleForceX;
+        }
+
+        // Back to the field frame
+        double axField = (forceX * cos - forceY * sin) / m_massKg;
+        double ayField = (forceX * sin + forceY * cos) / m_massKg;
+
+        m_vx += h * axField;
+        m_vy += h * ayField;
+        m_omega += h * torque / m_moiKgMetersSq;
+
+        m_x += h * m_vx;
+        m_y += h * m_vy;
+        m_heading += h * m_omega;
+
+        m_elapsedSeconds += h;
+    }
+
+    private static double motorTorque(DCMotor motor, double volts, double motorRadPerSec) {
+        double current = (volts - motorRadPerSec / motor.KvRadPerSecPerVolt) / motor.rOhms;
+        return motor.KtNMPerAmp * current;
+    }
+
+    public void resetPose(Pose2d pose) {
+        m_x = pose.getX();
+        m_y = pose.getY();
+        m_heading = pose.getRotation().getRadians();
+        m_vx = 0.0;
+        m_vy = 0.0;
+        m_omega = 0.0;
+    }
+
+    /**
+     * Points a module without simulating the motion, e.g. to match the
+     * absolute encoders at startup.
+     */
+    public void setSteerAngle(int module, double radians) {
+        m_steerRadians[module] = radians;
+        m_steerRadPerSec[module] = 0.0;
+    }
+
+    public Pose2d getPose() {
+        return new Pose2d(m_x, m_y, new Rotation2d(m_heading));
+    }
+
+    public double getHeadingRadians() {
+        return m_heading;
+    }
+
+    public double getYawRateRadPerSec() {
+        return m_omega;
+    }
+
+    public double getWheelPositionRadians(int module) {
+        return m_wheelRadians[module];
+    }
+
+    public double getWheelVelocityRadPerSec(int module) {
+        return m_wheelRadPerSec[module];
+    }
+
+    public double getWheelPositionMeters(int module) {
+        return m_wheelRadians[module] * m_wheelRadiusMeters;
+    }
+
+    public double getWheelVelocityMetersPerSec(int module) {
+        return m_wheelRadPerSec[module] * m_wheelRadiusMeters;
+    }
+
+    public double getSteerRadians(int module) {
+        return m_steerRadians[module];
+    }
+
+    public double getSteerRadPerSec(int module) {
+        return m_steerRadPerSec[module];
+    }
+
+    public boolean isSlipping(int module) {
+        return m_slipping[module];
+    }
+
+    public double getDriveGearRatio() {
+        return m_driveGearRatio;
+    }
+
+    public double getSteerGearRatio() {
+        return m_steerGearRatio;
+    }
+
+    public int getModuleCount() {
+        return m_moduleCount;
+    }
+
+    public double getElapsedSeconds() {
+        return m_elapsedSeconds;
+    }
+}
@@ -0,0 +1,262 @@
+package frc.lib.trajectory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * A generated PathPlanner trajectory packed into primitive columns by the
+ * packTrajectories Gradle task, and memory-mapped from the deploy directory.
+ * The state columns are views straight onto the mapped file, so nothing is
+ * parsed or generated when a trajectory is opened.
+ *
+ * <p>
+ * File layout (big-endian):
+ * <ul>
+ * <li>int magic ("CTTR"), int version, int stateCount, int markerCount</li>
+ * <li>double maxVelocity, double maxAcceleration the path was generated with</li>
+ * <li>{@link #COLUMN_COUNT} columns of stateCount doubles each, in column order</li>
+ * <li>per marker, by time: double time, int nameCount, nameCount modified-UTF-8 strings</li>
+ * </ul>
+ * Angles are in radians.
+ */
+public class BinaryTrajectory {
+    public static final int MAGIC = 0x43545452;
+    public static final int VERSION = 2;
+    public static final String FILE_EXTENSION = ".traj";
+
+    // Same columns, in the same order, as TrajectorySampler
+    public static final int COLUMN_TIME = 0;
+    public static final int COLUMN_X = 1;
+    public static final int COLUMN_Y = 2;
+    public static final int COLUMN_HEADING = 3;
+    public static final int COLUMN_VELOCITY = 4;
+    public static final int COLUMN_ACCELERATION = 5;
+    public static final int COLUMN_CURVATURE = 6;
+    public static final int COLUMN_HOLONOMIC_ROTATION = 7;
+    public static final int COLUMN_HOLONOMIC_ANGULAR_VELOCITY = 8;
+    public static final int COLUMN_COUNT = 9;
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + 2 * Double.BYTES;
+
+    private final String m_name;
+    private final double m_maxVelocity;
+    private final double m_maxAcceleration;
+    private final int m_stateCount;
+    private final DoubleBuffer[] m_columns;
+    private final double[] m_markerTimes;
+    private final List<List<String>> m_markerNames;
+
+    private BinaryTrajectory(String name, double maxVelocity, double maxAcceleration, int stateCount,
+            DoubleBuffer[] columns, double[] markerTimes, List<List<String>> markerNames) {
+        m_name = name;
+        m_maxVelocity = maxVelocity;
+        m_maxAcceleration = maxAcceleration;
+        m_stateCount = stateCount;
+        m_columns = columns;
+        m_markerTimes = markerTimes;
+        m_markerNames = markerNames;
+    }
+
+    /**
+     * Packs a generated trajectory, with its markers at the times PathPlanner
+     * gave them.
+     *
+     * @param constraints What the trajectory was generated with
+     */
+    public static void write(File file, PathPlannerTrajectory trajectory, PathConstraints constraints)
+            throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        List<EventMarker> markers = new ArrayList<>(trajectory.getMarkers());
+        markers.sort(Comparator.comparingDouble(marker -> marker.timeSeconds));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(states.size());
+            out.writeInt(markers.size());
+            out.writeDouble(constraints.maxVelocity);
+            out.writeDouble(constraints.maxAcceleration);
+
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                for (Trajectory.State state : states) {
+                    out.writeDouble(getColumnValue((PathPlannerState) state, column));
+                }
+            }
+
+            for (EventMarker marker : markers) {
+                out.writeDouble(marker.timeSeconds);
+                out.writeInt(marker.names.size());
+                for (String name : marker.names) {
+                    out.writeUTF(name);
+                }
+            }
+        }
+    }
+
+    private static double getColumnValue(PathPlannerState state, int column) {
+        switch (column) {
+            case COLUMN_TIME:
+                return state.timeSeconds;
+            case COLUMN_X:
+                return state.poseMeters.getX();
+            case COLUMN_Y:
+                return state.poseMeters.getY();
+            case COLUMN_HEADING:
+                return state.poseMeters.getRotation().getRadians();
+            case COLUMN_VELOCITY:
+                return state.velocityMetersPerSecond;
+            case COLUMN_ACCELERATION:
+                return state.accelerationMetersPerSecondSq;
+            case COLUMN_CURVATURE:
+                return state.curvatureRadPerMeter;
+            case COLUMN_HOLONOMIC_ROTATION:
+                return state.holonomicRotation.getRadians();
+            case COLUMN_HOLONOMIC_ANGULAR_VELOCITY:
+                return state.holonomicAngularVelocityRadPerSec;
+            default:
+                throw new IllegalArgumentException("No column " + column);
+        }
+    }
+
+    /**
+     * Memory-maps a packed trajectory file. The mapping stays valid after the
+     * file channel is closed.
+     */
+    public static BinaryTrajectory load(File file) throws IOException {
+        String fileName = file.getName();
+        String name = fileName.endsWith(FILE_EXTENSION)
+                ? fileName.substring(0, fileName.length() - FILE_EXTENSION.length())
+                : fileName;
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a packed trajectory");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " has unsupported version " + buffer.getInt(4));
+        }
+        int stateCount = buffer.getInt(8);
+        int markerCount = buffer.getInt(12);
+        double maxVelocity = buffer.getDouble(16);
+        double maxAcceleration = buffer.getDouble(24);
+        if (stateCount == 0) {
+            throw new IOException(file + " has no states");
+        }
+
+        int columnBytes = stateCount * Double.BYTES;
+        DoubleBuffer[] columns = new DoubleBuffer[COLUMN_COUNT];
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(HEADER_BYTES + column * columnBytes);
+            view.limit(HEADER_BYTES + (column + 1) * columnBytes);
+            columns[column] = view.slice().asDoubleBuffer();
+        }
+
+        // Markers are tiny, so these are read into arrays
+        double[] markerTimes = new double[markerCount];
+        List<List<String>> markerNames = new ArrayList<>(markerCount);
+        buffer.position(HEADER_BYTES + COLUMN_COUNT * columnBytes);
+        for (int marker = 0; marker < markerCount; marker++) {
+            markerTimes[marker] = buffer.getDouble();
+            String[] names = new String[buffer.getInt()];
+            for (int nameIndex = 0; nameIndex < names.length; nameIndex++) {
+                byte[] utf = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(utf);
+                // writeUTF only differs from UTF-8 for NUL and supplementary characters,
+                // neither of which show up in marker names
+                names[nameIndex] = new String(utf, StandardCharsets.UTF_8);
+            }
+            markerNames.add(List.of(names));
+        }
+
+        return new BinaryTrajectory(name, maxVelocity, maxAcceleration, stateCount, columns, markerTimes,
+                markerNames);
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * @return Whether the trajectory was generated with these constraints
+     */
+    public boolean matches(PathConstraints constraints) {
+        return Double.compare(m_maxVelocity, constraints.maxVelocity) == 0
+                && Double.compare(m_maxAcceleration, constraints.maxAcceleration) == 0;
+    }
+
+    public int getStateCount() {
+        return m_stateCount;
+    }
+
+    /**
+     * @param column One of the COLUMN_ constants
+     * @param index  State index
+     */
+    public double get(int column, int index) {
+        return m_columns[column].get(index);
+    }
+
+    /**
+     * Copies one state column out of the mapped file.
+     */
+    public double[] copyColumn(int column) {
+        double[] values = new double[m_stateCount];
+        m_columns[column].duplicate().get(values);
+        return values;
+    }
+
+    public double getTotalTimeSeconds() {
+        return get(COLUMN_TIME, m_stateCount - 1);
+    }
+
+    /**
+     * @return Where the robot starts, the same as PathPlannerTrajectory.getInitialHolonomicPose()
+     */
+    public Pose2d getInitialHolonomicPose() {
+        return new Pose2d(get(COLUMN_X, 0), get(COLUMN_Y, 0), new Rotation2d(get(COLUMN_HOLONOMIC_ROTATION, 0)));
+    }
+
+    public int getMarkerCount() {
+        return m_markerTimes.length;
+    }
+
+    public double getMarkerTime(int marker) {
+        return m_markerTimes[marker];
+    }
+
+    public List<String> getMarkerNames(int marker) {
+        return m_markerNames.get(marker);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.2f, %.2f): %d states, %d markers", m_name, m_maxVelocity, m_maxAcceleration,
+                m_stateCount, m_markerTimes.length);
+    }
+}
@@ -0,0 +1,149 @@
+package frc.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * A path's event markers resolved against an event map once, when the path
+ * is loaded. Every name on every marker becomes one entry of parallel
+ * (time, command index) arrays sorted by time, so following the path only
+ * has to compare the time against the next entry.
+ *
+ * <p>
+ * A marker name with no command in the event map is an error when the table
+ * is compiled, not a marker that silently does nothing during a match. The
+ * table is never modified after construction; the cursor belongs to whoever
+ * is dispatching.
+ */
+public class EventMarkerTable {
+    private final double[] m_times;
+    private final int[] m_commandIndices;
+    private final Command[] m_commands;
+
+    private EventMarkerTable(double[] times, int[] commandIndices, Command[] commands) {
+        m_times = times;
+        m_commandIndices = commandIndices;
+        m_commands = commands;
+    }
+
+    /**
+     * @param pathName Used in the error message
+     * @param markers  The path's markers, in any order
+     * @param eventMap Commands by marker name
+     * @throws IllegalArgumentException If a marker names a command that isn't in the event map
+     */
+    public static EventMarkerTable compile(String pathName, List<EventMarker> markers,
+            Map<String, Command> eventMap) {
+        return compile(pathName, markers, marker -> marker.timeSeconds, eventMap);
+    }
+
+    /**
+     * Same as {@link #compile(String, List, Map)}, with the markers' times
+     * coming from somewhere else, e.g. a {@link PathChain} that has retimed
+     * the path.
+     *
+     * @param markerTime The time of each marker
+     */
+    public static EventMarkerTable compile(String pathName, List<EventMarker> markers,
+            ToDoubleFunction<EventMarker> markerTime, Map<String, Command> eventMap) {
+        return compile(pathName, markers.size(), marker -> markerTime.applyAsDouble(markers.get(marker)),
+                marker -> markers.get(marker).names, eventMap);
+    }
+
+    /**
+     * Same as {@link #compile(String, List, Map)}, with the markers read from
+     * a packed trajectory.
+     */
+    public static EventMarkerTable compile(String pathName, BinaryTrajectory trajectory,
+            Map<String, Command> eventMap) {
+        return compile(pathName, trajectory.getMarkerCount(), trajectory::getMarkerTime,
+                trajectory::getMarkerNames, eventMap);
+    }
+
+    private static EventMarkerTable compile(String pathName, int markerCount, IntToDoubleFunction markerTime,
+            IntFunction<List<String>> markerNames, Map<String, Command> eventMap) {
+        Integer[] sorted = new Integer[markerCount];
+        for (int marker = 0; marker < markerCount; marker++) {
+            sorted[marker] = marker;
+        }
+        Arrays.sort(sorted, Comparator.comparingDouble(markerTime::applyAsDouble));
+
+        List<String> missing = new ArrayList<>();
+        List<Command> commands = new ArrayList<>();
+        Map<Command, Integer> commandIndices = new IdentityHashMap<>();
+        List<Double> times = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        for (int marker : sorted) {
+            double time = markerTime.applyAsDouble(marker);
+            for (String name : markerNames.apply(marker)) {
+                Command command = eventMap.get(name);
+                if (command == null) {
+                    missing.add(String.format("\"%s\" at %.2f s", name, time));
+                    continue;
+                }
+                Integer index = commandIndices.get(command);
+                if (index == null) {
+                    index = commands.size();
+                    commands.add(command);
+                    commandIndices.put(command, index);
+                }
+                times.add(time);
+                indices.add(index);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Path " + pathName + " has markers with no event command: "
+                    + String.join(", ", missing));
+        }
+
+        double[] timeArray = new double[times.size()];
+        int[] indexArray = new int[indices.size()];
+        for (int i = 0; i < timeArray.length; i++) {
+            timeArray[i] = times.get(i);
+            indexArray[i] = indices.get(i);
+        }
+        return new EventMarkerTable(timeArray, indexArray, commands.toArray(new Command[0]));
+    }
+
+    /**
+     * @return How many (time, command) entries there are
+     */
+    public int size() {
+        return m_times.length;
+    }
+
+    public double getTimeSeconds(int entry) {
+        return m_times[entry];
+    }
+
+    /**
+     * @return The entry's command, as an index for {@link #getCommand(int)}
+     */
+    public int getCommandIndex(int entry) {
+        return m_commandIndices[entry];
+    }
+
+    /**
+     * @return How many distinct commands the markers use
+     */
+    public int getCommandCount() {
+        return m_commands.length;
+    }
+
+    public Command getCommand(int index) {
+        return m_commands[index];
+    }
+}
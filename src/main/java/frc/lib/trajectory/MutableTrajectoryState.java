@@ -0,0 +1,17 @@
+package frc.lib.trajectory;
+
+/**
+ * Caller-owned holder that {@link TrajectorySampler} writes a sampled state
+ * into, so sampling doesn't have to allocate. Angles are in radians.
+ */
+public class MutableTrajectoryState {
+    public double timeSeconds;
+    public double xMeters;
+    public double yMeters;
+    public double headingRadians;
+    public double velocityMetersPerSecond;
+    public double accelerationMetersPerSecondSq;
+    public double curvatureRadPerMeter;
+    public double holonomicRotationRadians;
+    public double holonomicAngularVelocityRadPerSec;
+}
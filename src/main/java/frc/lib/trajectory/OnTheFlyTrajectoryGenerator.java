@@ -0,0 +1,127 @@
+package frc.lib.trajectory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPoint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Generates straight-line trajectories between two poses on a background
+ * thread. Only the newest request is ever generated: a request that arrives
+ * while an older one is still waiting replaces it, and the older future is
+ * cancelled. A result that has been superseded while it was being generated is
+ * dropped.
+ */
+public class OnTheFlyTrajectoryGenerator {
+    private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+    private final ExecutorService m_executor;
+    private final AtomicReference<Request> m_pending = new AtomicReference<>();
+    private volatile Request m_latest;
+
+    private volatile double m_lastGenerationMs = 0.0;
+    private volatile double m_maxGenerationMs = 0.0;
+
+    public OnTheFlyTrajectoryGenerator() {
+        m_executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OnTheFlyTrajectory");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests a trajectory that starts at rest at the start pose and ends at
+     * rest at the target pose. Any request that hasn't started generating yet
+     * is cancelled.
+     */
+    public CompletableFuture<TrajectorySampler> request(Pose2d start, Pose2d target, PathConstraints constraints) {
+        Request request = new Request(start, target, constraints);
+        m_latest = request;
+
+        Request coalesced = m_pending.getAndSet(request);
+        if (coalesced != null) {
+            coalesced.m_future.cancel(false);
+        }
+
+        m_executor.execute(this::generatePending);
+        return request.m_future;
+    }
+
+    /**
+     * Cancels any outstanding request.
+     */
+    public void cancel() {
+        m_latest = null;
+        Request pending = m_pending.getAndSet(null);
+        if (pending != null) {
+            pending.m_future.cancel(false);
+        }
+    }
+
+    public double getLastGenerationMs() {
+        return m_lastGenerationMs;
+    }
+
+    public double getMaxGenerationMs() {
+        return m_maxGenerationMs;
+    }
+
+    private void generatePending() {
+        Request request = m_pending.getAndSet(null);
+        if (request == null || request.m_future.isCancelled()) {
+            // Already picked up by an earlier task or cancelled
+            return;
+        }
+
+        try {
+            long startNanos = System.nanoTime();
+
+            Translation2d startPosition = request.m_start.getTranslation();
+            Translation2d targetPosition = request.m_target.getTranslation();
+            Rotation2d heading = targetPosition.minus(startPosition).getAngle();
+            TrajectorySampler sampler = TrajectorySampler.fromPathPlanner(PathPlanner.generatePath(
+                    request.m_constraints,
+                    new PathPoint(startPosition, heading, request.m_start.getRotation()),
+                    new PathPoint(targetPosition, heading, request.m_target.getRotation())));
+
+            double generationMs = (System.nanoTime() - startNanos) / 1.0e6;
+            m_lastGenerationMs = generationMs;
+            if (generationMs > m_maxGenerationMs) {
+                m_maxGenerationMs = generationMs;
+            }
+            System.out.printf("On the fly trajectory generated in %.2f ms (%.1f control cycles)\n", generationMs,
+                    generationMs / (LOOP_PERIOD_SECONDS * 1000.0));
+
+            if (m_latest != request) {
+                // A newer target came in while we were generating this one
+                request.m_future.cancel(false);
+                return;
+            }
+            request.m_future.complete(sampler);
+        } catch (RuntimeException e) {
+            request.m_future.completeExceptionally(e);
+        }
+    }
+
+    private static final class Request {
+        private final Pose2d m_start;
+        private final Pose2d m_target;
+        private final PathConstraints m_constraints;
+        private final CompletableFuture<TrajectorySampler> m_future = new CompletableFuture<>();
+
+        Request(Pose2d start, Pose2d target, PathConstraints constraints) {
+            m_start = start;
+            m_target = target;
+            m_constraints = constraints;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package frc.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Several PathPlanner paths stitched into one trajectory, so they can be
+ * followed back to back without stopping or resetting odometry in between.
+ *
+ * <p>
+ * PathPlanner generates every path to start and end at rest. The chain keeps
+ * the shape of each path (positions, headings, curvature and holonomic
+ * rotation) but throws away their timing, and plans a new velocity profile
+ * over the whole chain: accelerate as hard as the constraints allow, stay
+ * under the max velocity and the centripetal limit of the curvature, and
+ * come to rest only at the very end. Where the next path heads back the way
+ * the previous one came, the robot has to stop anyway, so the profile
+ * reaches zero there.
+ *
+ * <p>
+ * Inside each path the new profile never goes faster than the path's own,
+ * so its stop points and velocity overrides still hold. The exception is
+ * the ramp PathPlanner puts at each end of every path to start and stop at
+ * rest, which is what chaining gets rid of.
+ *
+ * <p>
+ * Markers keep their place along each path and get the chained time of that
+ * place.
+ */
+public class PathChain {
+    // The next path has to start this close to where the previous one ends
+    private static final double JOIN_TOLERANCE_METERS = 0.05;
+    // A turn sharper than this at a join means reversing, which needs a stop
+    private static final double REVERSAL_ANGLE_RADIANS = Math.PI / 2.0;
+    // A path's own velocity under this is a stop point
+    private static final double STOP_VELOCITY_METERS_PER_SECOND = 1e-3;
+    // How far under its start and end ramps a path's own velocity has to be
+    // before it counts as a limit of its own rather than part of the ramp
+    private static final double RAMP_TOLERANCE_METERS_PER_SECOND = 0.05;
+
+    private final String m_name;
+    private final TrajectorySampler m_sampler;
+    private final Pose2d m_initialHolonomicPose;
+    private final List<EventMarker> m_markers;
+    private final Map<EventMarker, Double> m_markerTimes;
+
+    private PathChain(String name, TrajectorySampler sampler, Pose2d initialHolonomicPose,
+            List<EventMarker> markers, Map<EventMarker, Double> markerTimes) {
+        m_name = name;
+        m_sampler = sampler;
+        m_initialHolonomicPose = initialHolonomicPose;
+        m_markers = markers;
+        m_markerTimes = markerTimes;
+    }
+
+    /**
+     * @param name        Used for messages and the tracking summary
+     * @param paths       In the order they are driven
+     * @param constraints Velocity and acceleration limits for the new profile
+     * @throws IllegalArgumentException If a path doesn't start where the previous one ends
+     */
+    public static PathChain build(String name, List<PathPlannerTrajectory> paths, PathConstraints constraints) {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("Path chain " + name + " has no paths");
+        }
+
+        List<PathPlannerState> states = new ArrayList<>();
+        List<Boolean> stops = new ArrayList<>();
+        // Each state's velocity from its own path, where it limits the chain
+        List<Double> caps = new ArrayList<>();
+        // Chained index of each path's first state
+        int[] firstIndices = new int[paths.size()];
+
+        for (int k = 0; k < paths.size(); k++) {
+            List<PathPlannerState> pathStates = new ArrayList<>();
+            for (Trajectory.State state : paths.get(k).getStates()) {
+                pathStates.add((PathPlannerState) state);
+            }
+
+            double[] pathCaps = velocityCaps(pathStates, constraints.maxAcceleration);
+
+            if (k == 0) {
+                firstIndices[k] = 0;
+                states.addAll(pathStates);
+                for (int i = 0; i < pathStates.size(); i++) {
+                    stops.add(false);
+                    caps.add(pathCaps[i]);
+                }
+                continue;
+            }
+
+            // The join replaces the next path's first state
+            int joinIndex = states.size() - 1;
+            PathPlannerState end = states.get(joinIndex);
+            PathPlannerState start = pathStates.get(0);
+            double gap = end.poseMeters.getTranslation().getDistance(start.poseMeters.getTranslation());
+            if (gap > JOIN_TOLERANCE_METERS) {
+                throw new IllegalArgumentException(String.format(
+                        "Path chain %s: path %d starts %.2f m from where the previous one ends", name, k, gap));
+            }
+            double turn = Math.abs(MathUtil.angleModulus(
+                    start.poseMeters.getRotation().getRadians() - end.poseMeters.getRotation().getRadians()));
+            stops.set(joinIndex, turn > REVERSAL_ANGLE_RADIANS);
+
+            firstIndices[k] = joinIndex;
+            for (int i = 1; i < pathStates.size(); i++) {
+                states.add(pathStates.get(i));
+                stops.add(false);
+                caps.add(pathCaps[i]);
+            }
+        }
+
+        int count = states.size();
+        double[] time = new double[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] heading = new double[count];
+        double[] velocity = new double[count];
+        double[] acceleration = new double[count];
+        double[] curvature = new double[count];
+        double[] holonomicRotation = new double[count];
+        double[] holonomicAngularVelocity = new double[count];
+        double[] distance = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            PathPlannerState state = states.get(i);
+            x[i] = state.poseMeters.getX();
+            y[i] = state.poseMeters.getY();
+            heading[i] = state.poseMeters.getRotation().getRadians();
+            curvature[i] = state.curvatureRadPerMeter;
+            holonomicRotation[i] = state.holonomicRotation.getRadians();
+            if (i > 0) {
+                distance[i] = Math.hypot(x[i] - x[i - 1], y[i] - y[i - 1]);
+            }
+
+            if (i == 0 || i == count - 1 || stops.get(i)) {
+                velocity[i] = 0.0;
+            } else if (Math.abs(curvature[i]) > 1e-6) {
+                velocity[i] = Math.min(caps.get(i), Math.min(constraints.maxVelocity,
+                        Math.sqrt(constraints.maxAcceleration / Math.abs(curvature[i]))));
+            } else {
+                velocity[i] = Math.min(caps.get(i), constraints.maxVelocity);
+            }
+        }
+
+        // Limit each state by how fast the robot can get there from the
+        // previous one, then by how fast it can still slow down for the next
+        for (int i = 1; i < count; i++) {
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i - 1] * velocity[i - 1]
+                    + 2.0 * constraints.maxAcceleration * distance[i]));
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            velocity[i] = Math.min(velocity[i], Math.sqrt(velocity[i + 1] * velocity[i + 1]
+                    + 2.0 * constraints.maxAcceleration * distance[i + 1]));
+        }
+
+        for (int i = 1; i < count; i++) {
+            double speedSum = velocity[i - 1] + velocity[i];
+            double dt;
+            if (distance[i] <= 0.0) {
+                dt = 0.0;
+            } else if (speedSum > 1e-9) {
+                dt = 2.0 * distance[i] / speedSum;
+            } else {
+                dt = 2.0 * Math.sqrt(distance[i] / constraints.maxAcceleration);
+            }
+            time[i] = time[i - 1] + dt;
+            if (dt > 0.0) {
+                acceleration[i] = (velocity[i] - velocity[i - 1]) / dt;
+                holonomicAngularVelocity[i] = MathUtil.angleModulus(
+                        holonomicRotation[i] - holonomicRotation[i - 1]) / dt;
+            }
+        }
+
+        // Put each marker at the chained time of the same place on its path
+        List<EventMarker> markers = new ArrayList<>();
+        Map<EventMarker, Double> markerTimes = new IdentityHashMap<>();
+        for (int k = 0; k < paths.size(); k++) {
+            List<Trajectory.State> pathStates = paths.get(k).getStates();
+            for (EventMarker marker : paths.get(k).getMarkers()) {
+                markers.add(marker);
+                markerTimes.put(marker, chainedTime(pathStates, firstIndices[k], marker.timeSeconds, time));
+            }
+        }
+
+        PathPlannerState first = states.get(0);
+        Pose2d initialHolonomicPose = new Pose2d(first.poseMeters.getTranslation(), first.holonomicRotation);
+        TrajectorySampler sampler = new TrajectorySampler(time, x, y, heading, velocity, acceleration, curvature,
+                holonomicRotation, holonomicAngularVelocity);
+        return new PathChain(name, sampler, initialHolonomicPose, markers, markerTimes);
+    }
+
+    /**
+     * The most the chain may go at each state of one path: zero at the path's
+     * stop points, the path's own velocity where something other than its
+     * start and end ramps set it, and no limit otherwise. The path's first
+     * and last states are left to the join.
+     */
+    private static double[] velocityCaps(List<PathPlannerState> pathStates, double maxAcceleration) {
+        int count = pathStates.size();
+        double[] caps = new double[count];
+        double[] along = new double[count];
+        for (int i = 1; i < count; i++) {
+            along[i] = along[i - 1] + pathStates.get(i).poseMeters.getTranslation()
+                    .getDistance(pathStates.get(i - 1).poseMeters.getTranslation());
+        }
+
+        for (int i = 0; i < count; i++) {
+            caps[i] = Double.POSITIVE_INFINITY;
+            if (i == 0 || i == count - 1) {
+                continue;
+            }
+            double source = Math.abs(pathStates.get(i).velocityMetersPerSecond);
+            double ramp = Math.sqrt(2.0 * maxAcceleration * Math.min(along[i], along[count - 1] - along[i]));
+            if (source < STOP_VELOCITY_METERS_PER_SECOND) {
+                caps[i] = 0.0;
+            } else if (source < ramp - RAMP_TOLERANCE_METERS_PER_SECOND) {
+                caps[i] = source;
+            }
+        }
+        return caps;
+    }
+
+    private static double chainedTime(List<Trajectory.State> pathStates, int firstIndex, double pathTime,
+            double[] chainedTimes) {
+        int last = pathStates.size() - 1;
+        for (int j = 0; j < last; j++) {
+            double start = pathStates.get(j).timeSeconds;
+            double end = pathStates.get(j + 1).timeSeconds;
+            if (pathTime < end) {
+                double t = (end <= start) ? 0.0 : Math.max(0.0, (pathTime - start) / (end - start));
+                return chainedTimes[firstIndex + j] + (chainedTimes[firstIndex + j + 1]
+                        - chainedTimes[firstIndex + j]) * t;
+            }
+        }
+        return chainedTimes[firstIndex + last];
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * @return A sampler with its own cursor
+     */
+    public TrajectorySampler getSampler() {
+        return m_sampler.copy();
+    }
+
+    public Pose2d getInitialHolonomicPose() {
+        return m_initialHolonomicPose;
+    }
+
+    /**
+     * Resolves the markers of every path in the chain, at their chained times.
+     *
+     * @see EventMarkerTable#compile(String, List, java.util.function.ToDoubleFunction, Map)
+     */
+    public EventMarkerTable compileMarkers(Map<String, Command> eventMap) {
+        return EventMarkerTable.compile(m_name, m_markers, m_markerTimes::get, eventMap);
+    }
+}
@@ -0,0 +1,235 @@
+package frc.lib.trajectory;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Records reference versus measured pose and velocity every cycle while a path
+ * is followed, into buffers allocated up front, and summarizes how well the
+ * path was tracked once it's done.
+ *
+ * <p>
+ * The robot arrived if, at the last recorded cycle, it was within
+ * {@link #ARRIVAL_DISTANCE_METERS} of the reference at about the reference
+ * speed. The summary says whether it did and how far off it was, so a path
+ * that ends on time but short of its end still shows up.
+ */
+public class PathTrackingRecorder {
+    // Extra room in case the path runs long or the loop runs faster than 50 Hz
+    private static final double CAPACITY_MARGIN = 2.0;
+    private static final double LOOP_PERIOD_SECONDS = 0.02;
+    public static final double ARRIVAL_DISTANCE_METERS = 0.05;
+    public static final double ARRIVAL_SPEED_METERS_PER_SECOND = 0.1;
+
+    private final String m_name;
+    private final double m_plannedDurationSeconds;
+    private final int m_capacity;
+
+    private final double[] m_time;
+    private final double[] m_referenceX;
+    private final double[] m_referenceY;
+    private final double[] m_referencePathHeading;
+    private final double[] m_referenceRotation;
+    private final double[] m_referenceVelocity;
+    private final double[] m_measuredX;
+    private final double[] m_measuredY;
+    private final double[] m_measuredRotation;
+    private final double[] m_measuredVelocity;
+
+    private int m_count = 0;
+    private int m_droppedCount = 0;
+
+    // Results of the last summarize()
+    private double m_rmsCrossTrackError;
+    private double m_maxCrossTrackError;
+    private double m_rmsHeadingError;
+    private double m_maxHeadingError;
+    private double m_rmsVelocityError;
+    private double m_maxVelocityError;
+    private double m_finalError;
+    private boolean m_arrived;
+    private double m_actualDurationSeconds;
+
+    public PathTrackingRecorder(String name, double plannedDurationSeconds) {
+        m_name = name;
+        m_plannedDurationSeconds = plannedDurationSeconds;
+        m_capacity = (int) Math.ceil(plannedDurationSeconds * CAPACITY_MARGIN / LOOP_PERIOD_SECONDS) + 1;
+
+        m_time = new double[m_capacity];
+        m_referenceX = new double[m_capacity];
+        m_referenceY = new double[m_capacity];
+        m_referencePathHeading = new double[m_capacity];
+        m_referenceRotation = new double[m_capacity];
+        m_referenceVelocity = new double[m_capacity];
+        m_measuredX = new double[m_capacity];
+        m_measuredY = new double[m_capacity];
+        m_measuredRotation = new double[m_capacity];
+        m_measuredVelocity = new double[m_capacity];
+    }
+
+    public void reset() {
+        m_count = 0;
+        m_droppedCount = 0;
+    }
+
+    /**
+     * @param timeSeconds Time since the path started
+     * @param reference State the robot should be at
+     * @param measuredPose Pose from odometry
+     * @param measuredVelocity Measured translational speed in meters per second
+     */
+    public void record(double timeSeconds, MutableTrajectoryState reference, Pose2d measuredPose,
+            double measuredVelocity) {
+        if (m_count >= m_capacity) {
+            m_droppedCount++;
+            return;
+        }
+
+        int i = m_count++;
+        m_time[i] = timeSeconds;
+        m_referenceX[i] = reference.xMeters;
+        m_referenceY[i] = reference.yMeters;
+        m_referencePathHeading[i] = reference.headingRadians;
+        m_referenceRotation[i] = reference.holonomicRotationRadians;
+        m_referenceVelocity[i] = Math.abs(reference.velocityMetersPerSecond);
+        m_measuredX[i] = measuredPose.getX();
+        m_measuredY[i] = measuredPose.getY();
+        m_measuredRotation[i] = measuredPose.getRotation().getRadians();
+        m_measuredVelocity[i] = Math.abs(measuredVelocity);
+    }
+
+    /**
+     * Computes the error statistics over everything recorded so far.
+     *
+     * @param actualDurationSeconds How long the path was followed for
+     */
+    public void summarize(double actualDurationSeconds) {
+        double crossTrackSquares = 0.0;
+        double headingSquares = 0.0;
+        double velocitySquares = 0.0;
+        m_maxCrossTrackError = 0.0;
+        m_maxHeadingError = 0.0;
+        m_maxVelocityError = 0.0;
+
+        for (int i = 0; i < m_count; i++) {
+            // Position error perpendicular to the direction of travel
+            double xError = m_measuredX[i] - m_referenceX[i];
+            double yError = m_measuredY[i] - m_referenceY[i];
+            double pathHeading = m_referencePathHeading[i];
+            double crossTrackError = Math.abs(-xError * Math.sin(pathHeading) + yError * Math.cos(pathHeading));
+
+            double headingError = Math.abs(MathUtil.angleModulus(m_measuredRotation[i] - m_referenceRotation[i]));
+            double velocityError = Math.abs(m_measuredVelocity[i] - m_referenceVelocity[i]);
+
+            crossTrackSquares += crossTrackError * crossTrackError;
+            headingSquares += headingError * headingError;
+            velocitySquares += velocityError * velocityError;
+            m_maxCrossTrackError = Math.max(m_maxCrossTrackError, crossTrackError);
+            m_maxHeadingError = Math.max(m_maxHeadingError, headingError);
+            m_maxVelocityError = Math.max(m_maxVelocityError, velocityError);
+        }
+
+        int count = Math.max(1, m_count);
+        m_rmsCrossTrackError = Math.sqrt(crossTrackSquares / count);
+        m_rmsHeadingError = Math.sqrt(headingSquares / count);
+        m_rmsVelocityError = Math.sqrt(velocitySquares / count);
+        int last = m_count - 1;
+        m_finalError = (m_count == 0) ? 0.0
+                : Math.hypot(m_measuredX[last] - m_referenceX[last], m_measuredY[last] - m_referenceY[last]);
+        m_arrived = m_count > 0 && m_finalError <= ARRIVAL_DISTANCE_METERS
+                && Math.abs(m_measuredVelocity[last] - m_referenceVelocity[last]) <= ARRIVAL_SPEED_METERS_PER_SECOND;
+        m_actualDurationSeconds = actualDurationSeconds;
+    }
+
+    /**
+     * Publishes the last summary to NetworkTables under PathTracking/[path name]
+     * and prints it.
+     */
+    public void publish() {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("PathTracking").getSubTable(m_name);
+        table.getEntry("RMS Cross Track m").setDouble(m_rmsCrossTrackError);
+        table.getEntry("Max Cross Track m").setDouble(m_maxCrossTrackError);
+        table.getEntry("RMS Heading deg").setDouble(Math.toDegrees(m_rmsHeadingError));
+        table.getEntry("Max Heading deg").setDouble(Math.toDegrees(m_maxHeadingError));
+        table.getEntry("RMS Velocity mps").setDouble(m_rmsVelocityError);
+        table.getEntry("Max Velocity mps").setDouble(m_maxVelocityError);
+        table.getEntry("Final Error m").setDouble(m_finalError);
+        table.getEntry("Planned s").setDouble(m_plannedDurationSeconds);
+        table.getEntry("Actual s").setDouble(m_actualDurationSeconds);
+        table.getEntry("Overrun s").setDouble(getTimeOverrunSeconds());
+        table.getEntry("Arrived").setBoolean(hasArrived());
+        table.getEntry("Samples").setDouble(m_count);
+
+        System.out.printf("Path %s: cross track RMS %.3f m max %.3f m, heading RMS %.1f deg max %.1f deg,"
+                + " velocity RMS %.2f m/s max %.2f m/s, %s %.3f m off, %.2f s vs %.2f s planned (%+.2f s),"
+                + " %d samples%s\n",
+                m_name, m_rmsCrossTrackError, m_maxCrossTrackError,
+                Math.toDegrees(m_rmsHeadingError), Math.toDegrees(m_maxHeadingError),
+                m_rmsVelocityError, m_maxVelocityError, hasArrived() ? "arrived" : "did not arrive", m_finalError,
+                m_actualDurationSeconds, m_plannedDurationSeconds, getTimeOverrunSeconds(), m_count,
+                (m_droppedCount > 0) ? (", " + m_droppedCount + " dropped") : "");
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    public int getSampleCount() {
+        return m_count;
+    }
+
+    public double getRmsCrossTrackError() {
+        return m_rmsCrossTrackError;
+    }
+
+    public double getMaxCrossTrackError() {
+        return m_maxCrossTrackError;
+    }
+
+    public double getRmsHeadingError() {
+        return m_rmsHeadingError;
+    }
+
+    public double getMaxHeadingError() {
+        return m_maxHeadingError;
+    }
+
+    public double getRmsVelocityError() {
+        return m_rmsVelocityError;
+    }
+
+    public double getMaxVelocityError() {
+        return m_maxVelocityError;
+    }
+
+    /**
+     * @return Distance from the reference at the last recorded cycle
+     */
+    public double getFinalError() {
+        return m_finalError;
+    }
+
+    public double getPlannedDurationSeconds() {
+        return m_plannedDurationSeconds;
+    }
+
+    public double getActualDurationSeconds() {
+        return m_actualDurationSeconds;
+    }
+
+    /**
+     * @return Whether the robot was at the end of the path when it was last recorded
+     */
+    public boolean hasArrived() {
+        return m_arrived;
+    }
+
+    /**
+     * @return How much longer than planned the path was followed for
+     */
+    public double getTimeOverrunSeconds() {
+        return m_actualDurationSeconds - m_plannedDurationSeconds;
+    }
+}
@@ -0,0 +1,340 @@
+package frc.lib.trajectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Generates every PathPlanner path up front on a thread pool so commands can
+ * grab a finished trajectory instead of parsing and generating it on the main
+ * thread. Trajectories are keyed by path name and constraints.
+ *
+ * <p>
+ * Paths packed at build time (see {@link BinaryTrajectory}) are memory-mapped
+ * instead, and samplers, start poses and markers for them come straight from
+ * the mapped file. Generation still runs in the background for everything
+ * else, such as {@link PathChain}s, and as the fallback when a packed file is
+ * missing or was made with other constraints.
+ *
+ * <p>
+ * A path that fails to load is reported to the driver station and dropped
+ * from the cache, so the next request tries again instead of getting the
+ * same failure forever.
+ */
+public class TrajectoryCache {
+    private static final String PATH_EXTENSION = ".path";
+
+    private final ExecutorService m_executor;
+    private final Map<Key, CompletableFuture<PathPlannerTrajectory>> m_trajectories = new ConcurrentHashMap<>();
+    private final Map<Key, TrajectorySampler> m_samplers = new ConcurrentHashMap<>();
+    private final Map<Key, Double> m_generateMillis = new ConcurrentHashMap<>();
+    private volatile Map<String, BinaryTrajectory> m_packed = Map.of();
+    private volatile Map<String, Double> m_packedLoadMillis = Map.of();
+
+    public TrajectoryCache() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+        m_executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "TrajectoryCache-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating every .path file in the directory with each of the
+     * given constraints. Returns immediately; the work happens on the pool.
+     *
+     * @param pathDirectory Directory containing the PathPlanner .path files
+     * @param constraintsList Constraints to generate every path with
+     */
+    public void preload(File pathDirectory, List<PathConstraints> constraintsList) {
+        File[] pathFiles = pathDirectory.listFiles((dir, name) -> name.endsWith(PATH_EXTENSION));
+        if (pathFiles == null) {
+            System.out.println("TrajectoryCache: no paths found in " + pathDirectory);
+            return;
+        }
+
+        for (File pathFile : pathFiles) {
+            String fileName = pathFile.getName();
+            String pathName = fileName.substring(0, fileName.length() - PATH_EXTENSION.length());
+
+            for (PathConstraints constraints : constraintsList) {
+                Key key = new Key(pathName, constraints);
+                if (m_trajectories.containsKey(key)) {
+                    continue;
+                }
+                CompletableFuture<PathPlannerTrajectory> trajectory = CompletableFuture.supplyAsync(
+                        () -> generate(pathName, constraints), m_executor);
+                m_trajectories.put(key, trajectory);
+                trajectory.whenComplete((path, error) -> {
+                    if (error != null) {
+                        m_trajectories.remove(key, trajectory);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns the trajectory for a path. If it was preloaded this is a map
+     * lookup (waiting for the pool if generation is still running), otherwise
+     * it is generated on the calling thread.
+     *
+     * @throws IllegalStateException If the path can't be loaded
+     */
+    public PathPlannerTrajectory get(String pathName, PathConstraints constraints) {
+        Key key = new Key(pathName, constraints);
+        CompletableFuture<PathPlannerTrajectory> trajectory = m_trajectories.get(key);
+
+        if (trajectory == null) {
+            System.out.printf("TrajectoryCache: %s (%.2f, %.2f) was not preloaded, generating now\n",
+                    pathName, constraints.maxVelocity, constraints.maxAcceleration);
+            trajectory = CompletableFuture.completedFuture(generate(pathName, constraints));
+            CompletableFuture<PathPlannerTrajectory> existing = m_trajectories.putIfAbsent(key, trajectory);
+            if (existing != null) {
+                trajectory = existing;
+            }
+        }
+
+        try {
+            return trajectory.join();
+        } catch (CompletionException e) {
+            // Only drop the failed future, not one a later preload put there
+            m_trajectories.remove(key, trajectory);
+            throw e.getCause() instanceof IllegalStateException ? (IllegalStateException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Returns a sampler for a path with its own cursor. The columns are built
+     * once per path and constraints and shared between callers.
+     */
+    public TrajectorySampler getSampler(String pathName, PathConstraints constraints) {
+        return m_samplers.computeIfAbsent(new Key(pathName, constraints), key -> {
+            BinaryTrajectory packed = getPacked(pathName, constraints);
+            return (packed != null) ? TrajectorySampler.fromBinary(packed)
+                    : TrajectorySampler.fromPathPlanner(get(pathName, constraints));
+        }).copy();
+    }
+
+    /**
+     * @return Where a path starts, without waiting for generation if the path was packed
+     */
+    public Pose2d getInitialHolonomicPose(String pathName, PathConstraints constraints) {
+        BinaryTrajectory packed = getPacked(pathName, constraints);
+        return (packed != null) ? packed.getInitialHolonomicPose()
+                : get(pathName, constraints).getInitialHolonomicPose();
+    }
+
+    /**
+     * Resolves a path's markers against an event map, see {@link EventMarkerTable}.
+     *
+     * @throws IllegalArgumentException If a marker names a command that isn't in the event map
+     */
+    public EventMarkerTable compileMarkers(String pathName, PathConstraints constraints,
+            Map<String, Command> eventMap) {
+        BinaryTrajectory packed = getPacked(pathName, constraints);
+        return (packed != null) ? EventMarkerTable.compile(pathName, packed, eventMap)
+                : EventMarkerTable.compile(pathName, get(pathName, constraints).getMarkers(), eventMap);
+    }
+
+    /**
+     * Memory-maps every packed trajectory in the directory. This is fast
+     * enough to do on the calling thread. Files that can't be opened are
+     * reported and skipped, those paths are generated instead.
+     */
+    public void loadPacked(File packedDirectory) {
+        File[] files = packedDirectory.listFiles((dir, name) -> name.endsWith(BinaryTrajectory.FILE_EXTENSION));
+        if (files == null) {
+            System.out.println("TrajectoryCache: no packed trajectories in " + packedDirectory);
+            return;
+        }
+
+        Map<String, BinaryTrajectory> packed = new HashMap<>();
+        Map<String, Double> loadMillis = new HashMap<>();
+        for (File file : files) {
+            long startNanos = System.nanoTime();
+            try {
+                BinaryTrajectory trajectory = BinaryTrajectory.load(file);
+                // Touch the last state so the time includes paging it in
+                trajectory.getTotalTimeSeconds();
+                packed.put(trajectory.getName(), trajectory);
+                loadMillis.put(trajectory.getName(), (System.nanoTime() - startNanos) / 1.0e6);
+            } catch (IOException e) {
+                DriverStation.reportError("TrajectoryCache: unable to map " + file + ": " + e.getMessage(), false);
+            }
+        }
+        m_packed = packed;
+        m_packedLoadMillis = loadMillis;
+    }
+
+    /**
+     * @return The packed trajectory for a path, or null if there isn't one made with these constraints
+     */
+    public BinaryTrajectory getPacked(String pathName, PathConstraints constraints) {
+        BinaryTrajectory packed = m_packed.get(pathName);
+        return (packed != null && packed.matches(constraints)) ? packed : null;
+    }
+
+    /**
+     * Logs how long each packed path took to map next to how long the same
+     * path took to parse and generate from its JSON, once preloading is done.
+     * Both were timed when they happened, so this doesn't load anything again.
+     */
+    public void compareLoadTimes() {
+        runAfterPreload(() -> {
+            double totalPackedMs = 0.0;
+            double totalJsonMs = 0.0;
+            for (Map.Entry<Key, Double> generated : m_generateMillis.entrySet()) {
+                Double packedMs = m_packedLoadMillis.get(generated.getKey().m_pathName);
+                BinaryTrajectory packed = m_packed.get(generated.getKey().m_pathName);
+                if (packedMs == null || !generated.getKey().matches(packed)) {
+                    continue;
+                }
+                totalPackedMs += packedMs;
+                totalJsonMs += generated.getValue();
+                System.out.printf("Trajectory load %s: packed %.2f ms, JSON %.2f ms\n",
+                        generated.getKey().m_pathName, packedMs, generated.getValue());
+            }
+            System.out.printf("Trajectory load total: packed %.2f ms, JSON %.2f ms\n", totalPackedMs, totalJsonMs);
+        });
+    }
+
+    /**
+     * Stitches paths into one trajectory that is followed without stopping
+     * in between, see {@link PathChain}. Builds a new chain on every call.
+     */
+    public PathChain getChain(List<String> pathNames, PathConstraints constraints) {
+        List<PathPlannerTrajectory> paths = new ArrayList<>();
+        for (String pathName : pathNames) {
+            paths.add(get(pathName, constraints));
+        }
+        return PathChain.build(String.join(" + ", pathNames), paths, constraints);
+    }
+
+    /**
+     * Compares sampling each preloaded path with Trajectory.sample() against
+     * a {@link TrajectorySampler}, longest path first. Waits for preloading
+     * and runs on the calling thread.
+     */
+    public void benchmarkSamplers(int passes) {
+        awaitPreload();
+        List<Key> keys = new ArrayList<>();
+        m_trajectories.forEach((key, trajectory) -> {
+            if (!trajectory.isCompletedExceptionally()) {
+                keys.add(key);
+            }
+        });
+        keys.sort(Comparator.comparingDouble((Key key) -> get(key).getTotalTimeSeconds()).reversed());
+
+        for (Key key : keys) {
+            PathPlannerTrajectory path = get(key);
+            TrajectorySamplerBenchmark.run(key.m_pathName, path, TrajectorySampler.fromPathPlanner(path), passes);
+        }
+    }
+
+    private PathPlannerTrajectory get(Key key) {
+        return m_trajectories.get(key).join();
+    }
+
+    /**
+     * Runs a task on the pool after every preloaded trajectory is generated,
+     * whether or not they all loaded.
+     */
+    public void runAfterPreload(Runnable task) {
+        allPreloaded().thenRunAsync(task, m_executor);
+    }
+
+    /**
+     * Blocks until all preloaded trajectories have been generated or have
+     * failed. Failures were already reported when they happened.
+     */
+    public void awaitPreload() {
+        allPreloaded().join();
+    }
+
+    private CompletableFuture<Void> allPreloaded() {
+        return CompletableFuture.allOf(m_trajectories.values().stream()
+                .map(trajectory -> trajectory.handle((path, error) -> path))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private PathPlannerTrajectory generate(String pathName, PathConstraints constraints) {
+        long startNanos = System.nanoTime();
+
+        // PathPlanner reads, parses and generates in one call; it returns null
+        // (after printing the exception) if any of that fails.
+        PathPlannerTrajectory trajectory = PathPlanner.loadPath(pathName, constraints);
+        long loadedNanos = System.nanoTime();
+
+        if (trajectory == null) {
+            String message = String.format("TrajectoryCache: unable to load %s (%.2f, %.2f)",
+                    pathName, constraints.maxVelocity, constraints.maxAcceleration);
+            DriverStation.reportError(message, false);
+            throw new IllegalStateException(message);
+        }
+
+        double loadMillis = (loadedNanos - startNanos) / 1.0e6;
+        m_generateMillis.put(new Key(pathName, constraints), loadMillis);
+        System.out.printf("TrajectoryCache: %s (%.2f, %.2f) loaded and generated in %.1f ms on %s\n",
+                pathName, constraints.maxVelocity, constraints.maxAcceleration,
+                loadMillis, Thread.currentThread().getName());
+
+        return trajectory;
+    }
+
+    private static final class Key {
+        private final String m_pathName;
+        private final double m_maxVelocity;
+        private final double m_maxAcceleration;
+
+        Key(String pathName, PathConstraints constraints) {
+            m_pathName = pathName;
+            m_maxVelocity = constraints.maxVelocity;
+            m_maxAcceleration = constraints.maxAcceleration;
+        }
+
+        boolean matches(BinaryTrajectory packed) {
+            return packed.matches(new PathConstraints(m_maxVelocity, m_maxAcceleration));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return m_pathName.equals(key.m_pathName)
+                    && Double.compare(m_maxVelocity, key.m_maxVelocity) == 0
+                    && Double.compare(m_maxAcceleration, key.m_maxAcceleration) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = m_pathName.hashCode();
+            hash = 31 * hash + Double.hashCode(m_maxVelocity);
+            hash = 31 * hash + Double.hashCode(m_maxAcceleration);
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package frc.lib.trajectory;
+
+import java.util.List;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Samples a trajectory stored as parallel primitive columns. Following a path
+ * samples forward in time, so a cursor remembers the last segment and usually
+ * only has to step once; anything else falls back to a binary search. Samples
+ * are interpolated into a caller-provided {@link MutableTrajectoryState}, so
+ * nothing is allocated per sample.
+ *
+ * <p>
+ * The columns are never modified after construction. The cursor is not
+ * thread safe, so each user should get its own instance from {@link #copy()}.
+ */
+public class TrajectorySampler {
+    // Past this many states we binary search instead of walking the cursor
+    private static final int MAX_CURSOR_STEPS = 8;
+
+    private final double[] m_time;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_heading;
+    private final double[] m_velocity;
+    private final double[] m_acceleration;
+    private final double[] m_curvature;
+    private final double[] m_holonomicRotation;
+    private final double[] m_holonomicAngularVelocity;
+    private final int m_stateCount;
+
+    private int m_cursor = 0;
+
+    // Package private so PathChain can build the columns itself
+    TrajectorySampler(double[] time, double[] x, double[] y, double[] heading, double[] velocity,
+            double[] acceleration, double[] curvature, double[] holonomicRotation,
+            double[] holonomicAngularVelocity) {
+        if (time.length == 0) {
+            throw new IllegalArgumentException("Trajectory has no states");
+        }
+
+        m_time = time;
+        m_x = x;
+        m_y = y;
+        m_heading = heading;
+        m_velocity = velocity;
+        m_acceleration = acceleration;
+        m_curvature = curvature;
+        m_holonomicRotation = holonomicRotation;
+        m_holonomicAngularVelocity = holonomicAngularVelocity;
+        m_stateCount = time.length;
+    }
+
+    public static TrajectorySampler fromPathPlanner(PathPlannerTrajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        int count = states.size();
+        double[] time = new double[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] heading = new double[count];
+        double[] velocity = new double[count];
+        double[] acceleration = new double[count];
+        double[] curvature = new double[count];
+        double[] holonomicRotation = new double[count];
+        double[] holonomicAngularVelocity = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            PathPlannerState state = (PathPlannerState) states.get(i);
+            time[i] = state.timeSeconds;
+            x[i] = state.poseMeters.getX();
+            y[i] = state.poseMeters.getY();
+            heading[i] = state.poseMeters.getRotation().getRadians();
+            velocity[i] = state.velocityMetersPerSecond;
+            acceleration[i] = state.accelerationMetersPerSecondSq;
+            curvature[i] = state.curvatureRadPerMeter;
+            holonomicRotation[i] = state.holonomicRotation.getRadians();
+            holonomicAngularVelocity[i] = state.holonomicAngularVelocityRadPerSec;
+        }
+
+        return new TrajectorySampler(time, x, y, heading, velocity, acceleration, curvature, holonomicRotation,
+                holonomicAngularVelocity);
+    }
+
+    /**
+     * Builds a sampler from a plain WPILib trajectory. Like
+     * SwerveControllerCommand, the robot holds the heading of the final pose
+     * for the whole trajectory.
+     */
+    public static TrajectorySampler fromTrajectory(Trajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        int count = states.size();
+        double[] time = new double[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] heading = new double[count];
+        double[] velocity = new double[count];
+        double[] acceleration = new double[count];
+        double[] curvature = new double[count];
+        double[] holonomicRotation = new double[count];
+        double[] holonomicAngularVelocity = new double[count];
+
+        double finalRotation = states.get(count - 1).poseMeters.getRotation().getRadians();
+        for (int i = 0; i < count; i++) {
+            Trajectory.State state = states.get(i);
+            time[i] = state.timeSeconds;
+            x[i] = state.poseMeters.getX();
+            y[i] = state.poseMeters.getY();
+            heading[i] = state.poseMeters.getRotation().getRadians();
+            velocity[i] = state.velocityMetersPerSecond;
+            acceleration[i] = state.accelerationMetersPerSecondSq;
+            curvature[i] = state.curvatureRadPerMeter;
+            holonomicRotation[i] = finalRotation;
+        }
+
+        return new TrajectorySampler(time, x, y, heading, velocity, acceleration, curvature, holonomicRotation,
+                holonomicAngularVelocity);
+    }
+
+    /**
+     * Builds a sampler from a packed trajectory. The columns are bulk copied
+     * out of the mapped file; nothing is parsed or generated.
+     */
+    public static TrajectorySampler fromBinary(BinaryTrajectory trajectory) {
+        return new TrajectorySampler(
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_TIME),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_X),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_Y),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_HEADING),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_VELOCITY),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_ACCELERATION),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_CURVATURE),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_HOLONOMIC_ROTATION),
+                trajectory.copyColumn(BinaryTrajectory.COLUMN_HOLONOMIC_ANGULAR_VELOCITY));
+    }
+
+    /**
+     * @return A sampler sharing this one's columns with its own cursor
+     */
+    public TrajectorySampler copy() {
+        return new TrajectorySampler(m_time, m_x, m_y, m_heading, m_velocity, m_acceleration, m_curvature,
+                m_holonomicRotation, m_holonomicAngularVelocity);
+    }
+
+    public void resetCursor() {
+        m_cursor = 0;
+    }
+
+    public int getStateCount() {
+        return m_stateCount;
+    }
+
+    public double getTotalTimeSeconds() {
+        return m_time[m_stateCount - 1];
+    }
+
+    /**
+     * Writes the state at the given time into the holder. Times outside the
+     * trajectory are clamped to the first or last state.
+     */
+    public void sample(double timeSeconds, MutableTrajectoryState state) {
+        if (timeSeconds <= m_time[0]) {
+            m_cursor = 0;
+            copyState(0, state);
+            return;
+        }
+        if (timeSeconds >= m_time[m_stateCount - 1]) {
+            m_cursor = m_stateCount - 1;
+            copyState(m_stateCount - 1, state);
+            return;
+        }
+
+        // Find the segment [index, index + 1] that contains the time
+        int index = m_cursor;
+        if (index >= m_stateCount - 1 || m_time[index] > timeSeconds) {
+            index = search(timeSeconds);
+        } else {
+            int steps = 0;
+            while (m_time[index + 1] <= timeSeconds) {
+                index++;
+                if (++steps > MAX_CURSOR_STEPS) {
+                    index = search(timeSeconds);
+                    break;
+                }
+            }
+        }
+        m_cursor = index;
+
+        int next = index + 1;
+        double span = m_time[next] - m_time[index];
+        double t = (span <= 0.0) ? 0.0 : (timeSeconds - m_time[index]) / span;
+
+        state.timeSeconds = timeSeconds;
+        state.xMeters = lerp(m_x[index], m_x[next], t);
+        state.yMeters = lerp(m_y[index], m_y[next], t);
+        state.headingRadians = angleLerp(m_heading[index], m_heading[next], t);
+        state.velocityMetersPerSecond = lerp(m_velocity[index], m_velocity[next], t);
+        state.accelerationMetersPerSecondSq = lerp(m_acceleration[index], m_acceleration[next], t);
+        state.curvatureRadPerMeter = lerp(m_curvature[index], m_curvature[next], t);
+        state.holonomicRotationRadians = angleLerp(m_holonomicRotation[index], m_holonomicRotation[next], t);
+        state.holonomicAngularVelocityRadPerSec = lerp(m_holonomicAngularVelocity[index],
+                m_holonomicAngularVelocity[next], t);
+    }
+
+    /**
+     * @return The index of the last state at or before the time
+     */
+    private int search(double timeSeconds) {
+        int low = 0;
+        int high = m_stateCount - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (m_time[middle] <= timeSeconds) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void copyState(int index, MutableTrajectoryState state) {
+        state.timeSeconds = m_time[index];
+        state.xMeters = m_x[index];
+        state.yMeters = m_y[index];
+        state.headingRadians = m_heading[index];
+        state.velocityMetersPerSecond = m_velocity[index];
+        state.accelerationMetersPerSecondSq = m_acceleration[index];
+        state.curvatureRadPerMeter = m_curvature[index];
+        state.holonomicRotationRadians = m_holonomicRotation[index];
+        state.holonomicAngularVelocityRadPerSec = m_holonomicAngularVelocity[index];
+    }
+
+    private static double lerp(double start, double end, double t) {
+        return start + (end - start) * t;
+    }
+
+    private static double angleLerp(double start, double end, double t) {
+        return MathUtil.angleModulus(start + MathUtil.angleModulus(end - start) * t);
+    }
+}
@@ -0,0 +1,83 @@
+package frc.lib.trajectory;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Compares the per-loop cost of Trajectory.sample() against
+ * {@link TrajectorySampler} by sampling the whole path at 50 Hz, the same way
+ * a follower does.
+ *
+ * <p>
+ * Both methods are run untimed first so the JIT has compiled them before
+ * anything is measured. The timed passes then alternate which method goes
+ * first, so neither one always gets the warmer caches.
+ */
+public final class TrajectorySamplerBenchmark {
+    private static final double LOOP_PERIOD_SECONDS = 0.02;
+
+    private TrajectorySamplerBenchmark() {
+    }
+
+    /**
+     * @param name Name used in the report
+     * @param trajectory Trajectory whose own sample() is the baseline
+     * @param sampler Sampler built from the same trajectory
+     * @param passes Number of times to run through the whole path for each method, untimed and then timed
+     */
+    public static void run(String name, Trajectory trajectory, TrajectorySampler sampler, int passes) {
+        int samplesPerPass = (int) Math.ceil(sampler.getTotalTimeSeconds() / LOOP_PERIOD_SECONDS) + 1;
+        MutableTrajectoryState state = new MutableTrajectoryState();
+
+        // Keep the results live so the JIT can't throw the sampling away
+        double sink = 0.0;
+
+        for (int pass = 0; pass < passes; pass++) {
+            sink += sampleTrajectory(trajectory, samplesPerPass);
+            sink += sampleSampler(sampler, state, samplesPerPass);
+        }
+
+        long trajectoryNanos = 0;
+        long samplerNanos = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            if ((pass & 1) == 0) {
+                long startNanos = System.nanoTime();
+                sink += sampleTrajectory(trajectory, samplesPerPass);
+                long middleNanos = System.nanoTime();
+                sink += sampleSampler(sampler, state, samplesPerPass);
+                trajectoryNanos += middleNanos - startNanos;
+                samplerNanos += System.nanoTime() - middleNanos;
+            } else {
+                long startNanos = System.nanoTime();
+                sink += sampleSampler(sampler, state, samplesPerPass);
+                long middleNanos = System.nanoTime();
+                sink += sampleTrajectory(trajectory, samplesPerPass);
+                samplerNanos += middleNanos - startNanos;
+                trajectoryNanos += System.nanoTime() - middleNanos;
+            }
+        }
+
+        double samples = (double) passes * samplesPerPass;
+        System.out.printf("Sampler benchmark %s (%d states): Trajectory.sample %.0f ns, TrajectorySampler %.0f ns"
+                + " per sample (%.1fx) [%.0f]\n",
+                name, sampler.getStateCount(), trajectoryNanos / samples, samplerNanos / samples,
+                (double) trajectoryNanos / Math.max(1, samplerNanos), sink);
+    }
+
+    private static double sampleTrajectory(Trajectory trajectory, int samples) {
+        double sink = 0.0;
+        for (int i = 0; i < samples; i++) {
+            sink += trajectory.sample(i * LOOP_PERIOD_SECONDS).poseMeters.getX();
+        }
+        return sink;
+    }
+
+    private static double sampleSampler(TrajectorySampler sampler, MutableTrajectoryState state, int samples) {
+        double sink = 0.0;
+        sampler.resetCursor();
+        for (int i = 0; i < samples; i++) {
+            sampler.sample(i * LOOP_PERIOD_SECONDS, state);
+            sink += state.xMeters;
+        }
+        return sink;
+    }
+}
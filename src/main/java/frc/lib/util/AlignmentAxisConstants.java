@@ -0,0 +1,29 @@
+package frc.lib.util;
+
+public class AlignmentAxisConstants {
+    public final double kP;
+    public final double kD;
+    public final double maxVelocity;
+    public final double maxAcceleration;
+    public final double tolerance;
+    public final double minVelocity;
+
+    /**
+     * Profile and gain values for a single axis of an alignment.
+     * @param kP Proportional gain on the error from the profiled setpoint
+     * @param kD Derivative gain on the error from the profiled setpoint
+     * @param maxVelocity Profile cruise velocity (units/s)
+     * @param maxAcceleration Profile acceleration (units/s^2)
+     * @param tolerance Error at which the axis is considered at its goal
+     * @param minVelocity Smallest command sent while outside tolerance, 0 to disable
+     */
+    public AlignmentAxisConstants(double kP, double kD, double maxVelocity, double maxAcceleration,
+            double tolerance, double minVelocity) {
+        this.kP = kP;
+        this.kD = kD;
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+        this.tolerance = tolerance;
+        this.minVelocity = minVelocity;
+    }
+}
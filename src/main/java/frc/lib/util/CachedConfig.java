@@ -0,0 +1,147 @@
+package frc.lib.util;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.networktables.NetworkTableValue;
+
+/**
+ * Dashboard values that only change when someone moves a slider. Each entry
+ * gets a NetworkTables listener that copies new values into a volatile field,
+ * so reading one in the main loop is a field load instead of a NetworkTables
+ * lookup. Listeners also get the entry's value when they're added, so a
+ * value that arrives between the first read and the listener isn't lost.
+ *
+ * <p>
+ * The version goes up every time any value actually changes. Code that does
+ * real work with the values, like recomputing gains, can keep the last
+ * version it saw and skip the work when it hasn't moved.
+ */
+public class CachedConfig {
+    // kImmediate delivers the value the entry has when the listener is added
+    private static final EnumSet<NetworkTableEvent.Kind> LISTENER_EVENTS = EnumSet.of(
+            NetworkTableEvent.Kind.kImmediate, NetworkTableEvent.Kind.kValueAll);
+
+    private final NetworkTableInstance m_instance;
+    private final AtomicLong m_version = new AtomicLong();
+    private final List<Integer> m_listenerHandles = new ArrayList<>();
+
+    public CachedConfig() {
+        this(NetworkTableInstance.getDefault());
+    }
+
+    public CachedConfig(NetworkTableInstance instance) {
+        m_instance = instance;
+    }
+
+    /**
+     * Starts caching a number entry.
+     *
+     * @param entry        Entry to listen to, e.g. from a Shuffleboard widget
+     * @param defaultValue Value until the entry has a number in it
+     */
+    public CachedNumber addNumber(GenericEntry entry, double defaultValue) {
+        CachedNumber number = new CachedNumber(entry.getDouble(defaultValue));
+
+        int handle = m_instance.addListener(entry, LISTENER_EVENTS,
+                event -> {
+                    NetworkTableValue value = event.valueData.value;
+                    if (value.getType() == NetworkTableType.kDouble) {
+                        update(number, value.getDouble());
+                    }
+                });
+        synchronized (m_listenerHandles) {
+            m_listenerHandles.add(handle);
+        }
+
+        return number;
+    }
+
+    /**
+     * Starts caching a boolean entry, e.g. a toggle button.
+     *
+     * @param entry        Entry to listen to
+     * @param defaultValue Value until the entry has a boolean in it
+     */
+    public CachedBoolean addBoolean(GenericEntry entry, boolean defaultValue) {
+        CachedBoolean cached = new CachedBoolean(entry.getBoolean(defaultValue));
+
+        int handle = m_instance.addListener(entry, LISTENER_EVENTS,
+                event -> {
+                    NetworkTableValue value = event.valueData.value;
+                    if (value.getType() == NetworkTableType.kBoolean) {
+                        update(cached, value.getBoolean());
+                    }
+                });
+        synchronized (m_listenerHandles) {
+            m_listenerHandles.add(handle);
+        }
+
+        return cached;
+    }
+
+    // Runs on the NetworkTables listener thread
+    private void update(CachedNumber number, double value) {
+        if (Double.doubleToLongBits(value) != Double.doubleToLongBits(number.m_value)) {
+            number.m_value = value;
+            m_version.incrementAndGet();
+        }
+    }
+
+    // Runs on the NetworkTables listener thread
+    private void update(CachedBoolean cached, boolean value) {
+        if (value != cached.m_value) {
+            cached.m_value = value;
+            m_version.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return A count that goes up whenever any of the values changes
+     */
+    public long getVersion() {
+        return m_version.get();
+    }
+
+    /**
+     * Stops listening. The cached values keep their last values.
+     */
+    public void close() {
+        synchronized (m_listenerHandles) {
+            for (int handle : m_listenerHandles) {
+                m_instance.removeListener(handle);
+            }
+            m_listenerHandles.clear();
+        }
+    }
+
+    public static final class CachedNumber {
+        private volatile double m_value;
+
+        private CachedNumber(double initialValue) {
+            m_value = initialValue;
+        }
+
+        public double get() {
+            return m_value;
+        }
+    }
+
+    public static final class CachedBoolean {
+        private volatile boolean m_value;
+
+        private CachedBoolean(boolean initialValue) {
+            m_value = initialValue;
+        }
+
+        public boolean get() {
+            return m_value;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package frc.lib.util;
+
+/**
+ * Lets the main thread ask a worker thread to stop. The worker is expected to
+ * poll {@link #isCancelled()} at least once per control period, and to send
+ * its outputs through {@link #runUnlessCancelled(Runnable)} so none of them
+ * can land after {@link #cancel()} has returned.
+ */
+public class CancellationToken {
+    private volatile boolean m_cancelled = false;
+    private volatile long m_cancelTimeNanos = 0;
+
+    /**
+     * Requests cancellation. Only the first call records the cancel time.
+     */
+    public synchronized void cancel() {
+        if (!m_cancelled) {
+            m_cancelTimeNanos = System.nanoTime();
+            m_cancelled = true;
+        }
+    }
+
+    /**
+     * Runs the action unless cancel() has been called. cancel() waits for an
+     * action that's already running, so once it returns no action runs again.
+     *
+     * @return false if cancelled, in which case the action didn't run
+     */
+    public synchronized boolean runUnlessCancelled(Runnable action) {
+        if (m_cancelled) {
+            return false;
+        }
+        action.run();
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return m_cancelled;
+    }
+
+    /**
+     * @return The System.nanoTime() at which cancel() was first called, or 0 if not cancelled
+     */
+    public long getCancelTimeNanos() {
+        return m_cancelTimeNanos;
+    }
+}
@@ -0,0 +1,191 @@
+package frc.lib.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.lib.util.CachedConfig.CachedBoolean;
+
+/**
+ * Counts calls and time spent in initialize, execute, isFinished and end,
+ * per command class. Commands are only measured if they were passed through
+ * {@link #profile(Command)}; the scheduler has no hook around those calls.
+ * Wrapping a group measures the whole group, and wrapping commands inside
+ * it as well shows how that time splits up.
+ *
+ * <p>
+ * It is switched on and off from a dashboard toggle. When it's off a
+ * wrapped command costs one volatile read per call on top of the command
+ * itself. Everything runs on the main thread.
+ */
+public class CommandProfiler {
+    private static final String[] PHASE_NAMES = new String[] { "initialize", "execute", "isFinished", "end" };
+    private static final int INITIALIZE = 0;
+    private static final int EXECUTE = 1;
+    private static final int IS_FINISHED = 2;
+    private static final int END = 3;
+
+    private final CachedConfig m_config = new CachedConfig();
+    private final CachedBoolean m_enabled;
+    private boolean m_wasEnabled = false;
+
+    private final Map<String, Stats> m_stats = new LinkedHashMap<>();
+
+    /**
+     * @param enabledEntry Dashboard toggle that turns profiling on and off
+     */
+    public CommandProfiler(GenericEntry enabledEntry) {
+        m_enabled = m_config.addBoolean(enabledEntry, false);
+    }
+
+    /**
+     * Wraps a command so it is measured while profiling is on. Use the
+     * returned command in place of the original.
+     */
+    public Command profile(Command command) {
+        String name = command.getClass().getSimpleName();
+        if (name.isEmpty()) {
+            name = command.getClass().getName();
+        }
+        Stats stats = m_stats.computeIfAbsent(name, Stats::new);
+        return new ProfiledCommand(command, stats);
+    }
+
+    /**
+     * Clears the numbers when profiling turns on, and publishes them while it
+     * stays on. When it turns off the final numbers are printed.
+     */
+    public void periodic() {
+        boolean enabled = m_enabled.get();
+        if (enabled && !m_wasEnabled) {
+            for (Stats stats : m_stats.values()) {
+                stats.reset();
+            }
+        } else if (enabled) {
+            for (Stats stats : m_stats.values()) {
+                stats.publish();
+            }
+        } else if (m_wasEnabled) {
+            print();
+        }
+        m_wasEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return m_enabled.get();
+    }
+
+    private void print() {
+        System.out.printf("%-32s %-11s %8s %12s %10s %10s\n", "Command", "Phase", "Calls", "Total ms", "Avg us",
+                "Peak us");
+        for (Stats stats : m_stats.values()) {
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                if (stats.m_calls[phase] == 0) {
+                    continue;
+                }
+                System.out.printf("%-32s %-11s %8d %12.2f %10.1f %10.1f\n", stats.m_name, PHASE_NAMES[phase],
+                        stats.m_calls[phase], stats.m_totalNanos[phase] / 1.0e6,
+                        stats.m_totalNanos[phase] / 1.0e3 / stats.m_calls[phase], stats.m_peakNanos[phase] / 1.0e3);
+            }
+        }
+    }
+
+    private static final class Stats {
+        private final String m_name;
+        private final long[] m_calls = new long[PHASE_NAMES.length];
+        private final long[] m_totalNanos = new long[PHASE_NAMES.length];
+        private final long[] m_peakNanos = new long[PHASE_NAMES.length];
+
+        Stats(String name) {
+            m_name = name;
+        }
+
+        void record(int phase, long nanos) {
+            m_calls[phase]++;
+            m_totalNanos[phase] += nanos;
+            if (nanos > m_peakNanos[phase]) {
+                m_peakNanos[phase] = nanos;
+            }
+        }
+
+        void reset() {
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                m_calls[phase] = 0;
+                m_totalNanos[phase] = 0;
+                m_peakNanos[phase] = 0;
+            }
+        }
+
+        void publish() {
+            long calls = 0;
+            long totalNanos = 0;
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+                calls += m_calls[phase];
+                totalNanos += m_totalNanos[phase];
+            }
+            if (calls == 0) {
+                return;
+            }
+            String prefix = "Command Profiler/" + m_name;
+            SmartDashboard.putNumber(prefix + " calls", calls);
+            SmartDashboard.putNumber(prefix + " total ms", totalNanos / 1.0e6);
+            SmartDashboard.putNumber(prefix + " peak execute us", m_peakNanos[EXECUTE] / 1.0e3);
+        }
+    }
+
+    private final class ProfiledCommand extends WrapperCommand {
+        private final Stats m_stats;
+
+        ProfiledCommand(Command command, Stats stats) {
+            super(command);
+            m_stats = stats;
+        }
+
+        @Override
+        public void initialize() {
+            if (!m_enabled.get()) {
+                m_command.initialize();
+                return;
+            }
+            long startNanos = System.nanoTime();
+            m_command.initialize();
+            m_stats.record(INITIALIZE, System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public void execute() {
+            if (!m_enabled.get()) {
+                m_command.execute();
+                return;
+            }
+            long startNanos = System.nanoTime();
+            m_command.execute();
+            m_stats.record(EXECUTE, System.nanoTime() - startNanos);
+        }
+
+        @Override
+        public boolean isFinished() {
+            if (!m_enabled.get()) {
+                return m_command.isFinished();
+            }
+            long startNanos = System.nanoTime();
+            boolean finished = m_command.isFinished();
+            m_stats.record(IS_FINISHED, System.nanoTime() - startNanos);
+            return finished;
+        }
+
+        @Override
+        public void end(boolean interrupted) {
+            if (!m_enabled.get()) {
+                m_command.end(interrupted);
+                return;
+            }
+            long startNanos = System.nanoTime();
+            m_command.end(interrupted);
+            m_stats.record(END, System.nanoTime() - startNanos);
+        }
+    }
+}
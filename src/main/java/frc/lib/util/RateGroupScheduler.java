@@ -0,0 +1,267 @@
+package frc.lib.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Runs groups of tasks at their own rates on top of
+ * {@link TimedRobot#addPeriodic}, so work that doesn't need the main loop
+ * rate can run slower, and each group can be offset into a different part of
+ * the main period instead of piling onto the same tick.
+ *
+ * <p>
+ * The callbacks run on the main robot thread between main loop iterations,
+ * so tasks can use the same objects the main loop does without locking.
+ * Each group keeps its own timing: how long its tasks take and how far apart
+ * its runs actually are.
+ *
+ * <p>
+ * Every task has a priority and an expected cost. A task only runs if it
+ * fits in what's left of the main loop period before the next tick, so a
+ * late main loop isn't pushed later still by housekeeping. Critical tasks
+ * always run, normal ones can be put off a few times before they run anyway,
+ * and low priority ones are skipped for as long as there's no time.
+ * Call {@link #startCycle()} at the very top of the main loop.
+ *
+ * <p>
+ * Each {@link User} declares its own groups and tasks. Users that ask for
+ * the same group name share it.
+ */
+public class RateGroupScheduler {
+    public enum Priority {
+        CRITICAL, NORMAL, LOW
+    }
+
+    /**
+     * Something with periodic work that doesn't need to run every main loop
+     * cycle, e.g. a subsystem's LEDs or telemetry.
+     */
+    public interface User {
+        /**
+         * Adds this user's tasks, with {@link RateGroupScheduler#addGroup}.
+         */
+        void configureRateGroups(RateGroupScheduler scheduler);
+    }
+
+    // Observed costs are smoothed over roughly this many runs
+    private static final double COST_SMOOTHING = 0.1;
+
+    private final TimedRobot m_robot;
+    private final long m_periodNanos;
+    private final long m_reserveNanos;
+    private final int m_maxDeferrals;
+    private final List<RateGroup> m_groups = new ArrayList<>();
+
+    // When the current main loop cycle was due, on TimedRobot's schedule
+    private long m_scheduledTickNanos = 0;
+    private boolean m_hasTick = false;
+
+    /**
+     * @param reserveSeconds Time to leave free before the next main loop tick
+     * @param maxDeferrals   How many times in a row a normal priority task can be put off
+     */
+    public RateGroupScheduler(TimedRobot robot, double reserveSeconds, int maxDeferrals) {
+        m_robot = robot;
+        m_periodNanos = (long) (robot.getPeriod() * 1.0e9);
+        m_reserveNanos = (long) (reserveSeconds * 1.0e9);
+        m_maxDeferrals = maxDeferrals;
+    }
+
+    /**
+     * Registers each user's groups and tasks.
+     */
+    public void configure(User... users) {
+        for (User user : users) {
+            user.configureRateGroups(this);
+        }
+    }
+
+    /**
+     * Adds a group, or returns the existing one with the same name so several
+     * users can add tasks to it.
+     *
+     * @param name          Used for the dashboard keys
+     * @param periodSeconds How often the group runs
+     * @param offsetSeconds How far after the main loop's tick the group runs
+     * @throws IllegalArgumentException If the group exists with a different period or offset
+     */
+    public RateGroup addGroup(String name, double periodSeconds, double offsetSeconds) {
+        for (RateGroup existing : m_groups) {
+            if (existing.m_name.equals(name)) {
+                if (existing.m_periodSeconds != periodSeconds || existing.m_offsetSeconds != offsetSeconds) {
+                    throw new IllegalArgumentException("Rate group " + name
+                            + " already exists with a different period or offset");
+                }
+                return existing;
+            }
+        }
+
+        RateGroup group = new RateGroup(name, periodSeconds, offsetSeconds);
+        m_robot.addPeriodic(group::run, periodSeconds, offsetSeconds);
+        m_groups.add(group);
+        return group;
+    }
+
+    /**
+     * Marks the start of a main loop cycle. The budget ends one period after
+     * the tick the cycle was scheduled for, not one period after it actually
+     * started, so a cycle that starts late leaves less time for the groups.
+     * Call it before the mode's periodic function, so that counts too.
+     */
+    public void startCycle() {
+        long nowNanos = System.nanoTime();
+        if (!m_hasTick) {
+            m_scheduledTickNanos = nowNanos;
+            m_hasTick = true;
+            return;
+        }
+
+        long tickNanos = m_scheduledTickNanos + m_periodNanos;
+        if (nowNanos < tickNanos) {
+            // Cycles never start early, so the schedule is earlier than we thought
+            tickNanos = nowNanos;
+        } else {
+            // TimedRobot skips the ticks it's a whole period or more behind on
+            tickNanos += (nowNanos - tickNanos) / m_periodNanos * m_periodNanos;
+        }
+        m_scheduledTickNanos = tickNanos;
+    }
+
+    /**
+     * Puts each group's timing and shed counts on the dashboard and starts a
+     * new measurement window.
+     */
+    public void publish() {
+        for (RateGroup group : m_groups) {
+            group.publish();
+        }
+    }
+
+    private boolean fitsInBudget(long nowNanos, double expectedCostNanos) {
+        long remainingNanos = m_scheduledTickNanos + m_periodNanos - nowNanos - m_reserveNanos;
+        return expectedCostNanos <= remainingNanos;
+    }
+
+    public final class RateGroup {
+        private final String m_name;
+        private final double m_periodSeconds;
+        private final double m_offsetSeconds;
+        // Highest priority first
+        private final List<Task> m_tasks = new ArrayList<>();
+
+        // Since the last publish()
+        private long m_runs = 0;
+        private long m_totalNanos = 0;
+        private long m_maxNanos = 0;
+        private long m_maxIntervalNanos = 0;
+        private long m_overruns = 0;
+
+        private long m_lastStartNanos = 0;
+
+        private RateGroup(String name, double periodSeconds, double offsetSeconds) {
+            m_name = name;
+            m_periodSeconds = periodSeconds;
+            m_offsetSeconds = offsetSeconds;
+        }
+
+        /**
+         * Adds a task. Tasks run highest priority first, and in the order
+         * they were added within a priority.
+         *
+         * @param name                Used for the shed count on the dashboard
+         * @param priority            How important it is to run on time
+         * @param expectedCostSeconds How long it usually takes, before there are measurements
+         */
+        public RateGroup add(String name, Priority priority, double expectedCostSeconds, Runnable task) {
+            m_tasks.add(new Task(name, priority, expectedCostSeconds, task));
+            m_tasks.sort(Comparator.comparing(t -> t.m_priority));
+            return this;
+        }
+
+        // Package private so tests can run a group without the robot loop
+        void run() {
+            long startNanos = System.nanoTime();
+            if (m_lastStartNanos != 0) {
+                m_maxIntervalNanos = Math.max(m_maxIntervalNanos, startNanos - m_lastStartNanos);
+            }
+            m_lastStartNanos = startNanos;
+
+            for (int i = 0; i < m_tasks.size(); i++) {
+                m_tasks.get(i).runIfAffordable();
+            }
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            m_runs++;
+            m_totalNanos += elapsedNanos;
+            m_maxNanos = Math.max(m_maxNanos, elapsedNanos);
+            if (elapsedNanos > m_periodSeconds * 1.0e9) {
+                m_overruns++;
+            }
+        }
+
+        private void publish() {
+            String prefix = "Rate Groups/" + m_name;
+            SmartDashboard.putNumber(prefix + " mean ms", m_runs == 0 ? 0.0 : m_totalNanos / 1.0e6 / m_runs);
+            SmartDashboard.putNumber(prefix + " max ms", m_maxNanos / 1.0e6);
+            SmartDashboard.putNumber(prefix + " max interval ms", m_maxIntervalNanos / 1.0e6);
+            SmartDashboard.putNumber(prefix + " overruns", m_overruns);
+            for (Task task : m_tasks) {
+                SmartDashboard.putNumber(prefix + "/" + task.m_name + " shed", task.m_shedCount);
+            }
+
+            m_runs = 0;
+            m_totalNanos = 0;
+            m_maxNanos = 0;
+            m_maxIntervalNanos = 0;
+        }
+
+        public String getName() {
+            return m_name;
+        }
+
+        public double getPeriodSeconds() {
+            return m_periodSeconds;
+        }
+    }
+
+    private final class Task {
+        private final String m_name;
+        private final Priority m_priority;
+        private final Runnable m_task;
+        private final double m_declaredCostNanos;
+
+        private double m_observedCostNanos = 0.0;
+        private int m_deferrals = 0;
+        private long m_shedCount = 0;
+
+        Task(String name, Priority priority, double expectedCostSeconds, Runnable task) {
+            m_name = name;
+            m_priority = priority;
+            m_task = task;
+            m_declaredCostNanos = expectedCostSeconds * 1.0e9;
+        }
+
+        void runIfAffordable() {
+            long startNanos = System.nanoTime();
+            double expectedCostNanos = Math.max(m_declaredCostNanos, m_observedCostNanos);
+
+            boolean mustRun = m_priority == Priority.CRITICAL
+                    || (m_priority == Priority.NORMAL && m_deferrals >= m_maxDeferrals);
+            if (!mustRun && !fitsInBudget(startNanos, expectedCostNanos)) {
+                m_deferrals++;
+                m_shedCount++;
+                return;
+            }
+
+            m_task.run();
+            m_deferrals = 0;
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            m_observedCostNanos += COST_SMOOTHING * (elapsedNanos - m_observedCostNanos);
+        }
+    }
+}
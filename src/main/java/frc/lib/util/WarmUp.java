@@ -0,0 +1,130 @@
+package frc.lib.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Calls hot code paths over and over before they are needed, so the classes
+ * are loaded and the JIT has compiled them by the time the robot is enabled.
+ * Otherwise the first cycles of the first enable run interpreted.
+ *
+ * <p>
+ * Each task is called until it has been called a fixed number of times.
+ * {@link #runFor(double)} spreads that over as many calls as fit in a time
+ * budget, so it can run once in robotInit and then a slice at a time while
+ * disabled. The first call of each task and the mean of its last calls are
+ * kept, and reported when every task is done.
+ *
+ * <p>
+ * Tasks must only write to no-op sinks, never to hardware or to state the
+ * robot uses.
+ */
+public class WarmUp {
+    // Steady state is the mean of this many most recent calls
+    private static final int STEADY_WINDOW = 200;
+
+    private final int m_callsPerTask;
+    private final List<Task> m_tasks = new ArrayList<>();
+    private int m_nextTask = 0;
+    private boolean m_reported = false;
+
+    /**
+     * @param callsPerTask How many times each task is called in total
+     */
+    public WarmUp(int callsPerTask) {
+        m_callsPerTask = callsPerTask;
+    }
+
+    public WarmUp add(String name, Runnable task) {
+        m_tasks.add(new Task(name, task));
+        return this;
+    }
+
+    /**
+     * Calls the unfinished tasks in turn until the budget is used up or they
+     * are all done. Reports the first time everything is done.
+     */
+    public void runFor(double budgetSeconds) {
+        if (m_reported) {
+            return;
+        }
+
+        long deadlineNanos = System.nanoTime() + (long) (budgetSeconds * 1.0e9);
+        int idleTasks = 0;
+        while (idleTasks < m_tasks.size() && System.nanoTime() < deadlineNanos) {
+            Task task = m_tasks.get(m_nextTask);
+            m_nextTask = (m_nextTask + 1) % m_tasks.size();
+            if (task.m_calls >= m_callsPerTask) {
+                idleTasks++;
+                continue;
+            }
+            idleTasks = 0;
+            task.call();
+        }
+
+        if (isDone()) {
+            report();
+            m_reported = true;
+        }
+    }
+
+    public boolean isDone() {
+        for (Task task : m_tasks) {
+            if (task.m_calls < m_callsPerTask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void report() {
+        System.out.printf("%-24s %8s %12s %12s\n", "Warm up", "Calls", "First us", "Steady us");
+        for (Task task : m_tasks) {
+            double steadyMicros = task.steadyNanos() / 1.0e3;
+            System.out.printf("%-24s %8d %12.1f %12.2f\n", task.m_name, task.m_calls, task.m_firstNanos / 1.0e3,
+                    steadyMicros);
+            SmartDashboard.putNumber("Warm Up/" + task.m_name + " first us", task.m_firstNanos / 1.0e3);
+            SmartDashboard.putNumber("Warm Up/" + task.m_name + " steady us", steadyMicros);
+        }
+    }
+
+    private static final class Task {
+        private final String m_name;
+        private final Runnable m_task;
+        private final long[] m_recentNanos = new long[STEADY_WINDOW];
+
+        private int m_calls = 0;
+        private long m_firstNanos = 0;
+
+        Task(String name, Runnable task) {
+            m_name = name;
+            m_task = task;
+        }
+
+        void call() {
+            long startNanos = System.nanoTime();
+            m_task.run();
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            if (m_calls == 0) {
+                m_firstNanos = elapsedNanos;
+            }
+            m_recentNanos[m_calls % STEADY_WINDOW] = elapsedNanos;
+            m_calls++;
+        }
+
+        double steadyNanos() {
+            int count = Math.min(m_calls, STEADY_WINDOW);
+            if (count == 0) {
+                return 0.0;
+            }
+            long totalNanos = 0;
+            for (int i = 0; i < count; i++) {
+                totalNanos += m_recentNanos[i];
+            }
+            return (double) totalNanos / count;
+        }
+    }
+}
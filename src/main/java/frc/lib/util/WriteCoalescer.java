@@ -0,0 +1,92 @@
+package frc.lib.util;
+
+/**
+ * Decides whether a motor command is worth passing to the motor controller
+ * API. A command is skipped if it has the same mode as the last one sent and
+ * its value and demand are within tolerance of it, unless the refresh period
+ * has passed, in which case it goes out anyway in case the controller reset.
+ * What a skip saves is the API call; controllers that send their control
+ * frame on a timer, like Phoenix 5 devices, put the same traffic on the bus
+ * either way.
+ *
+ * <p>
+ * Counts what it sends and skips. Any thread may call it. When more than one
+ * thread sends to the same motor, hold the coalescer's lock from
+ * {@link #shouldWrite} until the command is sent, so commands reach the
+ * motor in the order they were recorded.
+ */
+public class WriteCoalescer {
+    private final String m_name;
+    private final long m_refreshNanos;
+
+    private boolean m_hasWritten = false;
+    private int m_lastMode;
+    private double m_lastValue;
+    private double m_lastDemand;
+    private long m_lastWriteNanos;
+
+    private volatile long m_sentCount = 0;
+    private volatile long m_suppressedCount = 0;
+
+    /**
+     * @param name           Used when reporting the counts
+     * @param refreshSeconds Longest time to go without sending, even if nothing changed
+     */
+    public WriteCoalescer(String name, double refreshSeconds) {
+        m_name = name;
+        m_refreshNanos = (long) (refreshSeconds * 1.0e9);
+    }
+
+    /**
+     * Records the command as sent if it returns true, so only call this right
+     * before actually sending it.
+     *
+     * @param mode            Control mode, anything that identifies it uniquely
+     * @param value           Setpoint
+     * @param valueTolerance  How far the setpoint can move without resending
+     * @param demand          Second value sent with the command, e.g. arbitrary feedforward
+     * @param demandTolerance How far the demand can move without resending
+     * @return true if the command should be sent
+     */
+    public synchronized boolean shouldWrite(int mode, double value, double valueTolerance, double demand,
+            double demandTolerance) {
+        long nowNanos = System.nanoTime();
+
+        if (m_hasWritten
+                && mode == m_lastMode
+                && Math.abs(value - m_lastValue) <= valueTolerance
+                && Math.abs(demand - m_lastDemand) <= demandTolerance
+                && nowNanos - m_lastWriteNanos < m_refreshNanos) {
+            m_suppressedCount++;
+            return false;
+        }
+
+        m_hasWritten = true;
+        m_lastMode = mode;
+        m_lastValue = value;
+        m_lastDemand = demand;
+        m_lastWriteNanos = nowNanos;
+        m_sentCount++;
+        return true;
+    }
+
+    /**
+     * Makes the next command go out no matter what, e.g. after reconfiguring
+     * the controller.
+     */
+    public synchronized void invalidate() {
+        m_hasWritten = false;
+    }
+
+    public String getName() {
+        return m_name;
+    }
+
+    public long getSentCount() {
+        return m_sentCount;
+    }
+
+    public long getSuppressedCount() {
+        return m_suppressedCount;
+    }
+}
@@ -1,11 +1,16 @@
 package frc.robot;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.pathplanner.lib.PathConstraints;
 
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.util.Units;
+import frc.lib.util.AlignmentAxisConstants;
 import frc.lib.util.COTSFalconSwerveConstants;
 import frc.lib.util.SwerveModuleConstants;
 
@@ -16,6 +21,9 @@ public final class Constants {
     public static final class Swerve {
         public static final int pigeonID = 61;
         public static final boolean invertGyro = false; // Always ensure Gyro is CCW+ CW-
+        // The Pigeon's yaw frame comes every 10 ms at most, so there's no point sampling faster.
+        // 0 reads it once per cycle on the main thread instead.
+        public static final double gyroSampleRateHz = 100.0;
 
         public static final COTSFalconSwerveConstants chosenModule = COTSFalconSwerveConstants
                 .SDSMK4i(COTSFalconSwerveConstants.driveGearRatios.SDSMK4i_L2);
@@ -80,6 +88,16 @@ public final class Constants {
         public static final double driveKV = (1.51 / 12);
         public static final double driveKA = (0.27 / 12);
 
+        // Motor commands closer than this to the last one sent are skipped, but
+        // the last one is always resent after the refresh period
+        public static final double driveWriteToleranceMPS = 0.002;
+        public static final double angleWriteToleranceDegrees = 0.05;
+        public static final double percentWriteTolerance = 0.0005;
+        public static final double motorWriteRefreshSeconds = 0.1;
+
+        // How long each gain change from the Swerve Tuning tab may wait on a Talon
+        public static final int liveGainConfigTimeoutMs = 25;
+
         // Swerve Profiling Values 
         // Meters per Second 
         public static final double maxSpeed = 2.5;//4.5; // TODO: This must be tuned to specific robot
@@ -142,6 +160,20 @@ public final class Constants {
         public static final double kMaxAngularSpeedRadiansPerSecond = Math.PI;
         public static final double kMaxAngularSpeedRadiansPerSecondSquared = Math.PI;
 
+        // Constraints every PathPlanner path is generated with at startup
+        public static final double kPathMaxVelocity = 1.5;
+        public static final double kPathMaxAcceleration = 1.0;
+        public static final PathConstraints kDefaultPathConstraints = new PathConstraints(kPathMaxVelocity,
+                kPathMaxAcceleration);
+
+        // Where the X button drives the robot to in teleop
+        public static final Pose2d kGoToPoseTarget = new Pose2d(3.0, 0.5, new Rotation2d());
+
+        // Path following PID gains
+        public static final double kPathXControllerP = 0.1;
+        public static final double kPathYControllerP = 0.12;
+        public static final double kPathThetaControllerP = 2.0;
+
         public static final double kPXController = 1;
         public static final double kPYController = 1;
         public static final double kPThetaController = 1;
@@ -150,4 +182,111 @@ public final class Constants {
         public static final TrapezoidProfile.Constraints kThetaControllerConstraints = new TrapezoidProfile.Constraints(
                 kMaxAngularSpeedRadiansPerSecond, kMaxAngularSpeedRadiansPerSecondSquared);
     }
+
+    public static final class AlignmentConstants {
+        // We'll make this a little larger to give the AprilTag detector some time to
+        // process
+        public static final double kDockingDistanceGoalMeters = Units.inchesToMeters(20.0);
+
+        // If the AprilTag detection loss lasts this amount of time, then we give up
+        // trying to reacquire the AprilTag
+        public static final double kMaxDetectionLostTimeSec = 0.3;
+
+        // Distance to Target Correction (meters)
+        public static final AlignmentAxisConstants kDockingForwardAxis = new AlignmentAxisConstants(
+                0.8, 0.0, 1.2, 1.0, Units.inchesToMeters(1.0), 0.2);
+
+        // Sideways Correction (meters)
+        public static final AlignmentAxisConstants kDockingSidewaysAxis = new AlignmentAxisConstants(
+                0.8, 0.0, 1.0, 1.0, Units.inchesToMeters(1.0), 0.2);
+
+        // Heading Correction (radians)
+        public static final AlignmentAxisConstants kDockingHeadingAxis = new AlignmentAxisConstants(
+                2.0, 0.0, Math.PI, 2.0 * Math.PI, Units.degreesToRadians(2.0), 0.0);
+
+        // Settling onto a drive to pose target once its trajectory has run out,
+        // field relative x and y (meters) and heading (radians)
+        public static final AlignmentAxisConstants kGoToPoseTranslationAxis = new AlignmentAxisConstants(
+                1.0, 0.0, 0.5, 1.0, Units.inchesToMeters(1.0), 0.05);
+        public static final AlignmentAxisConstants kGoToPoseHeadingAxis = new AlignmentAxisConstants(
+                2.0, 0.0, Math.PI / 2.0, Math.PI, Units.degreesToRadians(2.0), 0.0);
+
+        // Stop settling this long after the trajectory ends, even if not there yet
+        public static final double kGoToPoseSettleTimeoutSeconds = 1.0;
+    }
+
+    public static final class RateGroupConstants {
+        // Drivetrain control and odometry stay in the main loop at its 20 ms
+        // period, since RobotIO reads and logs the sensors once per main loop
+        // cycle and the replay depends on that. A faster drivetrain group
+        // would need its own sensor reads, logging and replay. The offsets
+        // put each group in a different part of the main period.
+        public static final double kLedPeriodSeconds = 0.02;
+        public static final double kLedOffsetSeconds = 0.010;
+        public static final double kTelemetryPeriodSeconds = 0.1;
+        public static final double kTelemetryOffsetSeconds = 0.005;
+        public static final double kModuleResyncPeriodSeconds = 0.1;
+        public static final double kModuleResyncOffsetSeconds = 0.015;
+
+        // Housekeeping only runs if it would finish this long before the next
+        // main loop tick. Normal priority tasks run anyway after being put off
+        // this many times in a row.
+        public static final double kCycleReserveSeconds = 0.002;
+        public static final int kMaxDeferrals = 5;
+    }
+
+    public static final class WarmUpConstants {
+        // Enough calls for the JIT to compile each warm up task
+        public static final int kCallsPerTask = 10000;
+        // robotInit spends this long on it, then disabledPeriodic a slice a cycle
+        public static final double kInitBudgetSeconds = 0.5;
+        public static final double kDisabledBudgetSeconds = 0.004;
+        public static final String kPathName = "Square";
+    }
+
+    public static final class LoggingConstants {
+        // Logs go here when a USB stick is plugged into the roboRIO
+        public static final String kUsbLogDirectory = "/U/logs";
+        // How many logs to keep and how big each may grow, on a USB stick and on
+        // the roboRIO's own flash, which is small and shared with the deploy
+        public static final int kUsbMaxLogFiles = 50;
+        public static final long kUsbMaxLogBytes = 256L * 1024 * 1024;
+        public static final int kFlashMaxLogFiles = 3;
+        public static final long kFlashMaxLogBytes = 16L * 1024 * 1024;
+        // Logging stops early rather than leave less than this free on the disk
+        public static final long kMinFreeBytes = 64L * 1024 * 1024;
+        // Several seconds of drivetrain records at 50 Hz if the writer thread stalls
+        public static final int kRingBufferCapacity = 8192;
+        // A main loop cycle this much longer than the period counts as an overrun
+        public static final double kLoopOverrunToleranceSeconds = 0.002;
+
+        // A .ctlog to play back instead of simulating. Leave empty to simulate.
+        public static final String kReplayLogFile = "";
+    }
+
+    public static final class SimConstants {
+        // Drivetrain physics. Mass and inertia are estimates for a 50 kg robot;
+        // the drive and steering inertias include the reflected Falcon rotor.
+        public static final Translation2d[] kModuleLocations = new Translation2d[] {
+                new Translation2d(Swerve.wheelBase / 2.0, Swerve.trackWidth / 2.0),
+                new Translation2d(Swerve.wheelBase / 2.0, -Swerve.trackWidth / 2.0),
+                new Translation2d(-Swerve.wheelBase / 2.0, Swerve.trackWidth / 2.0),
+                new Translation2d(-Swerve.wheelBase / 2.0, -Swerve.trackWidth / 2.0)
+        };
+        public static final DCMotor kDriveMotor = DCMotor.getFalcon500(1);
+        public static final DCMotor kSteerMotor = DCMotor.getFalcon500(1);
+        public static final double kRobotMassKg = 50.0;
+        public static final double kRobotMoiKgMetersSq = 4.0;
+        public static final double kDriveInertiaKgMetersSq = 0.003;
+        public static final double kSteerInertiaKgMetersSq = 0.025;
+        public static final double kWheelCoefficientOfFriction = 1.1;
+        public static final double kBatteryVolts = 12.0;
+        public static final double kPhysicsSubstepSeconds = 0.001;
+
+        // The AprilTag the simulated camera can see
+        public static final double kTagId = 1.0;
+        public static final Pose2d kTagPose = new Pose2d(8.0, 0.5, Rotation2d.fromDegrees(180.0));
+        public static final double kCameraHalfFovRadians = Units.degreesToRadians(35.0);
+        public static final double kCameraMaxRangeMeters = 4.0;
+    }
 }
@@ -4,17 +4,44 @@
 
 package frc.robot;
 
+import java.io.File;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.logging.BinaryLogger;
+import frc.lib.logging.LatencyProbe;
+import frc.lib.logging.LogRetention;
+import frc.lib.logging.LoopResourceMonitor;
+import frc.lib.trajectory.TrajectoryCache;
+import frc.lib.util.CommandProfiler;
+import frc.lib.util.RateGroupScheduler;
+import frc.lib.util.RateGroupScheduler.Priority;
+import frc.robot.io.StatusFrameProfile;
+import frc.robot.subsystems.DrivebaseSubsystem;
 import frc.robot.utils.CTREConfigs;
+import frc.robot.utils.RobotWarmUp;
 
 public class Robot extends TimedRobot {
+    private static final String LOG_EXTENSION = ".ctlog";
+
     public static CTREConfigs ctreConfigs;
+    public static TrajectoryCache trajectoryCache;
+    public static BinaryLogger dataLogger;
+    public static CommandProfiler commandProfiler;
 
     private Command m_autonomousCommand;
 
     private RobotContainer m_robotContainer;
+    private RateGroupScheduler m_rateGroups;
+    private LoopResourceMonitor m_loopMonitor;
+    private RobotWarmUp m_warmUp;
+    private int m_autonomousCycles = 0;
 
     /**
      * This function is run when the robot is first started up and should be used
@@ -23,11 +50,92 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+        // Log to a USB stick if there is one, otherwise keep a few small logs on
+        // the roboRIO's flash. The oldest logs are deleted to make room.
+        File logDirectory = new File(Constants.LoggingConstants.kUsbLogDirectory);
+        int maxLogFiles = Constants.LoggingConstants.kUsbMaxLogFiles;
+        long maxLogBytes = Constants.LoggingConstants.kUsbMaxLogBytes;
+        if (!logDirectory.isDirectory()) {
+            logDirectory = new File(Filesystem.getOperatingDirectory(), "logs");
+            maxLogFiles = Constants.LoggingConstants.kFlashMaxLogFiles;
+            maxLogBytes = Constants.LoggingConstants.kFlashMaxLogBytes;
+        }
+        LogRetention.deleteOldLogs(logDirectory, LOG_EXTENSION, maxLogFiles, (maxLogFiles - 1) * maxLogBytes);
+        dataLogger = new BinaryLogger(new File(logDirectory, "robot_" + System.currentTimeMillis() + LOG_EXTENSION),
+                Constants.LoggingConstants.kRingBufferCapacity,
+                LogRetention.allowedFileBytes(logDirectory, maxLogBytes, Constants.LoggingConstants.kMinFreeBytes));
+        configureCommandLogging();
+        m_loopMonitor = new LoopResourceMonitor(getPeriod(),
+                Constants.LoggingConstants.kLoopOverrunToleranceSeconds, dataLogger);
+
+        // Off until someone flips the toggle, RobotContainer wraps its commands with it
+        commandProfiler = new CommandProfiler(Shuffleboard.getTab("Profiling")
+                .add("Command Profiler", false)
+                .withWidget(BuiltInWidgets.kToggleButton)
+                .getEntry());
+
         ctreConfigs = new CTREConfigs();
+
+        // Map the paths packed at build time, and start generating all of the
+        // PathPlanner paths in the background so the commands built by
+        // RobotContainer don't have to do it on this thread.
+        trajectoryCache = new TrajectoryCache();
+        File pathDirectory = new File(Filesystem.getDeployDirectory(), "pathplanner");
+        trajectoryCache.loadPacked(new File(pathDirectory, "binary"));
+        trajectoryCache.preload(pathDirectory, List.of(Constants.AutoConstants.kDefaultPathConstraints));
+        trajectoryCache.compareLoadTimes();
+
         // Instantiate our RobotContainer. This will perform all our button bindings,
         // and put our
         // autonomous chooser on the dashboard.
         m_robotContainer = new RobotContainer();
+
+        configureRateGroups();
+
+        // Gets the first enabled cycles compiled, finishes while disabled
+        m_warmUp = new RobotWarmUp(RobotContainer.getLEDStripSubsystem());
+        m_warmUp.runFor(Constants.WarmUpConstants.kInitBudgetSeconds);
+    }
+
+    // Work that doesn't need to run every main loop cycle
+    private void configureRateGroups() {
+        m_rateGroups = new RateGroupScheduler(this, Constants.RateGroupConstants.kCycleReserveSeconds,
+                Constants.RateGroupConstants.kMaxDeferrals);
+
+        // Each subsystem declares its own groups
+        m_rateGroups.configure(RobotContainer.getDrivebaseSubsystem(), RobotContainer.getLEDStripSubsystem());
+
+        m_rateGroups.addGroup("Telemetry", Constants.RateGroupConstants.kTelemetryPeriodSeconds,
+                Constants.RateGroupConstants.kTelemetryOffsetSeconds)
+                .add("Logger", Priority.LOW, 0.0001, () -> {
+                    SmartDashboard.putNumber("Logger Dropped", dataLogger.getDroppedCount());
+                    SmartDashboard.putNumber("Logger High Water", dataLogger.getHighWaterMark());
+                })
+                .add("Command Profiler", Priority.LOW, 0.0005, commandProfiler::periodic)
+                .add("Loop Monitor", Priority.NORMAL, 0.0005, m_loopMonitor::publish)
+                // Runs even when everything else is shed, so the shed counts get out
+                .add("Rate Groups", Priority.NORMAL, 0.0005, m_rateGroups::publish);
+    }
+
+    private void configureCommandLogging() {
+        int commandStartType = dataLogger.defineRecordType("CommandStart", "command");
+        int commandFinishType = dataLogger.defineRecordType("CommandFinish", "command");
+        int commandInterruptType = dataLogger.defineRecordType("CommandInterrupt", "command");
+
+        CommandScheduler.getInstance().onCommandInitialize(
+                command -> dataLogger.log(commandStartType, dataLogger.nameId(command.getName())));
+        CommandScheduler.getInstance().onCommandFinish(
+                command -> dataLogger.log(commandFinishType, dataLogger.nameId(command.getName())));
+        CommandScheduler.getInstance().onCommandInterrupt(
+                command -> dataLogger.log(commandInterruptType, dataLogger.nameId(command.getName())));
+    }
+
+    // The rate group budget starts before disabledPeriodic's warm up and the
+    // other mode periodic functions, which run ahead of robotPeriodic
+    @Override
+    protected void loopFunc() {
+        m_rateGroups.startCycle();
+        super.loopFunc();
     }
 
     /**
@@ -50,18 +158,45 @@ public class Robot extends TimedRobot {
         // and running subsystem periodic() methods. This must be called from the
         // robot's periodic
         // block in order for anything in the Command-based framework to work.
+        // All of the sensors are read up front so every command and subsystem
+        // sees the same values this cycle.
+        m_loopMonitor.sample();
+        LatencyProbe teleopLatency = RobotContainer.getDrivebaseSubsystem().getTeleopLatencyProbe();
+        teleopLatency.start();
+        RobotContainer.getRobotIO().update();
+        teleopLatency.markUnarmed(DrivebaseSubsystem.LATENCY_SENSOR_READ);
+        m_robotContainer.updateDriverInputs();
+        teleopLatency.markUnarmed(DrivebaseSubsystem.LATENCY_HID_SNAPSHOT);
+        long schedulerStartNanos = System.nanoTime();
         CommandScheduler.getInstance().run();
+        teleopLatency.finish();
+        if (isAutonomousEnabled()) {
+            reportAutonomousCycle(System.nanoTime() - schedulerStartNanos);
+        }
+    }
+
+    // The first and hundredth autonomous cycles should take about as long if
+    // the warm up did its job
+    private void reportAutonomousCycle(long schedulerNanos) {
+        m_autonomousCycles++;
+        if (m_autonomousCycles == 1 || m_autonomousCycles == 100) {
+            System.out.printf("Autonomous cycle %d: scheduler ran in %.2f ms\n", m_autonomousCycles,
+                    schedulerNanos / 1.0e6);
+            SmartDashboard.putNumber("Warm Up/Auto cycle " + m_autonomousCycles + " ms", schedulerNanos / 1.0e6);
+        }
     }
 
     // This function is called once each time the robot enters Disabled mode.
     @Override
     public void disabledInit() {
+        RobotContainer.getRobotIO().setStatusFrameProfile(StatusFrameProfile.DISABLED);
         RobotContainer.getDrivebaseSubsystem().setMotorsToCoast();
         RobotContainer.getLEDStripSubsystem().resetStrip();
     }
 
     @Override
     public void disabledPeriodic() {
+        m_warmUp.runFor(Constants.WarmUpConstants.kDisabledBudgetSeconds);
     }
 
     /**
@@ -70,9 +205,12 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void autonomousInit() {
+        RobotContainer.getRobotIO().setStatusFrameProfile(StatusFrameProfile.ODOMETRY_HIGH_RATE);
+        RobotContainer.getDrivebaseSubsystem().startFirstCommandTimer();
         RobotContainer.getDrivebaseSubsystem().setMotorsToBrake();
         RobotContainer.getDrivebaseSubsystem().resetModulesToAbsolute();
 
+        m_autonomousCycles = 0;
         m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
         // schedule the autonomous command (example)
@@ -88,6 +226,7 @@ public class Robot extends TimedRobot {
 
     @Override
     public void teleopInit() {
+        RobotContainer.getRobotIO().setStatusFrameProfile(StatusFrameProfile.MATCH);
         RobotContainer.getDrivebaseSubsystem().setMotorsToBrake();
         RobotContainer.getDrivebaseSubsystem().resetModulesToAbsolute();
         
@@ -105,8 +244,16 @@ public class Robot extends TimedRobot {
     public void teleopPeriodic() {
     }
 
+    @Override
+    public void simulationPeriodic() {
+        // Fixed steps of one loop period, so the physics don't depend on how
+        // closely the desktop keeps up with real time
+        RobotContainer.getRobotIO().updateSimulation(getPeriod());
+    }
+
     @Override
     public void testInit() {
+        RobotContainer.getRobotIO().setStatusFrameProfile(StatusFrameProfile.MATCH);
         // Cancels all running commands at the start of test mode.
         CommandScheduler.getInstance().cancelAll();
     }
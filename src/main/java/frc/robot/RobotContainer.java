@@ -1,17 +1,17 @@
 package frc.robot;
 
-import java.util.HashMap;
-
 import edu.wpi.first.wpilibj.Joystick;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
-import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.lib.trajectory.OnTheFlyTrajectoryGenerator;
 import frc.robot.autos.*;
 import frc.robot.commands.*;
+import frc.robot.io.RobotIO;
 import frc.robot.subsystems.*;
+import frc.robot.utils.DriverInputSnapshot;
 
 /**
  * This class is where the bulk of the robot should be declared. Since
@@ -35,31 +35,44 @@ public class RobotContainer {
     // Joystick Buttons 
     private final JoystickButton m_zeroGyroJoystickButton = new JoystickButton(m_joystick,
             XboxController.Button.kY.value);
-    private final JoystickButton m_robotCentricJoystickButton = new JoystickButton(m_joystick,
-            XboxController.Button.kLeftBumper.value);
+    private final int m_robotCentricJoystickButton = XboxController.Button.kLeftBumper.value;
+
+    // Read once per cycle by Robot.robotPeriodic() for the drive suppliers
+    private final DriverInputSnapshot m_driverInputs = new DriverInputSnapshot(m_joystick, m_translationAxis,
+            m_strafeAxis, m_rotationAxis, m_robotCentricJoystickButton);
 
     // Xbox Buttons 
     private Trigger m_zeroGryoXboxControllerButton = new Trigger(m_xboxController::getBackButton);
     private Trigger m_robotCentricXboxControllerButton = new Trigger(m_xboxController::getLeftBumper);
 
+    // Hardware, simulation or log replay
+    private final static RobotIO m_robotIO = RobotIO.create(Robot.dataLogger);
+
     // Subsystems 
-    private final static DrivebaseSubsystem m_drivebaseSubsystem = new DrivebaseSubsystem();
-    private final static AprilTagSubsystem m_aprilTagSubsystem = new AprilTagSubsystem();
+    private final static DrivebaseSubsystem m_drivebaseSubsystem = new DrivebaseSubsystem(m_robotIO, Robot.dataLogger);
+    private final static AprilTagSubsystem m_aprilTagSubsystem = new AprilTagSubsystem(m_robotIO);
     private final static LEDStripSubsystem m_ledStripSubsystem = new LEDStripSubsystem();
 
+    // Autonomous routines, all built while the robot is disabled
+    private final AutoRegistry m_autoRegistry = new AutoRegistry();
+    private final AutoRoutines m_autoRoutines = new AutoRoutines(m_drivebaseSubsystem, m_ledStripSubsystem);
+
+    // Generates teleop go-to-pose trajectories in the background
+    private final OnTheFlyTrajectoryGenerator m_onTheFlyTrajectoryGenerator = new OnTheFlyTrajectoryGenerator();
+
     public RobotContainer() {
 
         // Joystick
-        m_drivebaseSubsystem.setDefaultCommand(
+        m_drivebaseSubsystem.setDefaultCommand(profiled(
                 new TeleopSwerveDriveCommand(
                         m_drivebaseSubsystem,
-                        () -> -m_joystick.getRawAxis(m_translationAxis) * m_drivebaseSubsystem.getForwardAdjustment()
+                        () -> -m_driverInputs.getTranslation() * m_drivebaseSubsystem.getForwardAdjustment()
                                 * Constants.Swerve.maxSpeed,
-                        () -> -m_joystick.getRawAxis(m_strafeAxis) * m_drivebaseSubsystem.getSidewaysAdjustment()
+                        () -> -m_driverInputs.getStrafe() * m_drivebaseSubsystem.getSidewaysAdjustment()
                                 * Constants.Swerve.maxSpeed,
-                        () -> -m_joystick.getRawAxis(m_rotationAxis) * m_drivebaseSubsystem.getRotationalAdjustment()
+                        () -> -m_driverInputs.getRotation() * m_drivebaseSubsystem.getRotationalAdjustment()
                                 * Constants.Swerve.maxAngularVelocity,
-                        () -> m_robotCentricJoystickButton.getAsBoolean()));
+                        () -> m_driverInputs.isRobotCentric())));
 
         // Xbox Controller
         // m_drivebaseSubsystem.setDefaultCommand(
@@ -75,42 +88,59 @@ public class RobotContainer {
 
         // Configure the button bindings
         configureButtonBindings();
+
+        configureAutoRoutines();
     }
 
     private void configureButtonBindings() {
 
-        HashMap<String, Command> eventMap = new HashMap<>();
-        eventMap.put("marker1", new InstantCommand(() -> {
-            m_ledStripSubsystem.rainbow();
-        }));
-
         // Joystick Buttons 
-        m_zeroGyroJoystickButton.onTrue(new InstantCommand(() -> m_drivebaseSubsystem.zeroGyro()));
+        m_zeroGyroJoystickButton.onTrue(profiled(new InstantCommand(() -> m_drivebaseSubsystem.zeroGyro())));
 
         // XboxController Buttons 
-        m_zeroGryoXboxControllerButton.onTrue(new InstantCommand(() -> m_drivebaseSubsystem.zeroGyro()));
+        m_zeroGryoXboxControllerButton.onTrue(profiled(new InstantCommand(() -> m_drivebaseSubsystem.zeroGyro())));
 
         new Trigger(m_xboxController::getYButton)
-                .onTrue(new DockWithAprilTagCommand(m_xboxController, m_drivebaseSubsystem, m_aprilTagSubsystem, false,
-                        1.0));
+                .onTrue(profiled(new DockWithAprilTagCommand(m_xboxController, m_drivebaseSubsystem,
+                        m_aprilTagSubsystem, false, 1.0)));
 
         new Trigger(m_xboxController::getBButton)
-                .onTrue(new InstantCommand(m_drivebaseSubsystem::stopMotors, m_drivebaseSubsystem));
+                .onTrue(profiled(new InstantCommand(m_drivebaseSubsystem::stopMotors, m_drivebaseSubsystem)));
 
         new Trigger(m_xboxController::getAButton)
-                .onTrue(new SequentialCommandGroup(
-                        /*new InstantCommand(m_drivebaseSubsystem::setDoingTeleOpAuto),*/
-                        new InstantCommand(m_drivebaseSubsystem::setMotorsToBrake),
-                        new FollowTrajectoryCommand(m_drivebaseSubsystem, "NewStraight", eventMap, 4.0, 3.0, true),
-                        new FollowTrajectoryCommand(m_drivebaseSubsystem, "NewStraightBack", eventMap, 4.0, 3.0, true)/*,
-                        new InstantCommand(() -> {
-                            m_drivebaseSubsystem.setNotDoingTeleOpAuto();
-                        } m_drivebaseSubsystem)*/));
+                .onTrue(m_autoRoutines.buildStraightThereAndBack());
+
+        new Trigger(m_xboxController::getXButton)
+                .onTrue(profiled(new DriveToPoseCommand(m_drivebaseSubsystem, m_onTheFlyTrajectoryGenerator,
+                        () -> Constants.AutoConstants.kGoToPoseTarget,
+                        Constants.AutoConstants.kDefaultPathConstraints)));
+    }
+
+    // Measured by the command profiler when it's switched on
+    private Command profiled(Command command) {
+        return Robot.commandProfiler.profile(command);
+    }
+
+    // The first routine registered is the default
+    private void configureAutoRoutines() {
+        m_autoRoutines.getRoutines().forEach(m_autoRegistry::register);
+        m_autoRegistry.publish();
     }
 
     public Command getAutonomousCommand() {
-        // An ExampleCommand will run in autonomous
-        return new ExampleAuto(m_drivebaseSubsystem);
+        // Routines were built at startup, so this is only a lookup
+        return m_autoRegistry.getSelected();
+    }
+
+    /**
+     * Reads the driver's controller for this cycle.
+     */
+    public void updateDriverInputs() {
+        m_driverInputs.update();
+    }
+
+    public static RobotIO getRobotIO() {
+        return m_robotIO;
     }
 
     public static DrivebaseSubsystem getDrivebaseSubsystem() {
@@ -0,0 +1,68 @@
+package frc.robot.autos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Builds every autonomous routine ahead of time, while the robot is disabled,
+ * and offers them on the dashboard. Trajectory generation and command
+ * construction all happen here, so autonomousInit only has to look up the
+ * selected command.
+ */
+public class AutoRegistry {
+    private final Map<String, Command> m_routines = new LinkedHashMap<>();
+    private final SendableChooser<String> m_chooser = new SendableChooser<>();
+    private boolean m_hasDefault = false;
+
+    /**
+     * Builds and validates a routine. A routine that fails to build is
+     * reported and left out of the chooser instead of failing at enable.
+     *
+     * @param name Name shown in the chooser
+     * @param factory Builds the routine's command
+     */
+    public void register(String name, Supplier<Command> factory) {
+        long startNanos = System.nanoTime();
+        Command routine;
+        try {
+            routine = factory.get();
+        } catch (RuntimeException e) {
+            DriverStation.reportError("Auto routine \"" + name + "\" failed to build: " + e.getMessage(),
+                    e.getStackTrace());
+            return;
+        }
+
+        if (routine == null) {
+            DriverStation.reportError("Auto routine \"" + name + "\" built a null command", false);
+            return;
+        }
+
+        m_routines.put(name, routine);
+        if (m_hasDefault) {
+            m_chooser.addOption(name, name);
+        } else {
+            m_chooser.setDefaultOption(name, name);
+            m_hasDefault = true;
+        }
+
+        System.out.printf("Auto routine %s built in %.1f ms\n", name, (System.nanoTime() - startNanos) / 1.0e6);
+    }
+
+    public void publish() {
+        SmartDashboard.putData("Auto Routine", m_chooser);
+    }
+
+    /**
+     * @return The already-built command for the selected routine, or null if nothing was registered
+     */
+    public Command getSelected() {
+        String selected = m_chooser.getSelected();
+        return (selected == null) ? null : m_routines.get(selected);
+    }
+}
@@ -0,0 +1,99 @@
+package frc.robot.autos;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.PrintCommand;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.robot.Constants;
+import frc.robot.Robot;
+import frc.robot.commands.FollowTrajectoryCommand;
+import frc.robot.subsystems.DrivebaseSubsystem;
+import frc.robot.subsystems.LEDStripSubsystem;
+
+/**
+ * Builds the autonomous routines and the event map their path markers run.
+ * RobotContainer registers them with the {@link AutoRegistry}, and the
+ * headless AutoEvaluationHarness runs the same commands.
+ */
+public class AutoRoutines {
+    private final DrivebaseSubsystem m_drivebaseSubsystem;
+    private final HashMap<String, Command> m_eventMap;
+
+    public AutoRoutines(DrivebaseSubsystem drivebaseSubsystem, LEDStripSubsystem ledStripSubsystem) {
+        m_drivebaseSubsystem = drivebaseSubsystem;
+        m_eventMap = createEventMap(ledStripSubsystem);
+    }
+
+    /**
+     * The commands path markers run, by marker name. Every marker in every
+     * deployed path needs one; AutoRoutinesTest fails the build otherwise.
+     */
+    public static HashMap<String, Command> createEventMap(LEDStripSubsystem ledStripSubsystem) {
+        HashMap<String, Command> eventMap = new HashMap<>();
+        eventMap.put("marker1", new InstantCommand(() -> {
+            ledStripSubsystem.rainbow();
+        }));
+        // Spinning Circle's marker, only there to show where it fires
+        eventMap.put("event", new PrintCommand("Path marker \"event\" reached"));
+        return eventMap;
+    }
+
+    /**
+     * @return Every routine by the name shown in the chooser, in order. The
+     *         first one is the default. Each call of a supplier builds a new
+     *         command.
+     */
+    public Map<String, Supplier<Command>> getRoutines() {
+        Map<String, Supplier<Command>> routines = new LinkedHashMap<>();
+        routines.put("Example Auto", () -> profiled(new ExampleAuto(m_drivebaseSubsystem)));
+        routines.put("Straight There And Back", this::buildStraightThereAndBack);
+        routines.put("Square", () -> buildSinglePath("Square"));
+        routines.put("Spinning Circle", () -> buildSinglePath("Spinning Circle"));
+        routines.put("Event Testing", () -> buildSinglePath("Event Testing"));
+        return routines;
+    }
+
+    public HashMap<String, Command> getEventMap() {
+        return m_eventMap;
+    }
+
+    public Command buildStraightThereAndBack() {
+        return profiled(new SequentialCommandGroup(
+                /*new InstantCommand(m_drivebaseSubsystem::setDoingTeleOpAuto),*/
+                profiled(new InstantCommand(m_drivebaseSubsystem::setMotorsToBrake)),
+                // One trajectory, so odometry is only reset at the start
+                profiled(new FollowTrajectoryCommand(m_drivebaseSubsystem, List.of("NewStraight", "NewStraightBack"),
+                        m_eventMap, Constants.AutoConstants.kPathMaxVelocity,
+                        Constants.AutoConstants.kPathMaxAcceleration, true))/*,
+                new InstantCommand(() -> {
+                    m_drivebaseSubsystem.setNotDoingTeleOpAuto();
+                } m_drivebaseSubsystem)*/));
+    }
+
+    /**
+     * One deployed path on its own, starting with an odometry reset.
+     */
+    public Command buildSinglePath(String pathName) {
+        return buildPath(pathName, true);
+    }
+
+    /**
+     * @param isFirstPath Whether odometry is reset to the start of the path
+     */
+    public Command buildPath(String pathName, boolean isFirstPath) {
+        return profiled(new FollowTrajectoryCommand(m_drivebaseSubsystem, pathName, m_eventMap,
+                Constants.AutoConstants.kPathMaxVelocity, Constants.AutoConstants.kPathMaxAcceleration,
+                isFirstPath));
+    }
+
+    // Measured by the command profiler when it's switched on
+    private Command profiled(Command command) {
+        return Robot.commandProfiler.profile(command);
+    }
+}
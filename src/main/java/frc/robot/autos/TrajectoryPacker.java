@@ -0,0 +1,69 @@
+package frc.robot.autos;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.lib.trajectory.BinaryTrajectory;
+import frc.robot.Constants;
+
+/**
+ * Generates every deployed PathPlanner path with the constraints the robot
+ * runs them at and packs each one into a {@link BinaryTrajectory} file, so
+ * the robot can map them at startup instead of parsing and generating.
+ *
+ * <p>
+ * Runs as part of the build, {@code ./gradlew packTrajectories}.
+ */
+public final class TrajectoryPacker {
+    private static final String PATH_EXTENSION = ".path";
+
+    private TrajectoryPacker() {
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.out.println("Usage: TrajectoryPacker <output directory>");
+            System.exit(1);
+        }
+        File outputDirectory = new File(args[0]);
+
+        // PathPlanner finds the deploy directory through the HAL
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+
+        File pathDirectory = new File(Filesystem.getDeployDirectory(), "pathplanner");
+        File[] pathFiles = pathDirectory.listFiles((dir, name) -> name.endsWith(PATH_EXTENSION));
+        if (pathFiles == null) {
+            throw new IOException("No paths in " + pathDirectory);
+        }
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("Unable to create " + outputDirectory);
+        }
+        Arrays.sort(pathFiles);
+
+        PathConstraints constraints = Constants.AutoConstants.kDefaultPathConstraints;
+        for (File pathFile : pathFiles) {
+            String pathName = pathFile.getName().replace(PATH_EXTENSION, "");
+            PathPlannerTrajectory trajectory = PathPlanner.loadPath(pathName, constraints);
+            if (trajectory == null) {
+                throw new IOException("Unable to generate " + pathName);
+            }
+
+            File packedFile = new File(outputDirectory, pathName + BinaryTrajectory.FILE_EXTENSION);
+            BinaryTrajectory.write(packedFile, trajectory, constraints);
+            System.out.printf("Packed %s: %d states, %d markers, %d bytes\n", pathName,
+                    trajectory.getStates().size(), trajectory.getMarkers().size(), packedFile.length());
+        }
+
+        // The HAL leaves threads running
+        System.exit(0);
+    }
+}
@@ -0,0 +1,42 @@
+package frc.robot.autos;
+
+import java.io.File;
+import java.util.List;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.lib.trajectory.TrajectoryCache;
+import frc.robot.Constants;
+
+/**
+ * Generates every deployed path the way robotInit does and reports how much
+ * each loop's sample costs with Trajectory.sample() compared to a
+ * TrajectorySampler. Kept off the robot, where it would compete for the CPU.
+ *
+ * <p>
+ * Run with {@code ./gradlew benchmarkSamplers}, optionally
+ * {@code -PbenchmarkPasses=200}.
+ */
+public final class TrajectorySamplerBenchmarkRunner {
+    private static final int DEFAULT_PASSES = 50;
+
+    private TrajectorySamplerBenchmarkRunner() {
+    }
+
+    public static void main(String... args) {
+        int passes = (args.length >= 1 && !args[0].isEmpty()) ? Integer.parseInt(args[0]) : DEFAULT_PASSES;
+
+        // PathPlanner finds the deploy directory through the HAL
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+
+        TrajectoryCache trajectoryCache = new TrajectoryCache();
+        trajectoryCache.preload(new File(Filesystem.getDeployDirectory(), "pathplanner"),
+                List.of(Constants.AutoConstants.kDefaultPathConstraints));
+        trajectoryCache.benchmarkSamplers(passes);
+
+        // The HAL leaves threads running
+        System.exit(0);
+    }
+}
@@ -0,0 +1,166 @@
+package frc.robot.commands;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.pathplanner.lib.PathConstraints;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.lib.control.AlignmentController;
+import frc.lib.control.FieldPoseTargetSource;
+import frc.lib.control.HolonomicFollower;
+import frc.lib.trajectory.MutableTrajectoryState;
+import frc.lib.trajectory.OnTheFlyTrajectoryGenerator;
+import frc.lib.trajectory.TrajectorySampler;
+import frc.robot.Constants;
+import frc.robot.subsystems.DrivebaseSubsystem;
+
+/**
+ * Drives from wherever the robot is to a pose on the field. The trajectory is
+ * generated on a background thread; until it's ready the robot actively holds
+ * the pose it was at when the request was made. If the target changes while
+ * the command is running, a new trajectory is requested from the current pose
+ * and the robot holds position again until it arrives. If a trajectory can't
+ * be generated the error is reported and the command ends.
+ *
+ * <p>
+ * Once the trajectory has run out, an {@link AlignmentController} with a
+ * {@link FieldPoseTargetSource} settles the robot onto the target, for at most
+ * {@link Constants.AlignmentConstants#kGoToPoseSettleTimeoutSeconds}.
+ */
+public class DriveToPoseCommand extends CommandBase {
+    private final DrivebaseSubsystem m_drivebaseSubsystem;
+    private final OnTheFlyTrajectoryGenerator m_generator;
+    private final Supplier<Pose2d> m_targetSupplier;
+    private final PathConstraints m_constraints;
+
+    private final HolonomicFollower m_follower = new HolonomicFollower(
+            new PIDController(Constants.AutoConstants.kPathXControllerP, 0, 0),
+            new PIDController(Constants.AutoConstants.kPathYControllerP, 0, 0),
+            new PIDController(Constants.AutoConstants.kPathThetaControllerP, 0, 0));
+    private final MutableTrajectoryState m_reference = new MutableTrajectoryState();
+    private final Timer m_timer = new Timer();
+
+    private final FieldPoseTargetSource m_settleTarget;
+    private final AlignmentController m_settleController = new AlignmentController(
+            Constants.AlignmentConstants.kGoToPoseTranslationAxis,
+            Constants.AlignmentConstants.kGoToPoseTranslationAxis,
+            Constants.AlignmentConstants.kGoToPoseHeadingAxis);
+    private boolean m_settling = false;
+
+    private Pose2d m_requestedTarget;
+    private CompletableFuture<TrajectorySampler> m_pendingTrajectory;
+    private TrajectorySampler m_sampler;
+    private boolean m_failed = false;
+
+    public DriveToPoseCommand(DrivebaseSubsystem drivebaseSubsystem, OnTheFlyTrajectoryGenerator generator,
+            Supplier<Pose2d> targetSupplier, PathConstraints constraints) {
+        m_drivebaseSubsystem = drivebaseSubsystem;
+        m_generator = generator;
+        m_targetSupplier = targetSupplier;
+        m_constraints = constraints;
+        m_settleTarget = new FieldPoseTargetSource(drivebaseSubsystem::getPose, new Pose2d());
+        addRequirements(drivebaseSubsystem);
+    }
+
+    @Override
+    public void initialize() {
+        m_sampler = null;
+        m_failed = false;
+        m_follower.reset();
+        requestTrajectory(m_targetSupplier.get());
+    }
+
+    @Override
+    public void execute() {
+        Pose2d target = m_targetSupplier.get();
+        if (!target.equals(m_requestedTarget)) {
+            requestTrajectory(target);
+        }
+
+        if (m_pendingTrajectory != null && m_pendingTrajectory.isDone()) {
+            try {
+                m_sampler = m_pendingTrajectory.join();
+                m_follower.reset();
+                m_timer.reset();
+                m_timer.start();
+                SmartDashboard.putNumber("On The Fly Generation ms", m_generator.getLastGenerationMs());
+            } catch (CancellationException | CompletionException e) {
+                // Nothing else will ever arrive for this target, so stop holding
+                DriverStation.reportError("Drive to pose: no trajectory to " + m_requestedTarget + ": "
+                        + (e.getCause() != null ? e.getCause() : e), false);
+                m_failed = true;
+            }
+            m_pendingTrajectory = null;
+        }
+
+        if (m_sampler != null && m_timer.hasElapsed(m_sampler.getTotalTimeSeconds())) {
+            settle();
+            return;
+        }
+
+        if (m_sampler != null) {
+            m_sampler.sample(m_timer.get(), m_reference);
+        }
+
+        ChassisSpeeds speeds = m_follower.calculate(m_drivebaseSubsystem.getPose(), m_reference);
+        m_drivebaseSubsystem.setModuleStates(Constants.Swerve.swerveKinematics.toSwerveModuleStates(speeds));
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_timer.stop();
+        m_generator.cancel();
+        m_pendingTrajectory = null;
+        m_drivebaseSubsystem.setModuleStates(Constants.Swerve.swerveKinematics.toSwerveModuleStates(new ChassisSpeeds()));
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_failed || m_settling && (m_settleController.atGoal() || m_timer.hasElapsed(
+                m_sampler.getTotalTimeSeconds() + Constants.AlignmentConstants.kGoToPoseSettleTimeoutSeconds));
+    }
+
+    // Closes the last of the distance the trajectory left, in the field frame
+    private void settle() {
+        if (!m_settling) {
+            m_settleTarget.setTargetPose(m_requestedTarget);
+            m_settling = m_settleController.start(m_settleTarget);
+        }
+        m_settleController.calculate();
+
+        ChassisSpeeds speeds = ChassisSpeeds.fromFieldRelativeSpeeds(m_settleController.getXVelocity(),
+                m_settleController.getYVelocity(), m_settleController.getRotationalVelocity(),
+                m_drivebaseSubsystem.getPose().getRotation());
+        m_drivebaseSubsystem.setModuleStates(Constants.Swerve.swerveKinematics.toSwerveModuleStates(speeds));
+    }
+
+    private void requestTrajectory(Pose2d target) {
+        Pose2d currentPose = m_drivebaseSubsystem.getPose();
+        m_requestedTarget = target;
+        m_sampler = null;
+        m_settling = false;
+        m_timer.stop();
+
+        // Hold where we are until the new trajectory is ready
+        m_reference.timeSeconds = 0.0;
+        m_reference.xMeters = currentPose.getX();
+        m_reference.yMeters = currentPose.getY();
+        m_reference.headingRadians = currentPose.getRotation().getRadians();
+        m_reference.velocityMetersPerSecond = 0.0;
+        m_reference.accelerationMetersPerSecondSq = 0.0;
+        m_reference.curvatureRadPerMeter = 0.0;
+        m_reference.holonomicRotationRadians = currentPose.getRotation().getRadians();
+        m_reference.holonomicAngularVelocityRadPerSec = 0.0;
+
+        m_pendingTrajectory = m_generator.request(currentPose, target, m_constraints);
+    }
+}
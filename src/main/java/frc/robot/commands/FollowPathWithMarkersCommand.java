@@ -0,0 +1,124 @@
+package frc.robot.commands;
+
+import java.util.Collections;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.lib.trajectory.EventMarkerTable;
+
+/**
+ * Runs a path following command and starts event commands as the path
+ * passes its markers, like PathPlanner's FollowPathWithEvents. The markers
+ * are already resolved into an {@link EventMarkerTable}, so each cycle only
+ * compares the path time against the next entry.
+ *
+ * <p>
+ * Event commands run alongside the path inside this command. Starting one
+ * interrupts any running event command it shares a requirement with; which
+ * pairs conflict is worked out up front. Event commands still running when
+ * the path ends are interrupted.
+ */
+public class FollowPathWithMarkersCommand extends CommandBase {
+    private final Command m_pathCommand;
+    private final EventMarkerTable m_markers;
+    private final boolean[][] m_conflicts;
+    private final boolean[] m_running;
+    private final Timer m_timer = new Timer();
+
+    private boolean m_pathRunning = false;
+    private int m_nextMarker = 0;
+
+    public FollowPathWithMarkersCommand(Command pathCommand, EventMarkerTable markers) {
+        m_pathCommand = pathCommand;
+        m_markers = markers;
+
+        int commandCount = markers.getCommandCount();
+        m_running = new boolean[commandCount];
+        m_conflicts = new boolean[commandCount][commandCount];
+        for (int i = 0; i < commandCount; i++) {
+            for (int j = 0; j < commandCount; j++) {
+                m_conflicts[i][j] = i == j || !Collections.disjoint(markers.getCommand(i).getRequirements(),
+                        markers.getCommand(j).getRequirements());
+            }
+        }
+
+        m_requirements.addAll(pathCommand.getRequirements());
+        for (int i = 0; i < commandCount; i++) {
+            m_requirements.addAll(markers.getCommand(i).getRequirements());
+        }
+    }
+
+    @Override
+    public void initialize() {
+        m_nextMarker = 0;
+        for (int i = 0; i < m_running.length; i++) {
+            m_running[i] = false;
+        }
+
+        m_timer.reset();
+        m_timer.start();
+        m_pathCommand.initialize();
+        m_pathRunning = true;
+    }
+
+    @Override
+    public void execute() {
+        if (m_pathRunning) {
+            m_pathCommand.execute();
+            if (m_pathCommand.isFinished()) {
+                m_pathCommand.end(false);
+                m_pathRunning = false;
+            }
+        }
+
+        for (int i = 0; i < m_running.length; i++) {
+            if (!m_running[i]) {
+                continue;
+            }
+            Command command = m_markers.getCommand(i);
+            command.execute();
+            if (command.isFinished()) {
+                command.end(false);
+                m_running[i] = false;
+            }
+        }
+
+        double time = m_timer.get();
+        while (m_nextMarker < m_markers.size() && m_markers.getTimeSeconds(m_nextMarker) <= time) {
+            start(m_markers.getCommandIndex(m_nextMarker));
+            m_nextMarker++;
+        }
+    }
+
+    private void start(int index) {
+        for (int i = 0; i < m_running.length; i++) {
+            if (m_running[i] && m_conflicts[index][i]) {
+                m_markers.getCommand(i).end(true);
+                m_running[i] = false;
+            }
+        }
+        m_markers.getCommand(index).initialize();
+        m_running[index] = true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return !m_pathRunning;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_timer.stop();
+        if (m_pathRunning) {
+            m_pathCommand.end(true);
+            m_pathRunning = false;
+        }
+        for (int i = 0; i < m_running.length; i++) {
+            if (m_running[i]) {
+                m_markers.getCommand(i).end(true);
+                m_running[i] = false;
+            }
+        }
+    }
+}
@@ -1,18 +1,20 @@
-
 package frc.robot.commands;
 
-import com.pathplanner.lib.PathPlanner;
-import com.pathplanner.lib.PathPlannerTrajectory;
-import com.pathplanner.lib.commands.FollowPathWithEvents;
-import com.pathplanner.lib.commands.PPSwerveControllerCommand;
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.lib.control.HolonomicFollower;
+import frc.lib.trajectory.EventMarkerTable;
+import frc.lib.trajectory.PathChain;
+import frc.lib.trajectory.TrajectorySampler;
 import frc.robot.Constants;
+import frc.robot.Robot;
 import frc.robot.subsystems.DrivebaseSubsystem;
 
 import java.util.HashMap;
+import java.util.List;
 
 import com.pathplanner.lib.PathConstraints;
 
@@ -20,31 +22,54 @@ public class FollowTrajectoryCommand extends SequentialCommandGroup {
 
     public FollowTrajectoryCommand(DrivebaseSubsystem drivebaseSubsystem, String pathName, HashMap<String, Command> eventMap,
                                     double maxVelocity, double maxAcceleration, boolean isFirstPath) {
+        // Throws here, while the autos are built, if a marker has no command
+        this(drivebaseSubsystem, pathName,
+                Robot.trajectoryCache.getSampler(pathName, new PathConstraints(maxVelocity, maxAcceleration)),
+                Robot.trajectoryCache.getInitialHolonomicPose(pathName, new PathConstraints(maxVelocity, maxAcceleration)),
+                Robot.trajectoryCache.compileMarkers(pathName, new PathConstraints(maxVelocity, maxAcceleration), eventMap),
+                isFirstPath);
+    }
+
+    /**
+     * Follows several paths as one trajectory, without stopping or resetting
+     * odometry between them. See {@link PathChain}.
+     */
+    public FollowTrajectoryCommand(DrivebaseSubsystem drivebaseSubsystem, List<String> pathNames, HashMap<String, Command> eventMap,
+                                    double maxVelocity, double maxAcceleration, boolean isFirstPath) {
+        this(drivebaseSubsystem, Robot.trajectoryCache.getChain(pathNames, new PathConstraints(maxVelocity, maxAcceleration)),
+                eventMap, isFirstPath);
+    }
+
+    private FollowTrajectoryCommand(DrivebaseSubsystem drivebaseSubsystem, PathChain chain, HashMap<String, Command> eventMap,
+                                    boolean isFirstPath) {
+        this(drivebaseSubsystem, chain.getName(), chain.getSampler(), chain.getInitialHolonomicPose(),
+                chain.compileMarkers(eventMap), isFirstPath);
+    }
 
-        PathPlannerTrajectory path = PathPlanner.loadPath( pathName, new PathConstraints(1.5, 1));
-        Command swerveCommand = new PPSwerveControllerCommand(
-                path, 
+    private FollowTrajectoryCommand(DrivebaseSubsystem drivebaseSubsystem, String name, TrajectorySampler sampler,
+                                    Pose2d initialHolonomicPose, EventMarkerTable markers, boolean isFirstPath) {
+        Command swerveCommand = new HolonomicPathFollowerCommand(
+                name,
+                sampler,
                 drivebaseSubsystem::getPose, // Pose supplier
+                drivebaseSubsystem::getChassisSpeeds, // Measured speeds supplier
                 Constants.Swerve.swerveKinematics, // SwerveDriveKinematics
-                new PIDController(0.1, 0, 0), // X controller. Tune these values for your robot. Leaving them 0 will only use feedforwards.
-                new PIDController(0.12, 0, 0), // Y controller (usually the same values as X controller)
-                new PIDController(2, 0, 0), // Rotation controller. Tune these values for your robot. Leaving them 0 will only use feedforwards.
+                new HolonomicFollower(
+                    new PIDController(Constants.AutoConstants.kPathXControllerP, 0, 0), // X controller. Tune these values for your robot. Leaving them 0 will only use feedforwards.
+                    new PIDController(Constants.AutoConstants.kPathYControllerP, 0, 0), // Y controller (usually the same values as X controller)
+                    new PIDController(Constants.AutoConstants.kPathThetaControllerP, 0, 0)), // Rotation controller. Tune these values for your robot. Leaving them 0 will only use feedforwards.
                 drivebaseSubsystem::setModuleStates, // Module states consumer
                 drivebaseSubsystem // Requires the drive subsystem
         );
-        FollowPathWithEvents command = new FollowPathWithEvents(
-            swerveCommand,
-            path.getMarkers(),
-            eventMap
-        );
+        Command command = new FollowPathWithMarkersCommand(swerveCommand, markers);
         addCommands (
             new InstantCommand(() -> {
                 // Reset odometry for the first path you run during auto
                 if(isFirstPath) {
-                    drivebaseSubsystem.getOdometry().resetPosition(drivebaseSubsystem.getYaw(), drivebaseSubsystem.getModulePositions(), path.getInitialHolonomicPose());
+                    drivebaseSubsystem.resetOdometry(initialHolonomicPose);
                 }
             }),
-            command            
+            command
         );
     }
-}
\ No newline at end of file
+}
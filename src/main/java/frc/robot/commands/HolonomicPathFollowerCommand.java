@@ -0,0 +1,112 @@
+package frc.robot.commands;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.lib.control.HolonomicFollower;
+import frc.lib.trajectory.MutableTrajectoryState;
+import frc.lib.trajectory.PathTrackingRecorder;
+import frc.lib.trajectory.TrajectorySampler;
+
+/**
+ * Follows a trajectory with a swerve drive, sampling it through a
+ * {@link TrajectorySampler} each loop instead of building new state objects.
+ * It replaces PPSwerveControllerCommand, which samples with
+ * Trajectory.sample() internally and so can't use a sampler; the control law
+ * is the same, see {@link HolonomicFollower}.
+ * The reference and measured state of every cycle are recorded, and a
+ * tracking error summary is published when the path ends, unless
+ * {@link #withoutPublishing()} was called.
+ *
+ * <p>
+ * Like PPSwerveControllerCommand it finishes when the trajectory's time runs
+ * out. The summary then reports whether the robot had arrived at the end of
+ * the path and how far off it was, see {@link PathTrackingRecorder}.
+ */
+public class HolonomicPathFollowerCommand extends CommandBase {
+    private final TrajectorySampler m_sampler;
+    private final Supplier<Pose2d> m_poseSupplier;
+    private final SwerveDriveKinematics m_kinematics;
+    private final HolonomicFollower m_follower;
+    private final Consumer<SwerveModuleState[]> m_outputModuleStates;
+    private final Supplier<ChassisSpeeds> m_speedsSupplier;
+    private final PathTrackingRecorder m_recorder;
+    private boolean m_publishSummary = true;
+
+    private final MutableTrajectoryState m_reference = new MutableTrajectoryState();
+    private final Timer m_timer = new Timer();
+
+    public HolonomicPathFollowerCommand(String name, TrajectorySampler sampler, Supplier<Pose2d> poseSupplier,
+            Supplier<ChassisSpeeds> speedsSupplier, SwerveDriveKinematics kinematics, HolonomicFollower follower,
+            Consumer<SwerveModuleState[]> outputModuleStates, Subsystem... requirements) {
+        m_recorder = new PathTrackingRecorder(name, sampler.getTotalTimeSeconds());
+        m_speedsSupplier = speedsSupplier;
+        m_sampler = sampler;
+        m_poseSupplier = poseSupplier;
+        m_kinematics = kinematics;
+        m_follower = follower;
+        m_outputModuleStates = outputModuleStates;
+        addRequirements(requirements);
+    }
+
+    /**
+     * Keeps the tracking summary off the dashboard and the console, for runs
+     * that aren't real paths like the warm up.
+     *
+     * @return this command
+     */
+    public HolonomicPathFollowerCommand withoutPublishing() {
+        m_publishSummary = false;
+        return this;
+    }
+
+    @Override
+    public void initialize() {
+        m_sampler.resetCursor();
+        m_follower.reset();
+        m_recorder.reset();
+        m_timer.reset();
+        m_timer.start();
+    }
+
+    @Override
+    public void execute() {
+        double time = m_timer.get();
+        Pose2d currentPose = m_poseSupplier.get();
+        ChassisSpeeds measuredSpeeds = m_speedsSupplier.get();
+
+        m_sampler.sample(time, m_reference);
+        m_recorder.record(time, m_reference, currentPose,
+                Math.hypot(measuredSpeeds.vxMetersPerSecond, measuredSpeeds.vyMetersPerSecond));
+
+        ChassisSpeeds speeds = m_follower.calculate(currentPose, m_reference);
+        m_outputModuleStates.accept(m_kinematics.toSwerveModuleStates(speeds));
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_timer.stop();
+        m_recorder.summarize(m_timer.get());
+        if (m_publishSummary) {
+            m_recorder.publish();
+        }
+
+        // Same as PPSwerveControllerCommand: stop if we were interrupted or the
+        // path ends at rest.
+        if (interrupted || Math.abs(m_reference.velocityMetersPerSecond) < 0.1) {
+            m_outputModuleStates.accept(m_kinematics.toSwerveModuleStates(new ChassisSpeeds()));
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_timer.hasElapsed(m_sampler.getTotalTimeSeconds());
+    }
+}
@@ -1,5 +1,6 @@
 package frc.robot.commands;
 
+import frc.lib.logging.LatencyProbe;
 import frc.robot.Constants;
 import frc.robot.subsystems.DrivebaseSubsystem;
 
@@ -30,10 +31,14 @@ public class TeleopSwerveDriveCommand extends CommandBase {
 
     @Override
     public void execute() {
+        LatencyProbe latency = m_drivebaseSubsystem.getTeleopLatencyProbe();
+        latency.arm();
+
         /* Get Values, Deadband */
         double translationVal = MathUtil.applyDeadband(-m_translationSup.getAsDouble(), Constants.joystickDeadband);
         double strafeVal = MathUtil.applyDeadband(-m_strafeSup.getAsDouble(), Constants.joystickDeadband);
         double rotationVal = MathUtil.applyDeadband(-m_rotationSup.getAsDouble(), Constants.joystickDeadband);
+        latency.mark(DrivebaseSubsystem.LATENCY_SUBSYSTEMS_AND_DEADBAND);
 
         /* Drive */
         m_drivebaseSubsystem.drive(
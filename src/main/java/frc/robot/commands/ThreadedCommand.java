@@ -0,0 +1,94 @@
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.lib.util.CancellationToken;
+
+/**
+ * Base class for commands that do their work on a dedicated thread.
+ *
+ * <p>
+ * When the scheduler ends the command (cancel, interrupt or a mode change) the
+ * worker is signalled through a {@link CancellationToken} and interrupted, and
+ * the stop action runs right away, so the mechanism is stopped even if the
+ * worker is stuck. The main loop never waits for the worker to exit, only for
+ * an output it's in the middle of sending. The worker must send its outputs
+ * through {@link CancellationToken#runUnlessCancelled(Runnable)}, so nothing it
+ * sends can land after the stop, and it never stops the mechanism itself: by
+ * the time it exits another command may own the mechanism. A cancelled worker
+ * logs the time from cancel to exit.
+ */
+public abstract class ThreadedCommand extends CommandBase {
+    private final String m_threadName;
+    private final Runnable m_stopAction;
+
+    private Thread m_thread;
+    private CancellationToken m_cancellationToken;
+
+    /**
+     * @param threadName Name of the worker thread
+     * @param stopAction Puts the mechanism in a safe state, called once on the main
+     *                   thread when the command ends
+     */
+    protected ThreadedCommand(String threadName, Runnable stopAction) {
+        m_threadName = threadName;
+        m_stopAction = stopAction;
+    }
+
+    /**
+     * Does the work of the command on the worker thread. Implementations must
+     * return promptly once the token is cancelled or the thread is interrupted.
+     */
+    protected abstract void runThreaded(CancellationToken cancellationToken);
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        final CancellationToken cancellationToken = new CancellationToken();
+        m_cancellationToken = cancellationToken;
+
+        m_thread = new Thread(() -> {
+            try {
+                runThreaded(cancellationToken);
+            } finally {
+                if (cancellationToken.isCancelled()) {
+                    double cancelToExitMs = (System.nanoTime() - cancellationToken.getCancelTimeNanos()) / 1.0e6;
+                    SmartDashboard.putNumber(m_threadName + " Cancel To Exit ms", cancelToExitMs);
+                    System.out.printf("%s worker exited %.2f ms after cancel\n", m_threadName, cancelToExitMs);
+                }
+            }
+        }, m_threadName);
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        if (m_thread == null) {
+            return;
+        }
+
+        if (!m_thread.isAlive()) {
+            // The worker finished on its own, its last output still needs stopping
+            m_stopAction.run();
+            return;
+        }
+
+        // Returns once no output from the worker is in flight, and none can follow
+        m_cancellationToken.cancel();
+        m_thread.interrupt();
+
+        // Don't join, nothing the worker does from here on reaches the mechanism
+        m_stopAction.run();
+
+        double cancelToStopMs = (System.nanoTime() - m_cancellationToken.getCancelTimeNanos()) / 1.0e6;
+        SmartDashboard.putNumber(m_threadName + " Cancel To Stop ms", cancelToStopMs);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        return (m_thread == null || !m_thread.isAlive());
+    }
+}
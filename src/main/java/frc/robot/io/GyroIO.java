@@ -0,0 +1,20 @@
+package frc.robot.io;
+
+/**
+ * Hardware access for the gyro.
+ */
+public interface GyroIO {
+    void updateInputs(RobotInputs inputs);
+
+    default void setYaw(double degrees) {
+    }
+
+    default void setStatusFrameProfile(StatusFrameProfile profile) {
+    }
+
+    /**
+     * Sets the profile again if the gyro has reset since it was last set.
+     */
+    default void checkStatusFrameProfile() {
+    }
+}
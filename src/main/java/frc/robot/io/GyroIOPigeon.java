@@ -0,0 +1,52 @@
+package frc.robot.io;
+
+import com.ctre.phoenix.sensors.PigeonIMU;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
+
+public class GyroIOPigeon implements GyroIO {
+    private final PigeonIMU m_gyro;
+    private final double[] m_rawGyroDegreesPerSec = new double[3];
+    private StatusFrameProfile m_statusFrameProfile = null;
+
+    public GyroIOPigeon(int pigeonID) {
+        m_gyro = new PigeonIMU(pigeonID);
+        m_gyro.configFactoryDefault();
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        inputs.gyroYawDegrees = m_gyro.getYaw();
+        m_gyro.getRawGyro(m_rawGyroDegreesPerSec);
+        inputs.gyroYawRateDegreesPerSec = m_rawGyroDegreesPerSec[2];
+    }
+
+    @Override
+    public void setYaw(double degrees) {
+        m_gyro.setYaw(degrees);
+    }
+
+    // A timeout of 0 sends the settings without waiting for a reply, so this
+    // doesn't hold up the main loop on a mode change
+    @Override
+    public void setStatusFrameProfile(StatusFrameProfile profile) {
+        m_statusFrameProfile = profile;
+        for (PigeonIMU_StatusFrame frame : PigeonIMU_StatusFrame.values()) {
+            m_gyro.setStatusFramePeriod(frame, StatusFrameProfile.UNUSED_PERIOD_MS, 0);
+        }
+        m_gyro.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_1_General,
+                StatusFrameProfile.GENERAL_PERIOD_MS, 0);
+        m_gyro.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, profile.pigeonYawPeriodMs, 0);
+        m_gyro.setStatusFramePeriod(PigeonIMU_StatusFrame.BiasedStatus_2_Gyro, profile.pigeonGyroPeriodMs, 0);
+    }
+
+    @Override
+    public void checkStatusFrameProfile() {
+        if (m_statusFrameProfile != null && m_gyro.hasResetOccurred()) {
+            setStatusFrameProfile(m_statusFrameProfile);
+        }
+    }
+
+    public PigeonIMU getPigeon() {
+        return m_gyro;
+    }
+}
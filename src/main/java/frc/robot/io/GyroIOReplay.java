@@ -0,0 +1,16 @@
+package frc.robot.io;
+
+public class GyroIOReplay implements GyroIO {
+    private final LogReplaySource m_source;
+
+    public GyroIOReplay(LogReplaySource source) {
+        m_source = source;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        RobotInputs logged = m_source.getLoggedInputs();
+        inputs.gyroYawDegrees = logged.gyroYawDegrees;
+        inputs.gyroYawRateDegreesPerSec = logged.gyroYawRateDegreesPerSec;
+    }
+}
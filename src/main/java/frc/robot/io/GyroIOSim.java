@@ -0,0 +1,28 @@
+package frc.robot.io;
+
+import frc.lib.sim.SwerveDrivePhysics;
+
+/**
+ * A perfect gyro on a {@link SwerveDrivePhysics} model.
+ */
+public class GyroIOSim implements GyroIO {
+    private final SwerveDrivePhysics m_physics;
+
+    // Set by setYaw(), like the Pigeon's yaw offset
+    private double m_yawOffsetDegrees = 0.0;
+
+    public GyroIOSim(SwerveDrivePhysics physics) {
+        m_physics = physics;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        inputs.gyroYawDegrees = Math.toDegrees(m_physics.getHeadingRadians()) + m_yawOffsetDegrees;
+        inputs.gyroYawRateDegreesPerSec = Math.toDegrees(m_physics.getYawRateRadPerSec());
+    }
+
+    @Override
+    public void setYaw(double degrees) {
+        m_yawOffsetDegrees = degrees - Math.toDegrees(m_physics.getHeadingRadians());
+    }
+}
@@ -0,0 +1,146 @@
+package frc.robot.io;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples the gyro into a yaw, yaw rate and timestamp that every consumer
+ * shares. Either it reads the gyro once at the start of each cycle, or a
+ * sampling thread keeps reading it at a fixed rate and each cycle takes the
+ * newest sample. Both ways, everything that runs during one cycle sees the
+ * same yaw, and {@link #getLatestYawDegrees()} gives the field relative
+ * drive and threads that run faster than the main loop, like docking,
+ * something fresher.
+ */
+public class GyroService {
+    private final GyroIO m_io;
+    private final Thread m_thread;
+
+    // Latest sample, guarded by this
+    private double m_yawDegrees = 0.0;
+    private double m_yawRateDegreesPerSec = 0.0;
+    private double m_timestampSeconds = 0.0;
+    private long m_sampleCount = 0;
+    // Bumped by setYaw(), guarded by this. A read that started under an older
+    // generation may have happened before the yaw was set, so it's dropped.
+    private long m_yawGeneration = 0;
+
+    // Only touched by whichever thread samples
+    private final RobotInputs m_sampleInputs = new RobotInputs();
+
+    /**
+     * @param io         The gyro
+     * @param sampleRateHz Rate for the sampling thread, or 0 to sample once per
+     *                   cycle in {@link #update(RobotInputs)} instead
+     */
+    public GyroService(GyroIO io, double sampleRateHz) {
+        m_io = io;
+
+        if (sampleRateHz > 0.0) {
+            long periodNanos = (long) (1.0e9 / sampleRateHz);
+            m_thread = new Thread(() -> sampleLoop(periodNanos), "GyroService");
+            m_thread.setDaemon(true);
+            m_thread.start();
+        } else {
+            m_thread = null;
+        }
+    }
+
+    private void sampleLoop(long periodNanos) {
+        long nextNanos = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            sample(Timer.getFPGATimestamp());
+
+            nextNanos += periodNanos;
+            long sleepNanos = nextNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                // Fell behind, don't try to catch up with a burst of reads
+                nextNanos = System.nanoTime();
+            }
+        }
+    }
+
+    private void sample(double timestampSeconds) {
+        long generation;
+        synchronized (this) {
+            generation = m_yawGeneration;
+        }
+
+        m_io.updateInputs(m_sampleInputs);
+        synchronized (this) {
+            if (generation != m_yawGeneration) {
+                return;
+            }
+            m_yawDegrees = m_sampleInputs.gyroYawDegrees;
+            m_yawRateDegreesPerSec = m_sampleInputs.gyroYawRateDegreesPerSec;
+            m_timestampSeconds = timestampSeconds;
+            m_sampleCount++;
+        }
+    }
+
+    /**
+     * Fills this cycle's gyro inputs, from a fresh read or from the sampling
+     * thread's newest sample.
+     */
+    public void update(RobotInputs inputs) {
+        if (m_thread == null) {
+            sample(inputs.timestampSeconds);
+        }
+
+        synchronized (this) {
+            inputs.gyroYawDegrees = m_yawDegrees;
+            inputs.gyroYawRateDegreesPerSec = m_yawRateDegreesPerSec;
+        }
+    }
+
+    /**
+     * Sets the gyro's yaw. Reads the sampling thread started before this
+     * returns are thrown away, so an old yaw can't replace the new one.
+     */
+    public void setYaw(double degrees) {
+        m_io.setYaw(degrees);
+        // Until the gyro reports the new yaw, report it ourselves
+        synchronized (this) {
+            m_yawGeneration++;
+            m_yawDegrees = degrees;
+        }
+    }
+
+    /**
+     * The newest sample, which may be newer than this cycle's inputs when the
+     * sampling thread is running.
+     */
+    public synchronized double getLatestYawDegrees() {
+        return m_yawDegrees;
+    }
+
+    public synchronized double getLatestYawRateDegreesPerSec() {
+        return m_yawRateDegreesPerSec;
+    }
+
+    /**
+     * @return FPGA time of the newest sample, or the cycle's timestamp when sampling once per cycle
+     */
+    public synchronized double getLatestTimestampSeconds() {
+        return m_timestampSeconds;
+    }
+
+    public synchronized long getSampleCount() {
+        return m_sampleCount;
+    }
+
+    public boolean isThreaded() {
+        return m_thread != null;
+    }
+
+    public void close() {
+        if (m_thread != null) {
+            m_thread.interrupt();
+        }
+    }
+}
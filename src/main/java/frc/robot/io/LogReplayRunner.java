@@ -0,0 +1,77 @@
+package frc.robot.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.lib.logging.BinaryLogger;
+import frc.robot.Constants;
+import frc.robot.Robot;
+import frc.robot.subsystems.DrivebaseSubsystem;
+
+/**
+ * Runs a robot log back through the drivebase as fast as the code can go,
+ * then reports how long it took compared to the match and how far the
+ * replayed odometry ended up from what the robot logged. Use it to check
+ * that an optimization didn't change the results.
+ *
+ * <p>
+ * Run with {@code ./gradlew replayLog -PreplayLog=path/to/robot_123.ctlog}.
+ */
+public final class LogReplayRunner {
+    private LogReplayRunner() {
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.out.println("Usage: LogReplayRunner <log file>");
+            return;
+        }
+        File logFile = new File(args[0]);
+
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+
+        // The replay logs the same records the robot did, next to the original
+        String replayName = logFile.getName().replace(".ctlog", "") + "_replay.ctlog";
+        Robot.dataLogger = new BinaryLogger(new File(logFile.getAbsoluteFile().getParentFile(), replayName),
+                Constants.LoggingConstants.kRingBufferCapacity);
+
+        RobotIO io = RobotIO.createReplay(logFile, Robot.dataLogger);
+        DrivebaseSubsystem drivebase = new DrivebaseSubsystem(io, Robot.dataLogger);
+        // The drivebase only has a zero, which is the only gyro reset the robot does
+        io.getReplaySource().setResetHandlers(drivebase::resetOdometry, yawDegrees -> drivebase.zeroGyro());
+
+        long startNanos = System.nanoTime();
+        while (io.update()) {
+            drivebase.periodic();
+        }
+        double replaySeconds = (System.nanoTime() - startNanos) / 1.0e9;
+
+        LogReplaySource source = io.getReplaySource();
+        double loggedSeconds = source.getLoggedDurationSeconds();
+        System.out.printf("Replayed %d cycles (%.1f s of robot time) in %.2f s, %.0fx real time\n",
+                source.getCycleCount(), loggedSeconds, replaySeconds,
+                replaySeconds > 0.0 ? loggedSeconds / replaySeconds : 0.0);
+
+        if (source.hasLoggedPose()) {
+            Pose2d pose = drivebase.getPose();
+            double errorMeters = Math.hypot(pose.getX() - source.getLoggedPoseX(),
+                    pose.getY() - source.getLoggedPoseY());
+            double errorDegrees = pose.getRotation().getDegrees() - source.getLoggedPoseDegrees();
+            System.out.printf("Final pose: replayed (%.3f, %.3f, %.1f deg), logged (%.3f, %.3f, %.1f deg)\n",
+                    pose.getX(), pose.getY(), pose.getRotation().getDegrees(),
+                    source.getLoggedPoseX(), source.getLoggedPoseY(), source.getLoggedPoseDegrees());
+            System.out.printf("Final pose error: %.4f m, %.2f deg\n", errorMeters, errorDegrees);
+        }
+
+        Robot.dataLogger.close();
+        System.out.printf("Logger: %d records written, %d dropped\n",
+                Robot.dataLogger.getWrittenCount(), Robot.dataLogger.getDroppedCount());
+
+        // NetworkTables and the HAL leave threads running
+        System.exit(0);
+    }
+}
@@ -0,0 +1,146 @@
+package frc.robot.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.lib.logging.BinaryLogReader;
+import frc.robot.subsystems.DrivebaseSubsystem;
+
+/**
+ * Steps through a robot log one cycle at a time, rebuilding the inputs that
+ * cycle read. The replay IO implementations copy their part out of
+ * {@link #getLoggedInputs()}.
+ *
+ * <p>
+ * Odometry and gyro resets the robot logged are handed to the reset handlers
+ * as they are read. A reset is logged after the inputs of the cycle it
+ * happened in, so the handlers run while that cycle's inputs are still the
+ * current ones, before the next cycle is read.
+ */
+public class LogReplaySource {
+    private final File m_file;
+    private final BinaryLogReader m_reader;
+    private final RobotInputs m_loggedInputs = new RobotInputs();
+
+    private long m_cycleCount = 0;
+    private double m_firstTimestampSeconds = Double.NaN;
+
+    // The last pose the robot logged, to compare the replay against
+    private boolean m_hasLoggedPose = false;
+    private double m_loggedPoseX;
+    private double m_loggedPoseY;
+    private double m_loggedPoseDegrees;
+
+    private Consumer<Pose2d> m_odometryResetHandler = pose -> {
+    };
+    private DoubleConsumer m_gyroResetHandler = yawDegrees -> {
+    };
+
+    public LogReplaySource(File file) throws IOException {
+        m_file = file;
+        m_reader = new BinaryLogReader(file);
+    }
+
+    /**
+     * @param odometryResetHandler Called with the pose for every logged odometry reset
+     * @param gyroResetHandler     Called with the yaw for every logged gyro reset
+     */
+    public void setResetHandlers(Consumer<Pose2d> odometryResetHandler, DoubleConsumer gyroResetHandler) {
+        m_odometryResetHandler = odometryResetHandler;
+        m_gyroResetHandler = gyroResetHandler;
+    }
+
+    /**
+     * Reads the next cycle's inputs.
+     *
+     * @return false once the log runs out
+     */
+    public boolean advance() {
+        try {
+            while (m_reader.next()) {
+                String typeName = m_reader.getTypeName();
+
+                if (RobotIO.MODULE_INPUTS_RECORD.equals(typeName)) {
+                    int module = (int) m_reader.getValue(0);
+                    m_loggedInputs.drivePositionMeters[module] = m_reader.getValue(1);
+                    m_loggedInputs.driveVelocityMetersPerSec[module] = m_reader.getValue(2);
+                    m_loggedInputs.angleDegrees[module] = m_reader.getValue(3);
+                    m_loggedInputs.canCoderDegrees[module] = m_reader.getValue(4);
+                } else if (RobotIO.CYCLE_INPUTS_RECORD.equals(typeName)) {
+                    // Written last, so it closes out the cycle
+                    m_loggedInputs.timestampSeconds = m_reader.getValue(0);
+                    m_loggedInputs.gyroYawDegrees = m_reader.getValue(1);
+                    m_loggedInputs.gyroYawRateDegreesPerSec = m_reader.getValue(2);
+                    m_loggedInputs.tagId = m_reader.getValue(3);
+                    m_loggedInputs.tagTX = m_reader.getValue(4);
+                    m_loggedInputs.tagTZ = m_reader.getValue(5);
+                    m_loggedInputs.tagPitch = m_reader.getValue(6);
+
+                    if (m_cycleCount == 0) {
+                        m_firstTimestampSeconds = m_loggedInputs.timestampSeconds;
+                    }
+                    m_cycleCount++;
+                    return true;
+                } else if (DrivebaseSubsystem.POSE_RECORD.equals(typeName)) {
+                    m_hasLoggedPose = true;
+                    m_loggedPoseX = m_reader.getValue(0);
+                    m_loggedPoseY = m_reader.getValue(1);
+                    m_loggedPoseDegrees = m_reader.getValue(2);
+                } else if (DrivebaseSubsystem.ODOMETRY_RESET_RECORD.equals(typeName)) {
+                    m_odometryResetHandler.accept(new Pose2d(m_reader.getValue(0), m_reader.getValue(1),
+                            Rotation2d.fromDegrees(m_reader.getValue(2))));
+                } else if (DrivebaseSubsystem.GYRO_RESET_RECORD.equals(typeName)) {
+                    m_gyroResetHandler.accept(m_reader.getValue(0));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("LogReplaySource: couldn't read " + m_file + ": " + e.getMessage());
+        }
+
+        close();
+        return false;
+    }
+
+    public RobotInputs getLoggedInputs() {
+        return m_loggedInputs;
+    }
+
+    public long getCycleCount() {
+        return m_cycleCount;
+    }
+
+    /**
+     * @return How much robot time the cycles read so far covered
+     */
+    public double getLoggedDurationSeconds() {
+        return m_cycleCount == 0 ? 0.0 : m_loggedInputs.timestampSeconds - m_firstTimestampSeconds;
+    }
+
+    public boolean hasLoggedPose() {
+        return m_hasLoggedPose;
+    }
+
+    public double getLoggedPoseX() {
+        return m_loggedPoseX;
+    }
+
+    public double getLoggedPoseY() {
+        return m_loggedPoseY;
+    }
+
+    public double getLoggedPoseDegrees() {
+        return m_loggedPoseDegrees;
+    }
+
+    private void close() {
+        try {
+            m_reader.close();
+        } catch (IOException e) {
+            // Nothing left to read anyway
+        }
+    }
+}
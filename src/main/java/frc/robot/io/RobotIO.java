@@ -0,0 +1,318 @@
+package frc.robot.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.lib.logging.BinaryLogger;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+import frc.robot.sim.PhoenixSwerveSim;
+import frc.robot.sim.SimulatedDrivetrain;
+
+/**
+ * Owns the robot's IO implementations and the {@link RobotInputs} they fill.
+ * {@link #update()} runs once at the start of every cycle: it reads every
+ * sensor into the inputs in one pass and logs them, so a replay can feed the
+ * exact same values back through the odometry and control code.
+ */
+public class RobotIO {
+    public static final String MODULE_INPUTS_RECORD = "ModuleInputs";
+    public static final String CYCLE_INPUTS_RECORD = "CycleInputs";
+
+    // Filled in by the IO implementations, only touched by the main loop
+    private final RobotInputs m_inputs = new RobotInputs();
+    // Copies of m_inputs that are published in turn, allocated up front. A
+    // buffer isn't written again until two more have been published, which
+    // leaves a reader at least a whole cycle even when setYaw() publishes
+    // again in the same cycle.
+    private static final int PUBLISHED_BUFFER_COUNT = 3;
+    private final RobotInputs[] m_publishedBuffers = new RobotInputs[PUBLISHED_BUFFER_COUNT];
+    private int m_nextPublishedBuffer = 0;
+    private volatile RobotInputs m_publishedInputs;
+    private final SwerveModuleIO[] m_moduleIOs;
+    private final GyroIO m_gyroIO;
+    private final GyroService m_gyroService;
+    private final VisionIO m_visionIO;
+    // Only set when replaying a log
+    private final LogReplaySource m_replaySource;
+    // Only set in desktop simulation
+    private PhoenixSwerveSim m_swerveSim;
+
+    private StatusFrameProfile m_statusFrameProfile = null;
+    // Devices are checked for resets about once a second
+    private static final int STATUS_FRAME_CHECK_CYCLES = 50;
+    private int m_statusFrameCheckCycles = 0;
+
+    private final BinaryLogger m_logger;
+    private final int m_moduleInputsLogType;
+    private final int m_cycleInputsLogType;
+    private final double[] m_moduleLogValues = new double[5];
+    private final double[] m_cycleLogValues = new double[7];
+
+    private RobotIO(SwerveModuleIO[] moduleIOs, GyroIO gyroIO, double gyroSampleRateHz, VisionIO visionIO,
+            LogReplaySource replaySource, BinaryLogger logger) {
+        m_logger = logger;
+        m_moduleIOs = moduleIOs;
+        m_gyroIO = gyroIO;
+        m_gyroService = new GyroService(gyroIO, gyroSampleRateHz);
+        m_visionIO = visionIO;
+        m_replaySource = replaySource;
+        for (int i = 0; i < PUBLISHED_BUFFER_COUNT; i++) {
+            m_publishedBuffers[i] = new RobotInputs();
+        }
+        m_publishedInputs = m_publishedBuffers[PUBLISHED_BUFFER_COUNT - 1];
+
+        m_moduleInputsLogType = m_logger.defineRecordType(MODULE_INPUTS_RECORD, "module", "drivePositionMeters",
+                "driveVelocityMps", "angleDeg", "canCoderDeg");
+        m_cycleInputsLogType = m_logger.defineRecordType(CYCLE_INPUTS_RECORD, "timestampSec", "gyroYawDeg",
+                "gyroYawRateDps", "tagId", "tagTX", "tagTZ", "tagPitch");
+    }
+
+    /**
+     * Real hardware on the robot. In simulation, replays
+     * Constants.LoggingConstants.kReplayLogFile if it's set, otherwise
+     * simulates the hardware.
+     */
+    public static RobotIO create(BinaryLogger logger) {
+        if (RobotBase.isReal()) {
+            return createReal(logger);
+        }
+
+        if (!Constants.LoggingConstants.kReplayLogFile.isEmpty()) {
+            try {
+                return createReplay(new File(Constants.LoggingConstants.kReplayLogFile), logger);
+            } catch (IOException e) {
+                System.out.println("Couldn't open replay log, simulating instead: " + e.getMessage());
+            }
+        }
+
+        return createSim(logger);
+    }
+
+    public static RobotIO createReal(BinaryLogger logger) {
+        RobotIO io = new RobotIO(
+                new SwerveModuleIO[] {
+                        new SwerveModuleIOFalcon(0, Constants.Swerve.Mod0.constants),
+                        new SwerveModuleIOFalcon(1, Constants.Swerve.Mod1.constants),
+                        new SwerveModuleIOFalcon(2, Constants.Swerve.Mod2.constants),
+                        new SwerveModuleIOFalcon(3, Constants.Swerve.Mod3.constants)
+                },
+                new GyroIOPigeon(Constants.Swerve.pigeonID),
+                Constants.Swerve.gyroSampleRateHz,
+                new VisionIONetworkTables(),
+                null,
+                logger);
+
+        // Subsystems read their starting state while they're constructed
+        io.update();
+        return io;
+    }
+
+    /**
+     * The real Falcon and Pigeon code running against simulated devices, with
+     * {@link PhoenixSwerveSim} standing in for the drivetrain. Call
+     * {@link #updateSimulation(double)} every loop.
+     */
+    public static RobotIO createSim(BinaryLogger logger) {
+        SwerveModuleConstants[] moduleConstants = new SwerveModuleConstants[] {
+                Constants.Swerve.Mod0.constants,
+                Constants.Swerve.Mod1.constants,
+                Constants.Swerve.Mod2.constants,
+                Constants.Swerve.Mod3.constants
+        };
+        SwerveModuleIOFalcon[] modules = new SwerveModuleIOFalcon[moduleConstants.length];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModuleIOFalcon(i, moduleConstants[i]);
+        }
+        GyroIOPigeon gyro = new GyroIOPigeon(Constants.Swerve.pigeonID);
+        PhoenixSwerveSim swerveSim = new PhoenixSwerveSim(modules, moduleConstants, gyro);
+
+        // The simulated camera sees from where the robot really is
+        RobotIO io = new RobotIO(modules, gyro, 0.0, new VisionIOSim(swerveSim::getPose), null, logger);
+        io.m_swerveSim = swerveSim;
+        io.update();
+        return io;
+    }
+
+    /**
+     * A {@link SimulatedDrivetrain}, with the Talon loops done in Java, for
+     * headless runs that step robot time themselves. Call
+     * {@link SimulatedDrivetrain#step(double)} between cycles.
+     */
+    public static RobotIO createHeadlessSim(SimulatedDrivetrain drivetrain, BinaryLogger logger) {
+        RobotIO io = new RobotIO(drivetrain.getModuleIOs(), drivetrain.getGyroIO(), 0.0,
+                new VisionIOSim(drivetrain::getTruePose), null, logger);
+        io.update();
+        return io;
+    }
+
+    /**
+     * Plays back a log. Unlike the other modes nothing is read until the first
+     * {@link #update()}, so every logged cycle goes through the robot code once.
+     */
+    public static RobotIO createReplay(File logFile, BinaryLogger logger) throws IOException {
+        LogReplaySource source = new LogReplaySource(logFile);
+        return new RobotIO(
+                new SwerveModuleIO[] {
+                        new SwerveModuleIOReplay(source),
+                        new SwerveModuleIOReplay(source),
+                        new SwerveModuleIOReplay(source),
+                        new SwerveModuleIOReplay(source)
+                },
+                new GyroIOReplay(source),
+                0.0,
+                new VisionIOReplay(source),
+                source,
+                logger);
+    }
+
+    /**
+     * Reads this cycle's inputs.
+     *
+     * @return false when a replay has run out of log
+     */
+    public boolean update() {
+        if (m_replaySource != null) {
+            if (!m_replaySource.advance()) {
+                return false;
+            }
+            m_inputs.timestampSeconds = m_replaySource.getLoggedInputs().timestampSeconds;
+        } else {
+            m_inputs.timestampSeconds = Timer.getFPGATimestamp();
+        }
+
+        for (int i = 0; i < m_moduleIOs.length; i++) {
+            m_moduleIOs[i].updateInputs(m_inputs, i);
+        }
+        m_gyroService.update(m_inputs);
+        m_visionIO.updateInputs(m_inputs);
+
+        logInputs();
+        publishInputs();
+
+        if (m_statusFrameProfile != null && ++m_statusFrameCheckCycles >= STATUS_FRAME_CHECK_CYCLES) {
+            m_statusFrameCheckCycles = 0;
+            for (SwerveModuleIO moduleIO : m_moduleIOs) {
+                moduleIO.checkStatusFrameProfile();
+            }
+            m_gyroIO.checkStatusFrameProfile();
+        }
+        return true;
+    }
+
+    /**
+     * Switches every device to the given status frame periods. Does nothing
+     * if that profile is already active.
+     */
+    public void setStatusFrameProfile(StatusFrameProfile profile) {
+        if (profile == m_statusFrameProfile) {
+            return;
+        }
+        m_statusFrameProfile = profile;
+
+        for (SwerveModuleIO moduleIO : m_moduleIOs) {
+            moduleIO.setStatusFrameProfile(profile);
+        }
+        m_gyroIO.setStatusFrameProfile(profile);
+
+        double utilization = profile.estimateBusUtilization(m_moduleIOs.length) * 100.0;
+        SmartDashboard.putString("CAN Status Profile", profile.name());
+        SmartDashboard.putNumber("Estimated Swerve CAN Utilization %", utilization);
+        System.out.printf("CAN status profile %s, swerve devices use about %.0f%% of the bus\n", profile.name(),
+                utilization);
+    }
+
+    public StatusFrameProfile getStatusFrameProfile() {
+        return m_statusFrameProfile;
+    }
+
+    /**
+     * Steps the simulated drivetrain by a fixed amount of robot time. Does
+     * nothing outside of simulation.
+     */
+    public void updateSimulation(double dtSeconds) {
+        if (m_swerveSim != null) {
+            m_swerveSim.update(dtSeconds);
+        }
+    }
+
+    public PhoenixSwerveSim getSwerveSim() {
+        return m_swerveSim;
+    }
+
+    /**
+     * Sets the gyro's yaw, and this cycle's inputs along with it so nothing
+     * has to wait for the next read to see the new heading. Main loop only.
+     */
+    public void setYaw(double degrees) {
+        m_gyroService.setYaw(degrees);
+        m_inputs.gyroYawDegrees = degrees;
+        publishInputs();
+    }
+
+    /**
+     * @return The newest complete cycle of inputs. Safe to call from any
+     *         thread. The returned object is reused a couple of cycles later,
+     *         so read what's needed straight away and get it again next time
+     *         rather than holding on to it.
+     */
+    public RobotInputs getInputs() {
+        return m_publishedInputs;
+    }
+
+    public SwerveModuleIO getModuleIO(int moduleNumber) {
+        return m_moduleIOs[moduleNumber];
+    }
+
+    public GyroIO getGyroIO() {
+        return m_gyroIO;
+    }
+
+    public GyroService getGyroService() {
+        return m_gyroService;
+    }
+
+    public VisionIO getVisionIO() {
+        return m_visionIO;
+    }
+
+    public boolean isReplay() {
+        return m_replaySource != null;
+    }
+
+    public LogReplaySource getReplaySource() {
+        return m_replaySource;
+    }
+
+    private void publishInputs() {
+        RobotInputs inputs = m_publishedBuffers[m_nextPublishedBuffer];
+        m_nextPublishedBuffer = (m_nextPublishedBuffer + 1) % PUBLISHED_BUFFER_COUNT;
+        inputs.copyFrom(m_inputs);
+        // The volatile write makes the copy visible before the new reference
+        m_publishedInputs = inputs;
+    }
+
+    // The cycle record goes last so the replay knows the cycle is complete
+    private void logInputs() {
+        for (int i = 0; i < m_moduleIOs.length; i++) {
+            m_moduleLogValues[0] = i;
+            m_moduleLogValues[1] = m_inputs.drivePositionMeters[i];
+            m_moduleLogValues[2] = m_inputs.driveVelocityMetersPerSec[i];
+            m_moduleLogValues[3] = m_inputs.angleDegrees[i];
+            m_moduleLogValues[4] = m_inputs.canCoderDegrees[i];
+            m_logger.log(m_moduleInputsLogType, m_moduleLogValues, m_moduleLogValues.length);
+        }
+
+        m_cycleLogValues[0] = m_inputs.timestampSeconds;
+        m_cycleLogValues[1] = m_inputs.gyroYawDegrees;
+        m_cycleLogValues[2] = m_inputs.gyroYawRateDegreesPerSec;
+        m_cycleLogValues[3] = m_inputs.tagId;
+        m_cycleLogValues[4] = m_inputs.tagTX;
+        m_cycleLogValues[5] = m_inputs.tagTZ;
+        m_cycleLogValues[6] = m_inputs.tagPitch;
+        m_logger.log(m_cycleInputsLogType, m_cycleLogValues, m_cycleLogValues.length);
+    }
+}
@@ -0,0 +1,51 @@
+package frc.robot.io;
+
+import frc.robot.Constants;
+
+/**
+ * Every sensor value the robot code reads in one cycle. {@link RobotIO} fills
+ * this in once at the start of the cycle and subsystems read from it instead
+ * of going to the hardware, so the same cycle can be logged and replayed.
+ *
+ * <p>
+ * The IO implementations fill in a working copy that only the main loop
+ * touches. Everything else reads the copy {@link RobotIO#getInputs()}
+ * publishes at the end of each read. Copies are preallocated and reused, but
+ * a copy isn't rewritten until a cycle after it was replaced, so other
+ * threads (like the docking thread) that read it straight away see one whole
+ * cycle.
+ */
+public class RobotInputs {
+    public static final int MODULE_COUNT = 4;
+
+    public double timestampSeconds;
+
+    // Indexed by module number
+    public final double[] drivePositionMeters = new double[MODULE_COUNT];
+    public final double[] driveVelocityMetersPerSec = new double[MODULE_COUNT];
+    public final double[] angleDegrees = new double[MODULE_COUNT];
+    public final double[] canCoderDegrees = new double[MODULE_COUNT];
+
+    // Raw gyro readings, before Constants.Swerve.invertGyro is applied
+    public double gyroYawDegrees;
+    public double gyroYawRateDegreesPerSec;
+
+    public double tagId = Constants.BAD_APRIL_TAG_ID;
+    public double tagTX = Constants.BAD_APRIL_TAG_ID;
+    public double tagTZ = Constants.BAD_APRIL_TAG_ID;
+    public double tagPitch = Constants.BAD_APRIL_TAG_ID;
+
+    public void copyFrom(RobotInputs other) {
+        timestampSeconds = other.timestampSeconds;
+        System.arraycopy(other.drivePositionMeters, 0, drivePositionMeters, 0, MODULE_COUNT);
+        System.arraycopy(other.driveVelocityMetersPerSec, 0, driveVelocityMetersPerSec, 0, MODULE_COUNT);
+        System.arraycopy(other.angleDegrees, 0, angleDegrees, 0, MODULE_COUNT);
+        System.arraycopy(other.canCoderDegrees, 0, canCoderDegrees, 0, MODULE_COUNT);
+        gyroYawDegrees = other.gyroYawDegrees;
+        gyroYawRateDegreesPerSec = other.gyroYawRateDegreesPerSec;
+        tagId = other.tagId;
+        tagTX = other.tagTX;
+        tagTZ = other.tagTZ;
+        tagPitch = other.tagPitch;
+    }
+}
@@ -0,0 +1,81 @@
+package frc.robot.io;
+
+/**
+ * How often the swerve Talons, CANcoders and Pigeon send the status frames
+ * the code reads. Every other frame is slowed to the slowest rate the
+ * devices allow, since nothing reads them.
+ *
+ * <p>
+ * Frames the code reads:
+ * <ul>
+ * <li>Talon Status_2_Feedback0: selected sensor position and velocity</li>
+ * <li>CANcoder SensorData: absolute position, used to re-seed the angle
+ * motors while disabled</li>
+ * <li>Pigeon CondStatus_9_SixDeg_YPR: yaw</li>
+ * <li>Pigeon BiasedStatus_2_Gyro: yaw rate</li>
+ * </ul>
+ */
+public enum StatusFrameProfile {
+    // Teleop, everything at the 50 Hz loop rate
+    MATCH(20, 20, 100, 20, 20),
+    // Autonomous, odometry inputs twice as often so no cycle sees stale values
+    ODOMETRY_HIGH_RATE(10, 10, 100, 10, 10),
+    // Only the CANcoders matter, the angle motors are re-seeded from them every cycle
+    DISABLED(100, 100, 20, 100, 100);
+
+    // Frames that still matter a little: faults, applied output and the
+    // Pigeon's general status
+    public static final int GENERAL_PERIOD_MS = 100;
+    // The slowest period the devices accept
+    public static final int UNUSED_PERIOD_MS = 255;
+
+    // Extended CAN frame with 8 data bytes, plus some bit stuffing
+    private static final double BITS_PER_FRAME = 135.0;
+    private static final double BUS_BITS_PER_SECOND = 1.0e6;
+    // The roboRIO sends each Talon a control frame every 10 ms no matter what
+    private static final double TALON_CONTROL_FRAMES_PER_SECOND = 100.0;
+    // Talon frames not set explicitly: Status_4, 10, 12, 13, 14, 21 and Brushless_Current
+    private static final int TALON_UNUSED_FRAMES = 7;
+    // CANcoder VbatAndFaults
+    private static final int CANCODER_UNUSED_FRAMES = 1;
+    // Pigeon frames other than general, YPR and gyro
+    private static final int PIGEON_UNUSED_FRAMES = 8;
+
+    public final int driveFeedbackPeriodMs;
+    public final int angleFeedbackPeriodMs;
+    public final int canCoderSensorPeriodMs;
+    public final int pigeonYawPeriodMs;
+    public final int pigeonGyroPeriodMs;
+
+    StatusFrameProfile(int driveFeedbackPeriodMs, int angleFeedbackPeriodMs, int canCoderSensorPeriodMs,
+            int pigeonYawPeriodMs, int pigeonGyroPeriodMs) {
+        this.driveFeedbackPeriodMs = driveFeedbackPeriodMs;
+        this.angleFeedbackPeriodMs = angleFeedbackPeriodMs;
+        this.canCoderSensorPeriodMs = canCoderSensorPeriodMs;
+        this.pigeonYawPeriodMs = pigeonYawPeriodMs;
+        this.pigeonGyroPeriodMs = pigeonGyroPeriodMs;
+    }
+
+    /**
+     * Rough fraction of a 1 Mbit/s CAN bus used by the swerve devices with
+     * this profile, counting every status frame plus the Talon control
+     * frames. Other devices on the bus aren't included.
+     *
+     * @param moduleCount Number of swerve modules, each with two Talons and a CANcoder
+     */
+    public double estimateBusUtilization(int moduleCount) {
+        double unused = 1000.0 / UNUSED_PERIOD_MS;
+        double general = 1000.0 / GENERAL_PERIOD_MS;
+
+        double driveTalon = TALON_CONTROL_FRAMES_PER_SECOND + general + 1000.0 / driveFeedbackPeriodMs
+                + TALON_UNUSED_FRAMES * unused;
+        double angleTalon = TALON_CONTROL_FRAMES_PER_SECOND + general + 1000.0 / angleFeedbackPeriodMs
+                + TALON_UNUSED_FRAMES * unused;
+        double canCoder = 1000.0 / canCoderSensorPeriodMs + CANCODER_UNUSED_FRAMES * unused;
+        double pigeon = general + 1000.0 / pigeonYawPeriodMs + 1000.0 / pigeonGyroPeriodMs
+                + PIGEON_UNUSED_FRAMES * unused;
+
+        double framesPerSecond = moduleCount * (driveTalon + angleTalon + canCoder) + pigeon;
+        return framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    }
+}
@@ -0,0 +1,87 @@
+package frc.robot.io;
+
+import java.util.List;
+
+import frc.lib.util.WriteCoalescer;
+
+/**
+ * Hardware access for one swerve module. Implementations convert to and from
+ * meters and degrees so SwerveModule never deals in motor units.
+ */
+public interface SwerveModuleIO {
+    /**
+     * The slot 0 closed loop gains.
+     */
+    enum Gain {
+        kP, kI, kD, kF
+    }
+
+    /**
+     * Reads this module's sensors into the given slot of the inputs.
+     */
+    void updateInputs(RobotInputs inputs, int moduleNumber);
+
+    default void setDrivePercent(double percentOutput) {
+    }
+
+    /**
+     * @param feedforwardPercent Added to the closed loop output, in percent
+     */
+    default void setDriveVelocity(double metersPerSecond, double feedforwardPercent) {
+    }
+
+    default void setAngle(double degrees) {
+    }
+
+    /**
+     * Re-seeds the angle motor's integrated encoder, e.g. from the absolute
+     * encoder.
+     */
+    default void setAngleEncoder(double degrees) {
+    }
+
+    default void setBrakeMode(boolean brake) {
+    }
+
+    /**
+     * Sets one slot 0 gain on the drive motor. This waits on the CAN bus, so
+     * don't call it from the main loop.
+     *
+     * @return true if the motor controller took the new value
+     */
+    default boolean configDriveGain(Gain gain, double value, int timeoutMs) {
+        return true;
+    }
+
+    /**
+     * Sets one slot 0 gain on the angle motor. This waits on the CAN bus, so
+     * don't call it from the main loop.
+     *
+     * @return true if the motor controller took the new value
+     */
+    default boolean configAngleGain(Gain gain, double value, int timeoutMs) {
+        return true;
+    }
+
+    /**
+     * @return The filters deciding which motor commands actually get sent,
+     *         for reporting how many were skipped
+     */
+    default List<WriteCoalescer> getWriteCoalescers() {
+        return List.of();
+    }
+
+    /**
+     * Sets how often this module's devices send the status frames the code
+     * reads, and slows down the rest.
+     */
+    default void setStatusFrameProfile(StatusFrameProfile profile) {
+    }
+
+    /**
+     * Sets the profile again on any device that has reset since it was last
+     * set, e.g. after a brownout.
+     */
+    default void checkStatusFrameProfile() {
+    }
+}
@@ -0,0 +1,263 @@
+package frc.robot.io;
+
+import java.util.List;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.ctre.phoenix.sensors.CANCoder;
+import com.ctre.phoenix.sensors.CANCoderStatusFrame;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.math.Conversions;
+import frc.lib.util.SwerveModuleConstants;
+import frc.lib.util.WriteCoalescer;
+import frc.robot.Constants;
+import frc.robot.Robot;
+
+/**
+ * A swerve module with Falcon 500 drive and angle motors and a CANcoder.
+ */
+public class SwerveModuleIOFalcon implements SwerveModuleIO {
+    private final TalonFX m_angleMotor;
+    private final TalonFX m_driveMotor;
+    private final CANCoder m_angleEncoder;
+    private final Rotation2d m_angleOffset;
+
+    // Skip API calls for commands that match the last one sent, mostly the
+    // held angle while stopped and the docking thread's repeated setpoints.
+    // Phoenix sends the control frame every 10 ms regardless, so this saves
+    // JNI calls, not CAN traffic. The main loop and the docking thread both
+    // write, so each send happens under its coalescer's lock.
+    private final WriteCoalescer m_driveWrites;
+    private final WriteCoalescer m_angleWrites;
+    private final double m_driveToleranceNative = Conversions.MPSToFalcon(
+            Constants.Swerve.driveWriteToleranceMPS, Constants.Swerve.wheelCircumference,
+            Constants.Swerve.driveGearRatio);
+    private final double m_angleToleranceNative = Conversions.degreesToFalcon(
+            Constants.Swerve.angleWriteToleranceDegrees, Constants.Swerve.angleGearRatio);
+
+    public double CANcoderInitTime = 0.0;
+
+    private StatusFrameProfile m_statusFrameProfile = null;
+
+    // Every status frame a Talon FX sends that the code doesn't read
+    private static final StatusFrameEnhanced[] UNUSED_TALON_FRAMES = new StatusFrameEnhanced[] {
+            StatusFrameEnhanced.Status_4_AinTempVbat,
+            StatusFrameEnhanced.Status_10_Targets,
+            StatusFrameEnhanced.Status_12_Feedback1,
+            StatusFrameEnhanced.Status_13_Base_PIDF0,
+            StatusFrameEnhanced.Status_14_Turn_PIDF1,
+            StatusFrameEnhanced.Status_21_FeedbackIntegrated,
+            StatusFrameEnhanced.Status_Brushless_Current
+    };
+
+    public SwerveModuleIOFalcon(int moduleNumber, SwerveModuleConstants moduleConstants) {
+        m_angleOffset = moduleConstants.angleOffset;
+        m_driveWrites = new WriteCoalescer("Mod " + moduleNumber + " Drive",
+                Constants.Swerve.motorWriteRefreshSeconds);
+        m_angleWrites = new WriteCoalescer("Mod " + moduleNumber + " Angle",
+                Constants.Swerve.motorWriteRefreshSeconds);
+
+        // Angle Encoder Config
+        m_angleEncoder = new CANCoder(moduleConstants.cancoderID);
+        configAngleEncoder();
+
+        // Angle Motor Config
+        m_angleMotor = new TalonFX(moduleConstants.angleMotorID);
+        configAngleMotor();
+
+        // Drive Motor Config
+        m_driveMotor = new TalonFX(moduleConstants.driveMotorID);
+        configDriveMotor();
+
+        DriverStation.reportError(
+                "CANcoder on Module " + moduleNumber + " took " + CANcoderInitTime + " ms to be ready.", false);
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs, int moduleNumber) {
+        inputs.drivePositionMeters[moduleNumber] = Conversions.falconToMeters(
+                m_driveMotor.getSelectedSensorPosition(), Constants.Swerve.wheelCircumference,
+                Constants.Swerve.driveGearRatio);
+        inputs.driveVelocityMetersPerSec[moduleNumber] = Conversions.falconToMPS(
+                m_driveMotor.getSelectedSensorVelocity(), Constants.Swerve.wheelCircumference,
+                Constants.Swerve.driveGearRatio);
+        inputs.angleDegrees[moduleNumber] = Conversions.falconToDegrees(m_angleMotor.getSelectedSensorPosition(),
+                Constants.Swerve.angleGearRatio);
+        inputs.canCoderDegrees[moduleNumber] = m_angleEncoder.getAbsolutePosition();
+    }
+
+    @Override
+    public void setDrivePercent(double percentOutput) {
+        synchronized (m_driveWrites) {
+            if (m_driveWrites.shouldWrite(ControlMode.PercentOutput.ordinal(), percentOutput,
+                    Constants.Swerve.percentWriteTolerance, 0.0, 0.0)) {
+                m_driveMotor.set(ControlMode.PercentOutput, percentOutput);
+            }
+        }
+    }
+
+    @Override
+    public void setDriveVelocity(double metersPerSecond, double feedforwardPercent) {
+        double velocity = Conversions.MPSToFalcon(metersPerSecond, Constants.Swerve.wheelCircumference,
+                Constants.Swerve.driveGearRatio);
+        synchronized (m_driveWrites) {
+            if (m_driveWrites.shouldWrite(ControlMode.Velocity.ordinal(), velocity, m_driveToleranceNative,
+                    feedforwardPercent, Constants.Swerve.percentWriteTolerance)) {
+                m_driveMotor.set(ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward,
+                        feedforwardPercent);
+            }
+        }
+    }
+
+    @Override
+    public void setAngle(double degrees) {
+        double position = Conversions.degreesToFalcon(degrees, Constants.Swerve.angleGearRatio);
+        synchronized (m_angleWrites) {
+            if (m_angleWrites.shouldWrite(ControlMode.Position.ordinal(), position, m_angleToleranceNative, 0.0,
+                    0.0)) {
+                m_angleMotor.set(ControlMode.Position, position);
+            }
+        }
+    }
+
+    @Override
+    public void setAngleEncoder(double degrees) {
+        synchronized (m_angleWrites) {
+            m_angleMotor.setSelectedSensorPosition(
+                    Conversions.degreesToFalcon(degrees, Constants.Swerve.angleGearRatio));
+            // The same position setpoint means something different now
+            m_angleWrites.invalidate();
+        }
+    }
+
+    @Override
+    public void setBrakeMode(boolean brake) {
+        NeutralMode neutralMode = brake ? NeutralMode.Brake : NeutralMode.Coast;
+        m_driveMotor.setNeutralMode(neutralMode);
+        m_angleMotor.setNeutralMode(neutralMode);
+    }
+
+    @Override
+    public boolean configDriveGain(Gain gain, double value, int timeoutMs) {
+        return configGain(m_driveMotor, gain, value, timeoutMs);
+    }
+
+    @Override
+    public boolean configAngleGain(Gain gain, double value, int timeoutMs) {
+        return configGain(m_angleMotor, gain, value, timeoutMs);
+    }
+
+    private static boolean configGain(TalonFX motor, Gain gain, double value, int timeoutMs) {
+        ErrorCode error;
+        switch (gain) {
+            case kP:
+                error = motor.config_kP(0, value, timeoutMs);
+                break;
+            case kI:
+                error = motor.config_kI(0, value, timeoutMs);
+                break;
+            case kD:
+                error = motor.config_kD(0, value, timeoutMs);
+                break;
+            default:
+                error = motor.config_kF(0, value, timeoutMs);
+                break;
+        }
+        return error == ErrorCode.OK;
+    }
+
+    @Override
+    public List<WriteCoalescer> getWriteCoalescers() {
+        return List.of(m_driveWrites, m_angleWrites);
+    }
+
+    // A timeout of 0 sends the settings without waiting for a reply, so this
+    // doesn't hold up the main loop on a mode change
+    @Override
+    public void setStatusFrameProfile(StatusFrameProfile profile) {
+        m_statusFrameProfile = profile;
+        setTalonStatusFrames(m_driveMotor, profile.driveFeedbackPeriodMs);
+        setTalonStatusFrames(m_angleMotor, profile.angleFeedbackPeriodMs);
+        m_angleEncoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData, profile.canCoderSensorPeriodMs, 0);
+        m_angleEncoder.setStatusFramePeriod(CANCoderStatusFrame.VbatAndFaults, StatusFrameProfile.UNUSED_PERIOD_MS,
+                0);
+    }
+
+    private static void setTalonStatusFrames(TalonFX motor, int feedbackPeriodMs) {
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, StatusFrameProfile.GENERAL_PERIOD_MS, 0);
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, feedbackPeriodMs, 0);
+        for (StatusFrameEnhanced frame : UNUSED_TALON_FRAMES) {
+            motor.setStatusFramePeriod(frame, StatusFrameProfile.UNUSED_PERIOD_MS, 0);
+        }
+    }
+
+    @Override
+    public void checkStatusFrameProfile() {
+        if (m_statusFrameProfile != null && (m_driveMotor.hasResetOccurred() || m_angleMotor.hasResetOccurred()
+                || m_angleEncoder.hasResetOccurred())) {
+            System.out.println("Swerve device reset, setting status frames again");
+            setStatusFrameProfile(m_statusFrameProfile);
+        }
+    }
+
+    public TalonFX getDriveMotor() {
+        return m_driveMotor;
+    }
+
+    public TalonFX getAngleMotor() {
+        return m_angleMotor;
+    }
+
+    public CANCoder getAngleEncoder() {
+        return m_angleEncoder;
+    }
+
+    private void waitForCanCoder() {
+        // Wait for up to 1000 ms for a good CANcoder signal.
+        // This prevents a race condition during program startup
+        // where we try to synchronize the Falcon encoder to the
+        // CANcoder before we have received any position signal
+        // from the CANcoder.
+        for (int i = 0; i < 100; ++i) {
+            m_angleEncoder.getAbsolutePosition();
+            if (m_angleEncoder.getLastError() == ErrorCode.OK) {
+                break;
+            }
+            Timer.delay(0.010);
+            CANcoderInitTime += 10;
+        }
+    }
+
+    private void resetToAbsolute() {
+        //waitForCanCoder();
+        setAngleEncoder(m_angleEncoder.getAbsolutePosition() - m_angleOffset.getDegrees());
+    }
+
+    private void configAngleEncoder() {
+        m_angleEncoder.configFactoryDefault();
+        m_angleEncoder.configAllSettings(Robot.ctreConfigs.swerveCanCoderConfig);
+    }
+
+    private void configAngleMotor() {
+        m_angleMotor.configFactoryDefault();
+        m_angleMotor.configAllSettings(Robot.ctreConfigs.swerveAngleFXConfig);
+        m_angleMotor.setInverted(Constants.Swerve.angleMotorInvert);
+        m_angleMotor.setNeutralMode(Constants.Swerve.angleNeutralMode);
+        resetToAbsolute();
+    }
+
+    private void configDriveMotor() {
+        m_driveMotor.configFactoryDefault();
+        m_driveMotor.configAllSettings(Robot.ctreConfigs.swerveDriveFXConfig);
+        m_driveMotor.setInverted(Constants.Swerve.driveMotorInvert);
+        m_driveMotor.setNeutralMode(Constants.Swerve.driveNeutralMode);
+        m_driveMotor.setSelectedSensorPosition(0);
+    }
+}
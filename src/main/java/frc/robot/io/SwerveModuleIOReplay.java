@@ -0,0 +1,21 @@
+package frc.robot.io;
+
+/**
+ * Plays back a module's logged sensor values. Motor commands go nowhere.
+ */
+public class SwerveModuleIOReplay implements SwerveModuleIO {
+    private final LogReplaySource m_source;
+
+    public SwerveModuleIOReplay(LogReplaySource source) {
+        m_source = source;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs, int moduleNumber) {
+        RobotInputs logged = m_source.getLoggedInputs();
+        inputs.drivePositionMeters[moduleNumber] = logged.drivePositionMeters[moduleNumber];
+        inputs.driveVelocityMetersPerSec[moduleNumber] = logged.driveVelocityMetersPerSec[moduleNumber];
+        inputs.angleDegrees[moduleNumber] = logged.angleDegrees[moduleNumber];
+        inputs.canCoderDegrees[moduleNumber] = logged.canCoderDegrees[moduleNumber];
+    }
+}
@@ -0,0 +1,141 @@
+package frc.robot.io;
+
+import frc.lib.math.Conversions;
+import frc.lib.sim.SwerveDrivePhysics;
+import frc.robot.Constants;
+
+/**
+ * One module of a {@link SwerveDrivePhysics} model with the Talon FX closed
+ * loops done in Java, for simulations that can't use the Phoenix sim
+ * collections (those are one set of devices per process). The loops use the
+ * same slot 0 gains and native units as CTREConfigs gives the real Talons.
+ * Only P and F are emulated; the I and D gains are accepted but ignored.
+ *
+ * <p>
+ * {@link #updateControl()} should run every physics substep, like the
+ * Talon's own 1 kHz loop.
+ */
+public class SwerveModuleIOSim implements SwerveModuleIO {
+    private static final double TALON_FULL_OUTPUT = 1023.0;
+
+    private enum DriveMode {
+        PERCENT, VELOCITY
+    }
+
+    private final SwerveDrivePhysics m_physics;
+    private final int m_module;
+    private final double m_angleOffsetDegrees;
+
+    private DriveMode m_driveMode = DriveMode.PERCENT;
+    private double m_drivePercent = 0.0;
+    private double m_driveTargetNative = 0.0;
+    private double m_driveFeedforwardPercent = 0.0;
+    private double m_angleTargetNative = 0.0;
+    private boolean m_angleEnabled = false;
+
+    // Written by configDriveGain() and configAngleGain() from the tuning thread
+    private volatile double m_driveKP = Constants.Swerve.driveKP;
+    private volatile double m_driveKF = Constants.Swerve.driveKF;
+    private volatile double m_angleKP = Constants.Swerve.angleKP;
+
+    // Set by setAngleEncoder(), like the Talon's selected sensor offset
+    private double m_angleEncoderOffsetNative = 0.0;
+
+    public SwerveModuleIOSim(SwerveDrivePhysics physics, int module, double angleOffsetDegrees) {
+        m_physics = physics;
+        m_module = module;
+        m_angleOffsetDegrees = angleOffsetDegrees;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs, int moduleNumber) {
+        inputs.drivePositionMeters[moduleNumber] = m_physics.getWheelPositionMeters(m_module);
+        inputs.driveVelocityMetersPerSec[moduleNumber] = m_physics.getWheelVelocityMetersPerSec(m_module);
+        inputs.angleDegrees[moduleNumber] = Conversions.falconToDegrees(getAngleNative(),
+                Constants.Swerve.angleGearRatio);
+        inputs.canCoderDegrees[moduleNumber] = Math.toDegrees(m_physics.getSteerRadians(m_module))
+                + m_angleOffsetDegrees;
+    }
+
+    /**
+     * Runs the emulated Talon loops and hands the physics this module's
+     * motor voltages.
+     */
+    public void updateControl() {
+        double drivePercent;
+        if (m_driveMode == DriveMode.VELOCITY) {
+            double velocityNative = Conversions.MPSToFalcon(m_physics.getWheelVelocityMetersPerSec(m_module),
+                    Constants.Swerve.wheelCircumference, Constants.Swerve.driveGearRatio);
+            drivePercent = (m_driveKP * (m_driveTargetNative - velocityNative)
+                    + m_driveKF * m_driveTargetNative) / TALON_FULL_OUTPUT
+                    + m_driveFeedforwardPercent;
+        } else {
+            drivePercent = m_drivePercent;
+        }
+
+        double anglePercent = 0.0;
+        if (m_angleEnabled) {
+            anglePercent = m_angleKP * (m_angleTargetNative - getAngleNative()) / TALON_FULL_OUTPUT;
+        }
+
+        m_physics.setDriveVoltage(m_module, clampPercent(drivePercent) * Constants.SimConstants.kBatteryVolts);
+        m_physics.setSteerVoltage(m_module, clampPercent(anglePercent) * Constants.SimConstants.kBatteryVolts);
+    }
+
+    @Override
+    public void setDrivePercent(double percentOutput) {
+        m_driveMode = DriveMode.PERCENT;
+        m_drivePercent = percentOutput;
+    }
+
+    @Override
+    public void setDriveVelocity(double metersPerSecond, double feedforwardPercent) {
+        m_driveMode = DriveMode.VELOCITY;
+        m_driveTargetNative = Conversions.MPSToFalcon(metersPerSecond, Constants.Swerve.wheelCircumference,
+                Constants.Swerve.driveGearRatio);
+        m_driveFeedforwardPercent = feedforwardPercent;
+    }
+
+    @Override
+    public void setAngle(double degrees) {
+        m_angleEnabled = true;
+        m_angleTargetNative = Conversions.degreesToFalcon(degrees, Constants.Swerve.angleGearRatio);
+    }
+
+    @Override
+    public void setAngleEncoder(double degrees) {
+        m_angleEncoderOffsetNative = Conversions.degreesToFalcon(degrees, Constants.Swerve.angleGearRatio)
+                - getRawAngleNative();
+    }
+
+    @Override
+    public boolean configDriveGain(Gain gain, double value, int timeoutMs) {
+        if (gain == Gain.kP) {
+            m_driveKP = value;
+        } else if (gain == Gain.kF) {
+            m_driveKF = value;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean configAngleGain(Gain gain, double value, int timeoutMs) {
+        if (gain == Gain.kP) {
+            m_angleKP = value;
+        }
+        return true;
+    }
+
+    private double getRawAngleNative() {
+        return Conversions.degreesToFalcon(Math.toDegrees(m_physics.getSteerRadians(m_module)),
+                Constants.Swerve.angleGearRatio);
+    }
+
+    private double getAngleNative() {
+        return getRawAngleNative() + m_angleEncoderOffsetNative;
+    }
+
+    private static double clampPercent(double percent) {
+        return Math.max(-1.0, Math.min(1.0, percent));
+    }
+}
@@ -0,0 +1,9 @@
+package frc.robot.io;
+
+/**
+ * The AprilTag detector's latest result. Every field reads
+ * Constants.BAD_APRIL_TAG_ID when there's no detection.
+ */
+public interface VisionIO {
+    void updateInputs(RobotInputs inputs);
+}
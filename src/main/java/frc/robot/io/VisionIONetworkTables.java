@@ -0,0 +1,32 @@
+package frc.robot.io;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants;
+
+/**
+ * Reads the detections the coprocessor publishes to the AprilTag table.
+ */
+public class VisionIONetworkTables implements VisionIO {
+    private final NetworkTableEntry m_pitchEntry;
+    private final NetworkTableEntry m_txEntry;
+    private final NetworkTableEntry m_tzEntry;
+    private final NetworkTableEntry m_tagIdEntry;
+
+    public VisionIONetworkTables() {
+        NetworkTable aprilTagTable = NetworkTableInstance.getDefault().getTable("AprilTag");
+        m_pitchEntry = aprilTagTable.getEntry("Pitch");
+        m_txEntry = aprilTagTable.getEntry("TX");
+        m_tzEntry = aprilTagTable.getEntry("TZ");
+        m_tagIdEntry = aprilTagTable.getEntry("Tag ID");
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        inputs.tagId = m_tagIdEntry.getDouble(Constants.BAD_APRIL_TAG_ID);
+        inputs.tagTX = m_txEntry.getDouble(Constants.BAD_APRIL_TAG_ID);
+        inputs.tagTZ = m_tzEntry.getDouble(Constants.BAD_APRIL_TAG_ID);
+        inputs.tagPitch = m_pitchEntry.getDouble(Constants.BAD_APRIL_TAG_ID);
+    }
+}
@@ -0,0 +1,18 @@
+package frc.robot.io;
+
+public class VisionIOReplay implements VisionIO {
+    private final LogReplaySource m_source;
+
+    public VisionIOReplay(LogReplaySource source) {
+        m_source = source;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        RobotInputs logged = m_source.getLoggedInputs();
+        inputs.tagId = logged.tagId;
+        inputs.tagTX = logged.tagTX;
+        inputs.tagTZ = logged.tagTZ;
+        inputs.tagPitch = logged.tagPitch;
+    }
+}
@@ -0,0 +1,52 @@
+package frc.robot.io;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+
+/**
+ * Pretends there's a forward facing camera on the robot and one tag on the
+ * field, and reports the tag the way the coprocessor would: TZ is the
+ * distance in front of the camera and TX is the offset to the right, both
+ * in meters.
+ */
+public class VisionIOSim implements VisionIO {
+    private final Supplier<Pose2d> m_robotPoseSupplier;
+
+    /**
+     * @param robotPoseSupplier Where the robot is. It may return null if that
+     *                          isn't known yet.
+     */
+    public VisionIOSim(Supplier<Pose2d> robotPoseSupplier) {
+        m_robotPoseSupplier = robotPoseSupplier;
+    }
+
+    @Override
+    public void updateInputs(RobotInputs inputs) {
+        inputs.tagId = Constants.BAD_APRIL_TAG_ID;
+        inputs.tagTX = Constants.BAD_APRIL_TAG_ID;
+        inputs.tagTZ = Constants.BAD_APRIL_TAG_ID;
+        inputs.tagPitch = Constants.BAD_APRIL_TAG_ID;
+
+        Pose2d robotPose = m_robotPoseSupplier.get();
+        if (robotPose == null) {
+            return;
+        }
+
+        Translation2d tagInRobot = Constants.SimConstants.kTagPose.getTranslation()
+                .minus(robotPose.getTranslation())
+                .rotateBy(robotPose.getRotation().unaryMinus());
+        double bearingRadians = Math.atan2(tagInRobot.getY(), tagInRobot.getX());
+
+        if (tagInRobot.getX() > 0.0
+                && Math.abs(bearingRadians) < Constants.SimConstants.kCameraHalfFovRadians
+                && tagInRobot.getNorm() < Constants.SimConstants.kCameraMaxRangeMeters) {
+            inputs.tagId = Constants.SimConstants.kTagId;
+            inputs.tagTX = -tagInRobot.getY();
+            inputs.tagTZ = tagInRobot.getX();
+            inputs.tagPitch = 0.0;
+        }
+    }
+}
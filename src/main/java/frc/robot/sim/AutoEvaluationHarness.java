@@ -0,0 +1,533 @@
+package frc.robot.sim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.lib.logging.BinaryLogger;
+import frc.lib.trajectory.TrajectoryCache;
+import frc.lib.util.CommandProfiler;
+import frc.robot.Constants;
+import frc.robot.Robot;
+import frc.robot.autos.AutoRoutines;
+import frc.robot.io.RobotIO;
+import frc.robot.subsystems.DrivebaseSubsystem;
+import frc.robot.subsystems.LEDStripSubsystem;
+
+/**
+ * Runs every autonomous routine and every deployed path headless, each in
+ * its own JVM so they can run in parallel and as fast as the CPU allows,
+ * then compares completion time, tracking error and control loop time
+ * against the baseline in {@value #BASELINE_FILE}.
+ *
+ * <p>
+ * Each process sets up what Robot.robotInit() does, with a
+ * {@link SimulatedDrivetrain} in place of the hardware, and schedules the
+ * routine's real command from {@link AutoRoutines} on the CommandScheduler.
+ * Robot time is paused and stepped 20 ms per cycle. The scheduler and the
+ * HAL are per process, which is why every routine gets its own. Tracking
+ * error comes from what each HolonomicPathFollowerCommand publishes under
+ * PathTracking; ExampleAuto uses SwerveControllerCommand, which doesn't
+ * publish any, so it only has completion and loop times.
+ *
+ * <p>
+ * Run with {@code ./gradlew evaluateAutos}, or
+ * {@code ./gradlew evaluateAutos -PupdateBaseline} to save the results as
+ * the new baseline. Without any baseline results the run only reports;
+ * once there is a baseline, a routine missing from it fails.
+ */
+public final class AutoEvaluationHarness {
+    private static final double LOOP_PERIOD_SECONDS = 0.02;
+    private static final String BASELINE_FILE = "sim/auto_baseline.csv";
+    private static final String RESULTS_FILE = "build/autoEvaluation/results.csv";
+    private static final String CSV_HEADER = "routine,plannedSeconds,completionSeconds,rmsCrossTrackMeters,"
+            + "maxCrossTrackMeters,rmsHeadingDegrees,finalErrorMeters,odometryDriftMeters,slipCycles,"
+            + "loopMeanMicros,loopP99Micros,loopMaxMicros,simulatedSeconds";
+    private static final int CSV_FIELDS = 13;
+
+    // Tells a child process which routine to run, and marks its result line
+    private static final String ROUTINE_ARG = "--routine";
+    private static final String RESULT_PREFIX = "RESULT,";
+
+    // Compared against each other after every run
+    private static final String CHAINED_ROUTINE = "Straight There And Back";
+    private static final String SEQUENTIAL_ROUTINE = "Straight There And Back (sequential)";
+
+    // A routine still running after this much robot time is cancelled
+    private static final double ROUTINE_TIMEOUT_SECONDS = 30.0;
+
+    // How much worse than the baseline counts as a regression. Loop times are
+    // reported but never fail the comparison since they depend on the machine.
+    private static final double COMPLETION_TOLERANCE_SECONDS = 0.05;
+    private static final double CROSS_TRACK_TOLERANCE_RATIO = 1.10;
+    private static final double CROSS_TRACK_TOLERANCE_METERS = 0.005;
+    private static final double FINAL_ERROR_TOLERANCE_METERS = 0.02;
+
+    private AutoEvaluationHarness() {
+    }
+
+    public static void main(String... args) throws Exception {
+        if (args.length >= 2 && args[0].equals(ROUTINE_ARG)) {
+            Result result = new HeadlessRobot().run(args[1]);
+            System.out.println(RESULT_PREFIX + toCsvLine(result));
+            // NetworkTables and the HAL leave threads running
+            System.exit(0);
+        }
+
+        boolean updateBaseline = Arrays.asList(args).contains("--update-baseline");
+        List<String> routines = new ArrayList<>(new HeadlessRobot().getRoutineNames());
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long startNanos = System.nanoTime();
+
+        List<Future<Result>> futures = new ArrayList<>();
+        for (String routine : routines) {
+            futures.add(executor.submit(() -> runInChildProcess(routine)));
+        }
+        List<Result> results = new ArrayList<>();
+        for (Future<Result> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Evaluation failed", e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        double wallSeconds = (System.nanoTime() - startNanos) / 1.0e9;
+        double simulatedSeconds = results.stream().mapToDouble(result -> result.m_simulatedSeconds).sum();
+        System.out.printf("Evaluated %d routines on %d threads: %.1f s simulated in %.2f s (%.0fx real time)\n\n",
+                results.size(), threads, simulatedSeconds, wallSeconds, simulatedSeconds / wallSeconds);
+
+        File baselineFile = new File(BASELINE_FILE);
+        if (updateBaseline) {
+            writeCsv(baselineFile, results);
+            printResults(results, Map.of());
+            printChainComparison(results);
+            System.out.println("\nSaved baseline to " + baselineFile);
+            System.exit(0);
+        }
+
+        writeCsv(new File(RESULTS_FILE), results);
+        Map<String, Result> baseline = baselineFile.exists() ? readCsv(baselineFile) : Map.of();
+        if (baseline.isEmpty()) {
+            // Nothing to regress against yet, so report without failing
+            printResults(results, baseline);
+            printChainComparison(results);
+            System.out.println("\nNo baseline results in " + baselineFile
+                    + ", run with -PupdateBaseline to record them");
+            System.exit(0);
+        }
+
+        boolean regressed = printResults(results, baseline);
+        printChainComparison(results);
+        System.exit(regressed ? 1 : 0);
+    }
+
+    // Runs this class again for one routine and reads back its result line
+    private static Result runInChildProcess(String routine) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                AutoEvaluationHarness.class.getName(), ROUTINE_ARG, routine)
+                .redirectErrorStream(true)
+                .start();
+
+        Result result = null;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = parseCsvLine(line.substring(RESULT_PREFIX.length()));
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || result == null) {
+            throw new IllegalStateException("Routine " + routine + " exited with " + exitCode + ":\n" + output);
+        }
+        return result;
+    }
+
+    /**
+     * What Robot.robotInit() sets up for autonomous, on a simulated
+     * drivetrain. Only one can exist per process.
+     */
+    private static final class HeadlessRobot {
+        private final SimulatedDrivetrain m_drivetrain = new SimulatedDrivetrain();
+        private final RobotIO m_io;
+        private final DrivebaseSubsystem m_drivebase;
+        private final Map<String, Supplier<Command>> m_routines = new LinkedHashMap<>();
+
+        HeadlessRobot() {
+            // PathPlanner finds the deploy directory through the HAL
+            if (!HAL.initialize(500, 0)) {
+                throw new IllegalStateException("Failed to initialize the HAL");
+            }
+            // Robot time only moves when run() steps it
+            SimHooks.pauseTiming();
+
+            // A file size limit of 0 means nothing is written
+            Robot.dataLogger = new BinaryLogger(new File("build/autoEvaluation/unused.ctlog"),
+                    Constants.LoggingConstants.kRingBufferCapacity, 0);
+            Robot.commandProfiler = new CommandProfiler(Shuffleboard.getTab("Profiling")
+                    .add("Command Profiler", false)
+                    .getEntry());
+            Robot.trajectoryCache = new TrajectoryCache();
+            File pathDirectory = new File("src/main/deploy/pathplanner");
+            Robot.trajectoryCache.preload(pathDirectory, List.of(Constants.AutoConstants.kDefaultPathConstraints));
+            Robot.trajectoryCache.awaitPreload();
+
+            m_io = RobotIO.createHeadlessSim(m_drivetrain, Robot.dataLogger);
+            m_drivebase = new DrivebaseSubsystem(m_io, Robot.dataLogger);
+            AutoRoutines autoRoutines = new AutoRoutines(m_drivebase, new LEDStripSubsystem());
+
+            m_routines.putAll(autoRoutines.getRoutines());
+            // The way Straight There And Back ran before the two paths were chained
+            m_routines.put(SEQUENTIAL_ROUTINE, () -> new SequentialCommandGroup(
+                    autoRoutines.buildPath("NewStraight", true),
+                    autoRoutines.buildPath("NewStraightBack", true)));
+
+            // Every deployed path on its own
+            File[] pathFiles = pathDirectory.listFiles((dir, name) -> name.endsWith(".path"));
+            if (pathFiles != null) {
+                Arrays.sort(pathFiles);
+                for (File pathFile : pathFiles) {
+                    String pathName = pathFile.getName().replace(".path", "");
+                    m_routines.putIfAbsent(pathName, () -> autoRoutines.buildSinglePath(pathName));
+                }
+            }
+        }
+
+        List<String> getRoutineNames() {
+            return new ArrayList<>(m_routines.keySet());
+        }
+
+        Result run(String routineName) {
+            Supplier<Command> factory = m_routines.get(routineName);
+            if (factory == null) {
+                throw new IllegalArgumentException("No routine named " + routineName);
+            }
+            Command routine = factory.get();
+
+            DriverStationSim.setDsAttached(true);
+            DriverStationSim.setAutonomous(true);
+            DriverStationSim.setEnabled(true);
+            DriverStationSim.notifyNewData();
+            DriverStation.refreshData();
+
+            CommandScheduler scheduler = CommandScheduler.getInstance();
+            scheduler.schedule(routine);
+
+            LoopTimer loopTimer = new LoopTimer();
+            int slipCycles = 0;
+            double time = 0.0;
+            boolean finished = false;
+            // Where odometry and the physics each put the robot once the
+            // routine has reset odometry, which every routine does first
+            Pose2d odometryStart = null;
+            Pose2d physicsStart = null;
+
+            while (time < ROUTINE_TIMEOUT_SECONDS) {
+                long startNanos = System.nanoTime();
+                m_io.update();
+                scheduler.run();
+                loopTimer.add(System.nanoTime() - startNanos);
+
+                if (odometryStart == null) {
+                    odometryStart = m_drivebase.getPose();
+                    physicsStart = m_drivetrain.getTruePose();
+                }
+                if (!scheduler.isScheduled(routine)) {
+                    finished = true;
+                    break;
+                }
+
+                m_drivetrain.step(LOOP_PERIOD_SECONDS);
+                SimHooks.stepTiming(LOOP_PERIOD_SECONDS);
+                slipCycles += m_drivetrain.getSlippingModuleCount() > 0 ? 1 : 0;
+                time += LOOP_PERIOD_SECONDS;
+            }
+            scheduler.cancelAll();
+
+            // The physics starts at the origin, so move it to where odometry started
+            Pose2d truePose = odometryStart.transformBy(new Transform2d(physicsStart, m_drivetrain.getTruePose()));
+
+            Result result = new Result(routineName);
+            result.m_completionSeconds = finished ? time : Double.NaN;
+            result.m_odometryDriftMeters = truePose.getTranslation()
+                    .getDistance(m_drivebase.getPose().getTranslation());
+            result.m_slipCycles = slipCycles;
+            result.m_simulatedSeconds = m_drivetrain.getElapsedSeconds();
+            readPathTracking(result);
+
+            result.m_loopMeanMicros = loopTimer.getMeanMicros();
+            result.m_loopP99Micros = loopTimer.getPercentileMicros(0.99);
+            result.m_loopMaxMicros = loopTimer.getMaxMicros();
+            return result;
+        }
+
+        // Combines what every path follower in the routine published, weighting
+        // each by how many samples it has. The final error is the worst one.
+        private static void readPathTracking(Result result) {
+            NetworkTable tracking = NetworkTableInstance.getDefault().getTable("PathTracking");
+            double crossTrackSquares = 0.0;
+            double headingSquares = 0.0;
+            double samples = 0.0;
+            for (String path : tracking.getSubTables()) {
+                NetworkTable table = tracking.getSubTable(path);
+                double count = table.getEntry("Samples").getDouble(0.0);
+                double rmsCrossTrack = table.getEntry("RMS Cross Track m").getDouble(0.0);
+                double rmsHeading = Math.toRadians(table.getEntry("RMS Heading deg").getDouble(0.0));
+
+                crossTrackSquares += rmsCrossTrack * rmsCrossTrack * count;
+                headingSquares += rmsHeading * rmsHeading * count;
+                samples += count;
+                result.m_plannedSeconds = nanToZero(result.m_plannedSeconds)
+                        + table.getEntry("Planned s").getDouble(0.0);
+                result.m_maxCrossTrackMeters = Math.max(nanToZero(result.m_maxCrossTrackMeters),
+                        table.getEntry("Max Cross Track m").getDouble(0.0));
+                result.m_finalErrorMeters = Math.max(nanToZero(result.m_finalErrorMeters),
+                        table.getEntry("Final Error m").getDouble(0.0));
+            }
+
+            if (samples > 0.0) {
+                result.m_rmsCrossTrackMeters = Math.sqrt(crossTrackSquares / samples);
+                result.m_rmsHeadingDegrees = Math.toDegrees(Math.sqrt(headingSquares / samples));
+            }
+        }
+
+        private static double nanToZero(double value) {
+            return Double.isNaN(value) ? 0.0 : value;
+        }
+    }
+
+    /**
+     * @return true if anything regressed against the baseline, or is missing from it
+     */
+    private static boolean printResults(List<Result> results, Map<String, Result> baseline) {
+        boolean regressed = false;
+
+        System.out.printf("%-36s %8s %14s %16s %13s %14s %8s %18s\n",
+                "Routine", "Planned", "Completion s", "Cross track RMS", "Heading RMS", "Final error m",
+                "Slip", "Loop us mean/p99");
+        for (Result result : results) {
+            Result base = baseline.get(result.m_name);
+            List<String> regressions = new ArrayList<>();
+
+            if (base == null) {
+                // Nothing to compare against when there's no baseline at all
+                if (!baseline.isEmpty()) {
+                    regressions.add("not in baseline");
+                }
+            } else {
+                if (result.getCompletionOrTimeout() > base.getCompletionOrTimeout() + COMPLETION_TOLERANCE_SECONDS) {
+                    regressions.add("completion");
+                }
+                if (result.m_rmsCrossTrackMeters > base.m_rmsCrossTrackMeters * CROSS_TRACK_TOLERANCE_RATIO
+                        + CROSS_TRACK_TOLERANCE_METERS) {
+                    regressions.add("tracking");
+                }
+                if (result.m_finalErrorMeters > base.m_finalErrorMeters + FINAL_ERROR_TOLERANCE_METERS) {
+                    regressions.add("final error");
+                }
+            }
+            regressed |= !regressions.isEmpty();
+
+            System.out.printf("%-36s %8.2f %14s %16s %13s %14s %8d %8.1f/%-9.1f%s\n",
+                    result.m_name, result.m_plannedSeconds,
+                    compare(result.getCompletionOrTimeout(), base == null ? null : base.getCompletionOrTimeout(),
+                            "%.2f"),
+                    compare(result.m_rmsCrossTrackMeters, base == null ? null : base.m_rmsCrossTrackMeters, "%.3f"),
+                    compare(result.m_rmsHeadingDegrees, base == null ? null : base.m_rmsHeadingDegrees, "%.1f"),
+                    compare(result.m_finalErrorMeters, base == null ? null : base.m_finalErrorMeters, "%.3f"),
+                    result.m_slipCycles, result.m_loopMeanMicros, result.m_loopP99Micros,
+                    (Double.isNaN(result.m_completionSeconds) ? "  DID NOT FINISH" : "")
+                            + (regressions.isEmpty() ? "" : "  REGRESSED: " + String.join(", ", regressions)));
+        }
+
+        return regressed;
+    }
+
+    private static void printChainComparison(List<Result> results) {
+        Result chained = null;
+        Result sequential = null;
+        for (Result result : results) {
+            if (result.m_name.equals(CHAINED_ROUTINE)) {
+                chained = result;
+            } else if (result.m_name.equals(SEQUENTIAL_ROUTINE)) {
+                sequential = result;
+            }
+        }
+        if (chained == null || sequential == null) {
+            return;
+        }
+
+        System.out.printf("\nChained vs sequential: planned %.2f s vs %.2f s, "
+                + "completed in %.2f s vs %.2f s (%+.2f s)\n",
+                chained.m_plannedSeconds, sequential.m_plannedSeconds, chained.getCompletionOrTimeout(),
+                sequential.getCompletionOrTimeout(),
+                chained.getCompletionOrTimeout() - sequential.getCompletionOrTimeout());
+    }
+
+    private static String compare(double value, Double baseValue, String format) {
+        String text = String.format(format, value);
+        if (baseValue == null) {
+            return text;
+        }
+        return text + " (" + String.format("%+" + format.substring(1), value - baseValue) + ")";
+    }
+
+    private static void writeCsv(File file, List<Result> results) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.println(CSV_HEADER);
+            for (Result result : results) {
+                writer.println(toCsvLine(result));
+            }
+        }
+    }
+
+    private static String toCsvLine(Result result) {
+        return String.format("%s,%.4f,%.4f,%.5f,%.5f,%.4f,%.5f,%.5f,%d,%.2f,%.2f,%.2f,%.2f",
+                result.m_name, result.m_plannedSeconds, result.m_completionSeconds,
+                result.m_rmsCrossTrackMeters, result.m_maxCrossTrackMeters, result.m_rmsHeadingDegrees,
+                result.m_finalErrorMeters, result.m_odometryDriftMeters, result.m_slipCycles,
+                result.m_loopMeanMicros, result.m_loopP99Micros, result.m_loopMaxMicros,
+                result.m_simulatedSeconds);
+    }
+
+    private static Map<String, Result> readCsv(File file) throws IOException {
+        Map<String, Result> results = new HashMap<>();
+        List<String> lines = Files.readAllLines(file.toPath());
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            Result result = parseCsvLine(line);
+            if (result != null) {
+                results.put(result.m_name, result);
+            }
+        }
+        return results;
+    }
+
+    // Null if the line doesn't have every field
+    private static Result parseCsvLine(String line) {
+        String[] fields = line.split(",");
+        if (fields.length < CSV_FIELDS) {
+            return null;
+        }
+        Result result = new Result(fields[0]);
+        result.m_plannedSeconds = Double.parseDouble(fields[1]);
+        result.m_completionSeconds = Double.parseDouble(fields[2]);
+        result.m_rmsCrossTrackMeters = Double.parseDouble(fields[3]);
+        result.m_maxCrossTrackMeters = Double.parseDouble(fields[4]);
+        result.m_rmsHeadingDegrees = Double.parseDouble(fields[5]);
+        result.m_finalErrorMeters = Double.parseDouble(fields[6]);
+        result.m_odometryDriftMeters = Double.parseDouble(fields[7]);
+        result.m_slipCycles = Integer.parseInt(fields[8]);
+        result.m_loopMeanMicros = Double.parseDouble(fields[9]);
+        result.m_loopP99Micros = Double.parseDouble(fields[10]);
+        result.m_loopMaxMicros = Double.parseDouble(fields[11]);
+        result.m_simulatedSeconds = Double.parseDouble(fields[12]);
+        return result;
+    }
+
+    private static final class Result {
+        private final String m_name;
+        // The tracking numbers are NaN for routines with no path follower
+        private double m_plannedSeconds = Double.NaN;
+        // NaN if the routine didn't finish before the timeout
+        private double m_completionSeconds;
+        private double m_rmsCrossTrackMeters = Double.NaN;
+        private double m_maxCrossTrackMeters = Double.NaN;
+        private double m_rmsHeadingDegrees = Double.NaN;
+        private double m_finalErrorMeters = Double.NaN;
+        private double m_odometryDriftMeters;
+        private int m_slipCycles;
+        private double m_loopMeanMicros;
+        private double m_loopP99Micros;
+        private double m_loopMaxMicros;
+        private double m_simulatedSeconds;
+
+        Result(String name) {
+            m_name = name;
+        }
+
+        double getCompletionOrTimeout() {
+            return Double.isNaN(m_completionSeconds) ? ROUTINE_TIMEOUT_SECONDS : m_completionSeconds;
+        }
+    }
+
+    // Robot code time per cycle, not counting the physics
+    private static final class LoopTimer {
+        private long[] m_nanos = new long[1024];
+        private int m_count = 0;
+
+        void add(long nanos) {
+            if (m_count == m_nanos.length) {
+                m_nanos = Arrays.copyOf(m_nanos, m_count * 2);
+            }
+            m_nanos[m_count++] = nanos;
+        }
+
+        double getMeanMicros() {
+            long total = 0;
+            for (int i = 0; i < m_count; i++) {
+                total += m_nanos[i];
+            }
+            return m_count == 0 ? 0.0 : total / 1000.0 / m_count;
+        }
+
+        double getPercentileMicros(double percentile) {
+            if (m_count == 0) {
+                return 0.0;
+            }
+            long[] sorted = Arrays.copyOf(m_nanos, m_count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(m_count - 1, (int) Math.ceil(percentile * m_count) - 1)] / 1000.0;
+        }
+
+        double getMaxMicros() {
+            long max = 0;
+            for (int i = 0; i < m_count; i++) {
+                max = Math.max(max, m_nanos[i]);
+            }
+            return max / 1000.0;
+        }
+    }
+}
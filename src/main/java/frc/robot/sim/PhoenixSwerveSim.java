@@ -0,0 +1,122 @@
+package frc.robot.sim;
+
+import com.ctre.phoenix.motorcontrol.TalonFXSimCollection;
+import com.ctre.phoenix.sensors.BasePigeonSimCollection;
+import com.ctre.phoenix.sensors.CANCoderSimCollection;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.util.Units;
+import frc.lib.sim.SwerveDrivePhysics;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+import frc.robot.io.GyroIOPigeon;
+import frc.robot.io.SwerveModuleIOFalcon;
+
+/**
+ * Runs the real TalonFX, CANcoder and Pigeon code against
+ * {@link SwerveDrivePhysics} in desktop simulation. Each step it reads the
+ * voltage the simulated Talons' firmware is applying, steps the physics, and
+ * writes the resulting encoder and gyro readings back through the Phoenix
+ * sim collections, so the Talons run their own closed loops just like on the
+ * robot.
+ */
+public class PhoenixSwerveSim {
+    private static final double FALCON_COUNTS_PER_REV = 2048.0;
+    private static final double CANCODER_COUNTS_PER_REV = 4096.0;
+
+    private final SwerveDrivePhysics m_physics;
+    private final TalonFXSimCollection[] m_driveSims;
+    private final TalonFXSimCollection[] m_angleSims;
+    private final CANCoderSimCollection[] m_canCoderSims;
+    private final double[] m_angleOffsetDegrees;
+    private final BasePigeonSimCollection m_pigeonSim;
+
+    // Sim collections work in the motor's own direction, the physics in the mechanism's
+    private final double m_driveSign = Constants.Swerve.driveMotorInvert ? -1.0 : 1.0;
+    private final double m_angleSign = Constants.Swerve.angleMotorInvert ? -1.0 : 1.0;
+    private final double m_canCoderSign = Constants.Swerve.canCoderInvert ? -1.0 : 1.0;
+
+    public PhoenixSwerveSim(SwerveModuleIOFalcon[] modules, SwerveModuleConstants[] moduleConstants,
+            GyroIOPigeon gyro) {
+        m_physics = SimulatedDrivetrain.createPhysics();
+
+        m_driveSims = new TalonFXSimCollection[modules.length];
+        m_angleSims = new TalonFXSimCollection[modules.length];
+        m_canCoderSims = new CANCoderSimCollection[modules.length];
+        m_angleOffsetDegrees = new double[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            m_driveSims[i] = modules[i].getDriveMotor().getSimCollection();
+            m_angleSims[i] = modules[i].getAngleMotor().getSimCollection();
+            m_canCoderSims[i] = modules[i].getAngleEncoder().getSimCollection();
+            m_angleOffsetDegrees[i] = moduleConstants[i].angleOffset.getDegrees();
+        }
+        m_pigeonSim = gyro.getPigeon().getSimCollection();
+
+        writeSensors();
+    }
+
+    /**
+     * Advances the physics by dtSeconds of robot time, regardless of how much
+     * wall clock time has passed.
+     */
+    public void update(double dtSeconds) {
+        for (int i = 0; i < m_driveSims.length; i++) {
+            m_driveSims[i].setBusVoltage(Constants.SimConstants.kBatteryVolts);
+            m_angleSims[i].setBusVoltage(Constants.SimConstants.kBatteryVolts);
+            m_canCoderSims[i].setBusVoltage(Constants.SimConstants.kBatteryVolts);
+
+            m_physics.setDriveVoltage(i, m_driveSims[i].getMotorOutputLeadVoltage() * m_driveSign);
+            m_physics.setSteerVoltage(i, m_angleSims[i].getMotorOutputLeadVoltage() * m_angleSign);
+        }
+
+        m_physics.step(dtSeconds);
+        writeSensors();
+    }
+
+    private void writeSensors() {
+        for (int i = 0; i < m_driveSims.length; i++) {
+            double driveMotorRotations = m_physics.getWheelPositionRadians(i) / (2.0 * Math.PI)
+                    * m_physics.getDriveGearRatio();
+            double driveMotorRps = m_physics.getWheelVelocityRadPerSec(i) / (2.0 * Math.PI)
+                    * m_physics.getDriveGearRatio();
+            m_driveSims[i].setIntegratedSensorRawPosition(
+                    (int) (m_driveSign * driveMotorRotations * FALCON_COUNTS_PER_REV));
+            // Talon velocities are per 100 ms
+            m_driveSims[i].setIntegratedSensorVelocity(
+                    (int) (m_driveSign * driveMotorRps * FALCON_COUNTS_PER_REV / 10.0));
+
+            double steerRotations = m_physics.getSteerRadians(i) / (2.0 * Math.PI);
+            double steerRps = m_physics.getSteerRadPerSec(i) / (2.0 * Math.PI);
+            m_angleSims[i].setIntegratedSensorRawPosition(
+                    (int) (m_angleSign * steerRotations * m_physics.getSteerGearRatio() * FALCON_COUNTS_PER_REV));
+            m_angleSims[i].setIntegratedSensorVelocity(
+                    (int) (m_angleSign * steerRps * m_physics.getSteerGearRatio() * FALCON_COUNTS_PER_REV / 10.0));
+
+            // The absolute encoder reads the module angle plus its mounting offset
+            double canCoderRotations = steerRotations + m_angleOffsetDegrees[i] / 360.0;
+            m_canCoderSims[i].setRawPosition((int) (m_canCoderSign * canCoderRotations * CANCODER_COUNTS_PER_REV));
+            m_canCoderSims[i].setVelocity((int) (m_canCoderSign * steerRps * CANCODER_COUNTS_PER_REV / 10.0));
+        }
+
+        m_pigeonSim.setRawHeading(Units.radiansToDegrees(m_physics.getHeadingRadians()));
+    }
+
+    /**
+     * Where the robot really is, as opposed to where odometry thinks it is.
+     */
+    public Pose2d getPose() {
+        return m_physics.getPose();
+    }
+
+    public void resetPose(Pose2d pose) {
+        m_physics.resetPose(pose);
+    }
+
+    public boolean isSlipping(int module) {
+        return m_physics.isSlipping(module);
+    }
+
+    public SwerveDrivePhysics getPhysics() {
+        return m_physics;
+    }
+}
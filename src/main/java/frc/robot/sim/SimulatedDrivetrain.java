@@ -0,0 +1,97 @@
+package frc.robot.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.lib.sim.SwerveDrivePhysics;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+import frc.robot.io.GyroIOSim;
+import frc.robot.io.SwerveModuleIOSim;
+
+/**
+ * A simulated drivetrain with no shared state: physics, emulated Talon loops
+ * and a perfect gyro. Nothing here touches the HAL or the Phoenix sim
+ * collections, so a process that steps robot time itself can stand it in
+ * for the hardware, see RobotIO.createHeadlessSim(). The robot's own
+ * SwerveModule and odometry code runs on top of it in DrivebaseSubsystem.
+ */
+public class SimulatedDrivetrain {
+    private static final SwerveModuleConstants[] MODULE_CONSTANTS = new SwerveModuleConstants[] {
+            Constants.Swerve.Mod0.constants,
+            Constants.Swerve.Mod1.constants,
+            Constants.Swerve.Mod2.constants,
+            Constants.Swerve.Mod3.constants
+    };
+
+    private final SwerveDrivePhysics m_physics = createPhysics();
+    private final SwerveModuleIOSim[] m_moduleIOs = new SwerveModuleIOSim[MODULE_CONSTANTS.length];
+    private final GyroIOSim m_gyroIO = new GyroIOSim(m_physics);
+
+    public SimulatedDrivetrain() {
+        for (int i = 0; i < m_moduleIOs.length; i++) {
+            m_moduleIOs[i] = new SwerveModuleIOSim(m_physics, i, MODULE_CONSTANTS[i].angleOffset.getDegrees());
+        }
+    }
+
+    /**
+     * The physics model with this robot's measurements.
+     */
+    public static SwerveDrivePhysics createPhysics() {
+        return new SwerveDrivePhysics(
+                Constants.SimConstants.kModuleLocations,
+                Constants.SimConstants.kDriveMotor,
+                Constants.SimConstants.kSteerMotor,
+                Constants.Swerve.driveGearRatio,
+                Constants.Swerve.angleGearRatio,
+                Constants.Swerve.chosenModule.wheelDiameter / 2.0,
+                Constants.SimConstants.kRobotMassKg,
+                Constants.SimConstants.kRobotMoiKgMetersSq,
+                Constants.SimConstants.kDriveInertiaKgMetersSq,
+                Constants.SimConstants.kSteerInertiaKgMetersSq,
+                Constants.SimConstants.kWheelCoefficientOfFriction,
+                Constants.SimConstants.kPhysicsSubstepSeconds);
+    }
+
+    /**
+     * Advances the physics by dtSeconds, running the emulated Talon loops
+     * every substep.
+     */
+    public void step(double dtSeconds) {
+        int substeps = Math.max(1, (int) Math.round(dtSeconds / Constants.SimConstants.kPhysicsSubstepSeconds));
+        for (int i = 0; i < substeps; i++) {
+            for (SwerveModuleIOSim moduleIO : m_moduleIOs) {
+                moduleIO.updateControl();
+            }
+            m_physics.step(Constants.SimConstants.kPhysicsSubstepSeconds);
+        }
+    }
+
+    public SwerveModuleIOSim[] getModuleIOs() {
+        return m_moduleIOs;
+    }
+
+    public GyroIOSim getGyroIO() {
+        return m_gyroIO;
+    }
+
+    /**
+     * Where the robot really is, as opposed to where odometry thinks it is.
+     * The physics always starts at the origin.
+     */
+    public Pose2d getTruePose() {
+        return m_physics.getPose();
+    }
+
+    public int getSlippingModuleCount() {
+        int count = 0;
+        for (int i = 0; i < m_moduleIOs.length; i++) {
+            if (m_physics.isSlipping(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public double getElapsedSeconds() {
+        return m_physics.getElapsedSeconds();
+    }
+}
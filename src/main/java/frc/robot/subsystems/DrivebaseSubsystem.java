@@ -1,6 +1,15 @@
 package frc.robot.subsystems;
 
+import frc.lib.logging.BinaryLogger;
+import frc.lib.logging.LatencyProbe;
+import frc.lib.util.CachedConfig;
+import frc.lib.util.CachedConfig.CachedNumber;
+import frc.lib.util.RateGroupScheduler;
+import frc.lib.util.RateGroupScheduler.Priority;
+import frc.lib.util.WriteCoalescer;
 import frc.robot.Constants;
+import frc.robot.io.RobotIO;
+import frc.robot.utils.SwerveGainTuner;
 import frc.robot.utils.SwerveModule;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
@@ -9,10 +18,6 @@ import edu.wpi.first.math.kinematics.SwerveModulePosition;
 
 import java.util.Map;
 
-import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.TalonFXControlMode;
-import com.ctre.phoenix.sensors.PigeonIMU;
-
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -25,104 +30,181 @@ import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
-public class DrivebaseSubsystem extends SubsystemBase {
+public class DrivebaseSubsystem extends SubsystemBase implements RateGroupScheduler.User {
+    public static final String POSE_RECORD = "Pose";
+    // Logged when odometry or the gyro is reset, so a replay can do the same
+    public static final String ODOMETRY_RESET_RECORD = "OdometryReset";
+    public static final String GYRO_RESET_RECORD = "GyroReset";
+
+    // Stages of the teleop input pipeline, from the start of the cycle to the
+    // motor commands. Time between the stick moving and the Driver Station
+    // packet arriving isn't visible to robot code.
+    public static final int LATENCY_SENSOR_READ = 0;
+    public static final int LATENCY_HID_SNAPSHOT = 1;
+    public static final int LATENCY_SUBSYSTEMS_AND_DEADBAND = 2;
+    public static final int LATENCY_KINEMATICS = 3;
+    public static final int LATENCY_MOTOR_WRITES = 4;
+    private final LatencyProbe m_teleopLatency = new LatencyProbe("Teleop Latency", 500, "Sensor Read",
+            "HID Snapshot", "Subsystems And Deadband", "Kinematics", "Optimize And Motor Writes");
+
     public SwerveDriveOdometry m_swerveOdometry;
     public SwerveModule[] m_SwerveMods;
-    // public Pigeon2 m_gyro;
-    public PigeonIMU m_gyro;
+    private final RobotIO m_io;
+
+    // getYaw() is called several times a cycle, sometimes from other threads,
+    // so the Rotation2d is only rebuilt when the yaw changes. Same for getLatestYaw().
+    private volatile YawSample m_yawSample = new YawSample(0.0);
+    private volatile YawSample m_latestYawSample = new YawSample(0.0);
+
+    // The sliders are read every loop by the teleop command, so their values
+    // are cached and only updated when they change
+    private final CachedConfig m_inputAdjustments = new CachedConfig();
+    private final CachedNumber m_forwardAdjustment;
+    private final CachedNumber m_sidewaysAdjustment;
+    private final CachedNumber m_rotationalAdjustment;
 
-    private GenericEntry m_forwardAdjustmentTableEntry;
-    private GenericEntry m_sidewaysAdjustmentTableEntry;
-    private GenericEntry m_rotationalAdjustmentTableEntry;
+    private final SwerveGainTuner m_gainTuner;
 
     private static final double INITIAL_INPUT_ADJUSTMENT = 0.25;
 
     private double m_tempEncoderCount = 0;
     private int m_encoderIteration = 0;
-    private double m_encoderRateOfChange = 0;
+    // Read by the docking thread
+    private volatile double m_encoderRateOfChange = 0;
     private int m_encoderUpdateCounter = 0;
     private static final double ROC_DT_SECONDS = 0.02;
 
-    public DrivebaseSubsystem() {
+
+    private final BinaryLogger m_logger;
+    private final int m_poseLogType;
+    private final int m_moduleSetpointLogType;
+    private final int m_odometryResetLogType;
+    private final int m_gyroResetLogType;
+
+    // Set by autonomousInit and cleared by the first motor command after it
+    private volatile long m_firstCommandTimerStartNanos = 0;
+
+    public DrivebaseSubsystem(RobotIO io, BinaryLogger logger) {
         DriverStation.silenceJoystickConnectionWarning(true);
         ShuffleboardTab m_drivebaseTab = Shuffleboard.getTab("Drivebase");
 
-        // m_gyro = new Pigeon2(Constants.Swerve.pigeonID);
-        m_gyro = new PigeonIMU(Constants.Swerve.pigeonID);
-        m_gyro.configFactoryDefault();
+        m_logger = logger;
+        m_poseLogType = logger.defineRecordType(POSE_RECORD, "x", "y", "rotationDeg");
+        m_moduleSetpointLogType = logger.defineRecordType("ModuleSetpoint", "module", "speedMps", "angleDeg");
+        m_odometryResetLogType = logger.defineRecordType(ODOMETRY_RESET_RECORD, "x", "y", "rotationDeg");
+        m_gyroResetLogType = logger.defineRecordType(GYRO_RESET_RECORD, "yawDeg");
+
+        m_io = io;
         zeroGyro();
 
         m_SwerveMods = new SwerveModule[] {
-                new SwerveModule(0, Constants.Swerve.Mod0.constants),
-                new SwerveModule(1, Constants.Swerve.Mod1.constants),
-                new SwerveModule(2, Constants.Swerve.Mod2.constants),
-                new SwerveModule(3, Constants.Swerve.Mod3.constants)
+                new SwerveModule(0, Constants.Swerve.Mod0.constants, io.getModuleIO(0), io::getInputs),
+                new SwerveModule(1, Constants.Swerve.Mod1.constants, io.getModuleIO(1), io::getInputs),
+                new SwerveModule(2, Constants.Swerve.Mod2.constants, io.getModuleIO(2), io::getInputs),
+                new SwerveModule(3, Constants.Swerve.Mod3.constants, io.getModuleIO(3), io::getInputs)
         };
 
         m_swerveOdometry = new SwerveDriveOdometry(Constants.Swerve.swerveKinematics, getYaw(), getModulePositions());
-
-        for (SwerveModule mod : m_SwerveMods) {
-            DriverStation.reportError(
-                    "CANcoder on Module " + mod.m_moduleNumber + " took " + mod.CANcoderInitTime + " ms to be ready.",
-                    false);
-        }
+        m_gainTuner = new SwerveGainTuner(m_SwerveMods);
 
         // Add widgets to adjust controller input values and robot-v-field orientation
-        m_forwardAdjustmentTableEntry = m_drivebaseTab.add("Forward Adj", INITIAL_INPUT_ADJUSTMENT)
+        GenericEntry forwardAdjustmentTableEntry = m_drivebaseTab.add("Forward Adj", INITIAL_INPUT_ADJUSTMENT)
                 .withWidget(BuiltInWidgets.kNumberSlider)
                 .withProperties(Map.of("min", INITIAL_INPUT_ADJUSTMENT, "max", 1))
                 .withSize(2, 1)
                 .withPosition(0, 3)
                 .getEntry();
 
-        m_sidewaysAdjustmentTableEntry = m_drivebaseTab.add("Sideways Adj", INITIAL_INPUT_ADJUSTMENT)
+        GenericEntry sidewaysAdjustmentTableEntry = m_drivebaseTab.add("Sideways Adj", INITIAL_INPUT_ADJUSTMENT)
                 .withWidget(BuiltInWidgets.kNumberSlider)
                 .withProperties(Map.of("min", INITIAL_INPUT_ADJUSTMENT, "max", 1))
                 .withSize(2, 1)
                 .withPosition(2, 3)
                 .getEntry();
 
-        m_rotationalAdjustmentTableEntry = m_drivebaseTab.add("Rotational Adj", INITIAL_INPUT_ADJUSTMENT)
+        GenericEntry rotationalAdjustmentTableEntry = m_drivebaseTab.add("Rotational Adj", INITIAL_INPUT_ADJUSTMENT)
                 .withWidget(BuiltInWidgets.kNumberSlider)
                 .withProperties(Map.of("min", INITIAL_INPUT_ADJUSTMENT, "max", 1))
                 .withSize(2, 1)
                 .withPosition(4, 3)
                 .getEntry();
+
+        m_forwardAdjustment = m_inputAdjustments.addNumber(forwardAdjustmentTableEntry, INITIAL_INPUT_ADJUSTMENT);
+        m_sidewaysAdjustment = m_inputAdjustments.addNumber(sidewaysAdjustmentTableEntry, INITIAL_INPUT_ADJUSTMENT);
+        m_rotationalAdjustment = m_inputAdjustments.addNumber(rotationalAdjustmentTableEntry,
+                INITIAL_INPUT_ADJUSTMENT);
     }
 
     public void drive(Translation2d translation, double rotation, boolean fieldRelative, boolean isOpenLoop) {
+        reportFirstCommand();
+
         SwerveModuleState[] swerveModuleStates = Constants.Swerve.swerveKinematics.toSwerveModuleStates(
                 fieldRelative ? ChassisSpeeds.fromFieldRelativeSpeeds(
                         translation.getX(),
                         translation.getY(),
                         rotation,
-                        getYaw())
+                        getLatestYaw())
                         : new ChassisSpeeds(
                                 translation.getX(),
                                 translation.getY(),
                                 rotation));
         SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, Constants.Swerve.maxSpeed);
+        m_teleopLatency.mark(LATENCY_KINEMATICS);
 
         for (SwerveModule mod : m_SwerveMods) {
+            logSetpoint(mod.m_moduleNumber, swerveModuleStates[mod.m_moduleNumber]);
             mod.setDesiredState(swerveModuleStates[mod.m_moduleNumber], isOpenLoop);
         }
+        m_teleopLatency.mark(LATENCY_MOTOR_WRITES);
     }
 
     // Used by SwerveControllerCommand in Auto 
     public void setModuleStates(SwerveModuleState[] desiredStates) {
+        reportFirstCommand();
+
         SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, Constants.Swerve.maxSpeed);
 
         for (SwerveModule mod : m_SwerveMods) {
+            logSetpoint(mod.m_moduleNumber, desiredStates[mod.m_moduleNumber]);
             mod.setDesiredState(desiredStates[mod.m_moduleNumber], false);
         }
     }
 
+    private void logSetpoint(int moduleNumber, SwerveModuleState state) {
+        m_logger.log(m_moduleSetpointLogType, moduleNumber, state.speedMetersPerSecond, state.angle.getDegrees());
+    }
+
+    // Starts timing until the next motor command, used to measure how long it
+    // takes from autonomousInit until the robot actually starts driving.
+    public void startFirstCommandTimer() {
+        m_firstCommandTimerStartNanos = System.nanoTime();
+    }
+
+    private void reportFirstCommand() {
+        long startNanos = m_firstCommandTimerStartNanos;
+        if (startNanos != 0) {
+            m_firstCommandTimerStartNanos = 0;
+            double elapsedMs = (System.nanoTime() - startNanos) / 1.0e6;
+            SmartDashboard.putNumber("Auto Init To First Command ms", elapsedMs);
+            System.out.printf("First motor command %.2f ms after autonomousInit\n", elapsedMs);
+        }
+    }
+
+    /**
+     * Times the teleop pipeline. Robot starts it each cycle and the teleop
+     * command arms it, so other callers of drive() aren't counted.
+     */
+    public LatencyProbe getTeleopLatencyProbe() {
+        return m_teleopLatency;
+    }
+
     public Pose2d getPose() {
         return m_swerveOdometry.getPoseMeters();
     }
 
     public void resetOdometry(Pose2d pose) {
         m_swerveOdometry.resetPosition(getYaw(), getModulePositions(), pose);
+        m_logger.log(m_odometryResetLogType, pose.getX(), pose.getY(), pose.getRotation().getDegrees());
     }
 
     public SwerveDriveOdometry getOdometry() {
@@ -137,25 +219,79 @@ public class DrivebaseSubsystem extends SubsystemBase {
         return positions;
     }
 
+    public SwerveModuleState[] getModuleStates() {
+        SwerveModuleState[] states = new SwerveModuleState[4];
+        for (SwerveModule mod : m_SwerveMods) {
+            states[mod.m_moduleNumber] = mod.getState();
+        }
+        return states;
+    }
+
+    // Robot relative speeds measured by the module encoders
+    public ChassisSpeeds getChassisSpeeds() {
+        return Constants.Swerve.swerveKinematics.toChassisSpeeds(getModuleStates());
+    }
+
     public void zeroGyro() {
-        m_gyro.setYaw(0);
+        m_io.setYaw(0);
+        m_logger.log(m_gyroResetLogType, 0);
     }
 
+    /**
+     * @return This cycle's yaw. Every caller in the same cycle gets the same value.
+     */
     public Rotation2d getYaw() {
-        return (Constants.Swerve.invertGyro) ? Rotation2d.fromDegrees(360 - m_gyro.getYaw())
-                : Rotation2d.fromDegrees(m_gyro.getYaw());
+        double yawDegrees = m_io.getInputs().gyroYawDegrees;
+        YawSample sample = m_yawSample;
+        if (yawDegrees != sample.yawDegrees) {
+            sample = new YawSample(yawDegrees);
+            m_yawSample = sample;
+        }
+        return sample.rotation;
+    }
+
+    /**
+     * @return The gyro service's newest yaw. With the sampling thread running
+     *         this can be newer than {@link #getYaw()}, which is what the
+     *         field relative drive and the docking thread want; odometry
+     *         sticks to this cycle's yaw.
+     */
+    public Rotation2d getLatestYaw() {
+        double yawDegrees = m_io.getGyroService().getLatestYawDegrees();
+        YawSample sample = m_latestYawSample;
+        if (yawDegrees != sample.yawDegrees) {
+            sample = new YawSample(yawDegrees);
+            m_latestYawSample = sample;
+        }
+        return sample.rotation;
+    }
+
+    public double getYawRateDegreesPerSec() {
+        double yawRate = m_io.getInputs().gyroYawRateDegreesPerSec;
+        return (Constants.Swerve.invertGyro) ? -yawRate : yawRate;
+    }
+
+    private static final class YawSample {
+        final double yawDegrees;
+        final Rotation2d rotation;
+
+        YawSample(double yawDegrees) {
+            this.yawDegrees = yawDegrees;
+            rotation = (Constants.Swerve.invertGyro) ? Rotation2d.fromDegrees(360 - yawDegrees)
+                    : Rotation2d.fromDegrees(yawDegrees);
+        }
     }
 
     public double getForwardAdjustment() {
-        return m_forwardAdjustmentTableEntry.getDouble(INITIAL_INPUT_ADJUSTMENT);
+        return m_forwardAdjustment.get();
     }
 
     public double getSidewaysAdjustment() {
-        return m_sidewaysAdjustmentTableEntry.getDouble(INITIAL_INPUT_ADJUSTMENT);
+        return m_sidewaysAdjustment.get();
     }
 
     public double getRotationalAdjustment() {
-        return m_rotationalAdjustmentTableEntry.getDouble(INITIAL_INPUT_ADJUSTMENT);
+        return m_rotationalAdjustment.get();
     }
 
     // This method is used to determine if the robot has stopped moving
@@ -164,7 +300,7 @@ public class DrivebaseSubsystem extends SubsystemBase {
     // unforseen reason. We'll just pick one of the drive motors to
     // monitor its movement.
     private double getEncoderCount() {
-        return m_SwerveMods[0].getDriveMotor().getSelectedSensorPosition();
+        return m_io.getInputs().drivePositionMeters[0];
     }
 
     private void calculateEncoderRoC() {
@@ -187,23 +323,21 @@ public class DrivebaseSubsystem extends SubsystemBase {
     public void stopMotors() {
         System.out.println("stopMotors");
         for (SwerveModule mod : m_SwerveMods) {
-            mod.getDriveMotor().set(TalonFXControlMode.PercentOutput, 0.0);
+            mod.stop();
         }
     }
 
     public void setMotorsToCoast() {
         System.out.println("setMotorsToCoast");
         for (SwerveModule mod : m_SwerveMods) {
-            mod.getDriveMotor().setNeutralMode(NeutralMode.Coast);
-            mod.getAngleMotor().setNeutralMode(NeutralMode.Coast);
+            mod.setBrakeMode(false);
         }
     }
 
     public void setMotorsToBrake() {
         System.out.println("setMotorsToBrake");
         for (SwerveModule mod : m_SwerveMods) {
-            mod.getDriveMotor().setNeutralMode(NeutralMode.Brake);
-            mod.getAngleMotor().setNeutralMode(NeutralMode.Brake);
+            mod.setBrakeMode(true);
         }
     }
 
@@ -213,12 +347,32 @@ public class DrivebaseSubsystem extends SubsystemBase {
         }
     }
 
+    /**
+     * Control and odometry run every main loop cycle in periodic() and the
+     * commands; only the module resync and telemetry run slower.
+     */
     @Override
-    public void periodic() {
-        if (DriverStation.isDisabled()){
+    public void configureRateGroups(RateGroupScheduler scheduler) {
+        scheduler.addGroup("Module Resync", Constants.RateGroupConstants.kModuleResyncPeriodSeconds,
+                Constants.RateGroupConstants.kModuleResyncOffsetSeconds)
+                .add("Resync", Priority.NORMAL, 0.0005, this::resyncModulesIfDisabled);
+        scheduler.addGroup("Telemetry", Constants.RateGroupConstants.kTelemetryPeriodSeconds,
+                Constants.RateGroupConstants.kTelemetryOffsetSeconds)
+                .add("Drivebase", Priority.LOW, 0.001, this::publishTelemetry);
+    }
+
+    /**
+     * Keeps the angle motors matched to the CANcoders while disabled. Runs in
+     * its own rate group, see configureRateGroups().
+     */
+    public void resyncModulesIfDisabled() {
+        if (DriverStation.isDisabled()) {
             resetModulesToAbsolute();
         }
+    }
 
+    @Override
+    public void periodic() {
         // Calling calculateEncoderRoc every period causes loop overruns
         // so we'll only do it once a second.
         if (m_encoderUpdateCounter > 50) {
@@ -226,12 +380,45 @@ public class DrivebaseSubsystem extends SubsystemBase {
             m_encoderUpdateCounter = 0;
         }
 
-        m_swerveOdometry.update(getYaw(), getModulePositions());
+        m_gainTuner.periodic();
 
+        // Sensor values come from this cycle's RobotInputs, which RobotIO has
+        // already logged
+        Pose2d pose = m_swerveOdometry.update(getYaw(), getModulePositions());
+        m_logger.log(m_poseLogType, pose.getX(), pose.getY(), pose.getRotation().getDegrees());
+    }
+
+    /**
+     * Dashboard values that don't need the main loop rate. Runs in the
+     * telemetry rate group, see configureRateGroups().
+     */
+    public void publishTelemetry() {
         for (SwerveModule mod : m_SwerveMods) {
+            SwerveModuleState state = mod.getState();
+
             SmartDashboard.putNumber("Mod " + mod.m_moduleNumber + " Cancoder", mod.getCanCoder().getDegrees());
             SmartDashboard.putNumber("Mod " + mod.m_moduleNumber + " Integrated", mod.getPosition().angle.getDegrees());
-            SmartDashboard.putNumber("Mod " + mod.m_moduleNumber + " Velocity", mod.getState().speedMetersPerSecond);
+            SmartDashboard.putNumber("Mod " + mod.m_moduleNumber + " Velocity", state.speedMetersPerSecond);
         }
+
+        publishWriteCounts();
+        m_teleopLatency.publish();
+    }
+
+    private void publishWriteCounts() {
+        long totalSent = 0;
+        long totalSuppressed = 0;
+        for (SwerveModule mod : m_SwerveMods) {
+            for (WriteCoalescer writes : mod.getIO().getWriteCoalescers()) {
+                SmartDashboard.putNumber(writes.getName() + " API Calls Sent", writes.getSentCount());
+                SmartDashboard.putNumber(writes.getName() + " API Calls Skipped", writes.getSuppressedCount());
+                totalSent += writes.getSentCount();
+                totalSuppressed += writes.getSuppressedCount();
+            }
+        }
+
+        long total = totalSent + totalSuppressed;
+        // Skipped API calls, the control frames still go out every 10 ms
+        SmartDashboard.putNumber("Motor API Calls Skipped %", total == 0 ? 0.0 : 100.0 * totalSuppressed / total);
     }
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.util.Color;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.util.RateGroupScheduler;
+import frc.lib.util.RateGroupScheduler.Priority;
+import frc.robot.Constants;
 import frc.robot.utils.CT_LEDStrip;
 import frc.robot.utils.CT_LEDStrip.ColorPattern;
 import frc.robot.utils.CT_LEDStrip.GlowColor;
@@ -15,11 +18,13 @@ import frc.robot.utils.CT_LEDStrip.Speed;
 // RobotContainer.getLEDStripSubsystem().moveColor(Speed.Ridiculous, Color.kBlue, Color.kRed);
 // RobotContainer.getLEDStripSubsystem().moveColorPattern(Speed.Ridiculous, ColorPattern.SnakePacman);
 
-public class LEDStripSubsystem extends SubsystemBase {
+public class LEDStripSubsystem extends SubsystemBase implements RateGroupScheduler.User {
     
     private final static int LED_STRIP_PWM = 0;
 
     private static CT_LEDStrip m_ledStrip = new CT_LEDStrip(LED_STRIP_PWM);
+    // Never shown, only used by exercisePatterns()
+    private final CT_LEDStrip m_warmUpStrip = CT_LEDStrip.createScratch(m_ledStrip.getLength());
     private StripState m_ledStripState;
     private Speed m_currentSpeed;
     private Color m_currentColorArray[];
@@ -90,8 +95,25 @@ public class LEDStripSubsystem extends SubsystemBase {
         m_ledStripState = StripState.Rainbow;
     }
 
+    // Runs every pattern once on a strip of the same length that's never
+    // shown, for the warm up while disabled. The real strip isn't touched.
+    public void exercisePatterns() {
+        m_warmUpStrip.setColor(ColorPattern.Cougartech);
+        m_warmUpStrip.doMovingColors(Speed.Ludicrous, ColorPattern.Cougartech);
+        m_warmUpStrip.doSnake(Speed.Ludicrous, Color.kBlack, ColorPattern.Cougartech);
+        m_warmUpStrip.doGlow(GlowColor.Yellow);
+        m_warmUpStrip.doRainbow();
+    }
+
     @Override
-    public void periodic() {
+    public void configureRateGroups(RateGroupScheduler scheduler) {
+        scheduler.addGroup("LEDs", Constants.RateGroupConstants.kLedPeriodSeconds,
+                Constants.RateGroupConstants.kLedOffsetSeconds)
+                .add("Strip", Priority.LOW, 0.0005, this::updateStrip);
+    }
+
+    // Runs in its own rate group, see configureRateGroups()
+    public void updateStrip() {
         switch (m_ledStripState) {
             case DoingNothing: {
                 initStrip();
@@ -0,0 +1,73 @@
+package frc.robot.utils;
+
+import edu.wpi.first.math.MathUtil;
+import frc.lib.control.AlignmentTargetSource;
+import frc.robot.subsystems.AprilTagSubsystem;
+import frc.robot.subsystems.DrivebaseSubsystem;
+
+/**
+ * Docks with an AprilTag using the camera's distance (TZ) and sideways
+ * offset (TX). The detector doesn't give us the tag's orientation, so the
+ * heading axis holds the heading the robot had when docking started. The
+ * docking loop runs faster than the main loop, so it uses the gyro service's
+ * newest yaw rather than the cycle's.
+ */
+public class AprilTagTargetSource implements AlignmentTargetSource {
+    private final AprilTagSubsystem m_aprilTagSubsystem;
+    private final DrivebaseSubsystem m_drivebaseSubsystem;
+    private final double m_aprilTagId;
+    private final double m_dockingDistanceMeters;
+    private final boolean m_isCameraForward;
+
+    private double m_holdHeadingRadians;
+
+    private double m_xError;
+    private double m_yError;
+    private double m_headingError;
+
+    public AprilTagTargetSource(AprilTagSubsystem aprilTagSubsystem, DrivebaseSubsystem drivebaseSubsystem,
+            double aprilTagId, double dockingDistanceMeters, boolean isCameraForward) {
+        m_aprilTagSubsystem = aprilTagSubsystem;
+        m_drivebaseSubsystem = drivebaseSubsystem;
+        m_aprilTagId = aprilTagId;
+        m_dockingDistanceMeters = dockingDistanceMeters;
+        m_isCameraForward = isCameraForward;
+    }
+
+    @Override
+    public void activate() {
+        m_holdHeadingRadians = m_drivebaseSubsystem.getLatestYaw().getRadians();
+    }
+
+    @Override
+    public boolean update() {
+        if (m_aprilTagSubsystem.getTagID() != m_aprilTagId) {
+            return false;
+        }
+
+        m_xError = m_aprilTagSubsystem.getTZ() - m_dockingDistanceMeters;
+        m_yError = -m_aprilTagSubsystem.getTX();
+        m_headingError = MathUtil.angleModulus(m_holdHeadingRadians - m_drivebaseSubsystem.getLatestYaw().getRadians());
+        return true;
+    }
+
+    @Override
+    public double getXError() {
+        return m_xError;
+    }
+
+    @Override
+    public double getYError() {
+        return m_yError;
+    }
+
+    @Override
+    public double getHeadingError() {
+        return m_headingError;
+    }
+
+    @Override
+    public boolean isFieldRelative() {
+        return !m_isCameraForward;
+    }
+}
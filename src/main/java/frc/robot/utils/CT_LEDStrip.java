@@ -9,7 +9,7 @@ import frc.robot.utils.CT_LEDStrip.GlowColor;
 import frc.robot.utils.CT_LEDStrip.MovementType;
 import frc.robot.utils.CT_LEDStrip.Speed;
 
-public class CT_LEDStrip extends AddressableLED {
+public class CT_LEDStrip {
 
     private final static double GLOW_MAX = 1;
     private final static double GLOW_MIN = 0.05;
@@ -20,6 +20,8 @@ public class CT_LEDStrip extends AddressableLED {
      */
     private final static double INCREASE_VALUE = 0.0314;
 
+    // Null for a scratch strip, see createScratch()
+    private final AddressableLED m_LED;
     private AddressableLEDBuffer m_LEDBuffer;
     private int m_rainbowFirstPixelHue = 0;
 
@@ -162,17 +164,44 @@ public class CT_LEDStrip extends AddressableLED {
      *                affected by color chanes.
      */
     public CT_LEDStrip(int PWMPort, int length) {
-        super(PWMPort);
+        this(new AddressableLED(PWMPort), length);
 
-        m_LEDBuffer = new AddressableLEDBuffer(length);
-        setLength(m_LEDBuffer.getLength());
+        m_LED.setLength(m_LEDBuffer.getLength());
         setData(m_LEDBuffer);
-        start();
+        m_LED.start();
+    }
+
+    private CT_LEDStrip(AddressableLED LED, int length) {
+        m_LED = LED;
+        m_LEDBuffer = new AddressableLEDBuffer(length);
 
         patterns = new ArrayList<>();
         patternsIndex = 0;
     }
 
+    /**
+     * Creates a CT_LED instance with no LED strip behind it. The patterns run on
+     * its own buffer and are never shown, e.g. to warm them up.
+     * 
+     * @param length the amount of individual LEDS in the buffer.
+     */
+    public static CT_LEDStrip createScratch(int length) {
+        return new CT_LEDStrip(null, length);
+    }
+
+    /**
+     * @return the amount of individual LEDS on the strip.
+     */
+    public int getLength() {
+        return m_LEDBuffer.getLength();
+    }
+
+    private void setData(AddressableLEDBuffer buffer) {
+        if (m_LED != null) {
+            m_LED.setData(buffer);
+        }
+    }
+
     /**
      * Resets all the moving color variables, allows the changing of speed for
      * example.
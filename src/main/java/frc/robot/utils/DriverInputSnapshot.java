@@ -0,0 +1,53 @@
+package frc.robot.utils;
+
+import edu.wpi.first.wpilibj.GenericHID;
+
+/**
+ * The driving axes and robot-centric button, read from the controller once at
+ * the start of each cycle. The teleop drive suppliers read these fields
+ * instead of asking the controller for each axis separately.
+ */
+public class DriverInputSnapshot {
+    private final GenericHID m_controller;
+    private final int m_translationAxis;
+    private final int m_strafeAxis;
+    private final int m_rotationAxis;
+    private final int m_robotCentricButton;
+
+    private double m_translation = 0.0;
+    private double m_strafe = 0.0;
+    private double m_rotation = 0.0;
+    private boolean m_robotCentric = false;
+
+    public DriverInputSnapshot(GenericHID controller, int translationAxis, int strafeAxis, int rotationAxis,
+            int robotCentricButton) {
+        m_controller = controller;
+        m_translationAxis = translationAxis;
+        m_strafeAxis = strafeAxis;
+        m_rotationAxis = rotationAxis;
+        m_robotCentricButton = robotCentricButton;
+    }
+
+    public void update() {
+        m_translation = m_controller.getRawAxis(m_translationAxis);
+        m_strafe = m_controller.getRawAxis(m_strafeAxis);
+        m_rotation = m_controller.getRawAxis(m_rotationAxis);
+        m_robotCentric = m_controller.getRawButton(m_robotCentricButton);
+    }
+
+    public double getTranslation() {
+        return m_translation;
+    }
+
+    public double getStrafe() {
+        return m_strafe;
+    }
+
+    public double getRotation() {
+        return m_rotation;
+    }
+
+    public boolean isRobotCentric() {
+        return m_robotCentric;
+    }
+}
@@ -0,0 +1,150 @@
+package frc.robot.utils;
+
+import java.util.List;
+import java.util.Map;
+
+import com.pathplanner.lib.PathConstraints;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.lib.control.HolonomicFollower;
+import frc.lib.trajectory.EventMarkerTable;
+import frc.lib.util.WarmUp;
+import frc.robot.Constants;
+import frc.robot.Robot;
+import frc.robot.commands.FollowPathWithMarkersCommand;
+import frc.robot.commands.HolonomicPathFollowerCommand;
+import frc.robot.io.RobotInputs;
+import frc.robot.io.SwerveModuleIO;
+import frc.robot.subsystems.LEDStripSubsystem;
+
+/**
+ * The code the first enabled cycles run, set up against a copy of the
+ * drivetrain whose modules drop every motor command: kinematics, module
+ * setpoints (CTREModuleState.optimize and the feedforward), odometry, a path
+ * following command group and the LED patterns. Nothing here touches the
+ * real drivetrain, its inputs or the LED strip, and nothing is published.
+ */
+public class RobotWarmUp {
+    private final WarmUp m_warmUp = new WarmUp(Constants.WarmUpConstants.kCallsPerTask);
+
+    private final RobotInputs m_inputs = new RobotInputs();
+    private final SwerveModule[] m_modules;
+    private final SwerveModulePosition[] m_positions = new SwerveModulePosition[RobotInputs.MODULE_COUNT];
+    private final SwerveDriveOdometry m_odometry;
+    private SwerveModuleState[] m_states;
+    private int m_step = 0;
+
+    private final Command m_pathCommand;
+    private boolean m_pathRunning = false;
+
+    public RobotWarmUp(LEDStripSubsystem ledStrip) {
+        // Only updateInputs() has to be implemented, every write is a no-op
+        SwerveModuleIO noOpIO = (inputs, moduleNumber) -> {
+        };
+        m_modules = new SwerveModule[] {
+                new SwerveModule(0, Constants.Swerve.Mod0.constants, noOpIO, () -> m_inputs),
+                new SwerveModule(1, Constants.Swerve.Mod1.constants, noOpIO, () -> m_inputs),
+                new SwerveModule(2, Constants.Swerve.Mod2.constants, noOpIO, () -> m_inputs),
+                new SwerveModule(3, Constants.Swerve.Mod3.constants, noOpIO, () -> m_inputs)
+        };
+        updatePositions();
+        m_odometry = new SwerveDriveOdometry(Constants.Swerve.swerveKinematics, new Rotation2d(), m_positions);
+        m_states = Constants.Swerve.swerveKinematics.toSwerveModuleStates(new ChassisSpeeds());
+
+        PathConstraints constraints = Constants.AutoConstants.kDefaultPathConstraints;
+        Command follower = new HolonomicPathFollowerCommand(
+                "Warm Up",
+                Robot.trajectoryCache.getSampler(Constants.WarmUpConstants.kPathName, constraints),
+                m_odometry::getPoseMeters,
+                ChassisSpeeds::new,
+                Constants.Swerve.swerveKinematics,
+                new HolonomicFollower(
+                        new PIDController(Constants.AutoConstants.kPathXControllerP, 0, 0),
+                        new PIDController(Constants.AutoConstants.kPathYControllerP, 0, 0),
+                        new PIDController(Constants.AutoConstants.kPathThetaControllerP, 0, 0)),
+                this::setModuleStates)
+                .withoutPublishing();
+        // No markers, so no event commands run
+        m_pathCommand = new SequentialCommandGroup(
+                new InstantCommand(),
+                new FollowPathWithMarkersCommand(follower,
+                        EventMarkerTable.compile("Warm Up", List.of(), Map.of())));
+
+        m_warmUp.add("Kinematics", this::stepKinematics)
+                .add("Module Setpoints", this::stepModules)
+                .add("Odometry", this::stepOdometry)
+                .add("Path Following", this::stepPath)
+                .add("LED Patterns", ledStrip::exercisePatterns);
+    }
+
+    /**
+     * @see WarmUp#runFor(double)
+     */
+    public void runFor(double budgetSeconds) {
+        m_warmUp.runFor(budgetSeconds);
+    }
+
+    public boolean isDone() {
+        return m_warmUp.isDone();
+    }
+
+    private void stepKinematics() {
+        m_step++;
+        ChassisSpeeds speeds = ChassisSpeeds.fromFieldRelativeSpeeds(1.0, 0.5, 0.8,
+                Rotation2d.fromDegrees(m_step % 360));
+        SwerveModuleState[] states = Constants.Swerve.swerveKinematics.toSwerveModuleStates(speeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(states, Constants.Swerve.maxSpeed);
+        m_states = states;
+    }
+
+    private void stepModules() {
+        for (int i = 0; i < m_modules.length; i++) {
+            // Turn the fake modules so optimize() sees every quadrant
+            m_inputs.angleDegrees[i] = (m_step * 13 + i * 90) % 360;
+            m_modules[i].setDesiredState(m_states[i], (m_step & 1) == 0);
+        }
+    }
+
+    private void stepOdometry() {
+        for (int i = 0; i < m_modules.length; i++) {
+            m_inputs.drivePositionMeters[i] += 0.001;
+        }
+        updatePositions();
+        m_odometry.update(Rotation2d.fromDegrees(m_step % 360), m_positions);
+    }
+
+    private void stepPath() {
+        if (!m_pathRunning) {
+            m_pathCommand.initialize();
+            m_pathRunning = true;
+        }
+        m_pathCommand.execute();
+        if (m_pathCommand.isFinished()) {
+            m_pathCommand.end(false);
+            m_pathRunning = false;
+        }
+    }
+
+    // Same as DrivebaseSubsystem.setModuleStates(), against the fake modules
+    private void setModuleStates(SwerveModuleState[] desiredStates) {
+        SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, Constants.Swerve.maxSpeed);
+        for (int i = 0; i < m_modules.length; i++) {
+            m_modules[i].setDesiredState(desiredStates[i], false);
+        }
+    }
+
+    private void updatePositions() {
+        for (int i = 0; i < m_modules.length; i++) {
+            m_positions[i] = m_modules[i].getPosition();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package frc.robot.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.lib.util.CachedConfig;
+import frc.lib.util.CachedConfig.CachedNumber;
+import frc.robot.Constants;
+import frc.robot.io.SwerveModuleIO.Gain;
+
+/**
+ * Puts the swerve PID and feedforward gains on a "Swerve Tuning" tab so they
+ * can be tuned without a redeploy.
+ *
+ * <p>
+ * The feedforward is rebuilt on the main thread since it only lives in
+ * SwerveModule. PID gains live in the Talons, and setting them waits on the
+ * CAN bus, so a background thread compares the dashboard against what each
+ * Talon was last given and sends only the gains that changed.
+ */
+public class SwerveGainTuner {
+    private static final Gain[] GAINS = Gain.values();
+
+    private final SwerveModule[] m_modules;
+
+    private final CachedConfig m_config = new CachedConfig();
+    private final CachedNumber[] m_driveGains = new CachedNumber[GAINS.length];
+    private final CachedNumber[] m_angleGains = new CachedNumber[GAINS.length];
+    private final CachedNumber m_driveKS;
+    private final CachedNumber m_driveKV;
+    private final CachedNumber m_driveKA;
+
+    // Main thread only
+    private long m_lastVersion;
+    private SimpleMotorFeedforward m_feedforward;
+
+    // Tuning thread only, what the Talons' slot 0 currently holds
+    private final double[] m_appliedDriveGains = new double[] {
+            Constants.Swerve.driveKP, Constants.Swerve.driveKI, Constants.Swerve.driveKD, Constants.Swerve.driveKF };
+    private final double[] m_appliedAngleGains = new double[] {
+            Constants.Swerve.angleKP, Constants.Swerve.angleKI, Constants.Swerve.angleKD, Constants.Swerve.angleKF };
+
+    private final AtomicBoolean m_pushPending = new AtomicBoolean(false);
+    private final ExecutorService m_executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SwerveGainTuner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SwerveGainTuner(SwerveModule[] modules) {
+        m_modules = modules;
+        ShuffleboardTab tab = Shuffleboard.getTab("Swerve Tuning");
+
+        for (Gain gain : GAINS) {
+            m_driveGains[gain.ordinal()] = addNumber(tab, "Drive " + gain.name(),
+                    m_appliedDriveGains[gain.ordinal()]);
+            m_angleGains[gain.ordinal()] = addNumber(tab, "Angle " + gain.name(),
+                    m_appliedAngleGains[gain.ordinal()]);
+        }
+        m_driveKS = addNumber(tab, "Drive kS", Constants.Swerve.driveKS);
+        m_driveKV = addNumber(tab, "Drive kV", Constants.Swerve.driveKV);
+        m_driveKA = addNumber(tab, "Drive kA", Constants.Swerve.driveKA);
+
+        m_feedforward = new SimpleMotorFeedforward(Constants.Swerve.driveKS, Constants.Swerve.driveKV,
+                Constants.Swerve.driveKA);
+        m_lastVersion = m_config.getVersion();
+    }
+
+    private CachedNumber addNumber(ShuffleboardTab tab, String name, double defaultValue) {
+        return m_config.addNumber(tab.add(name, defaultValue).getEntry(), defaultValue);
+    }
+
+    /**
+     * Applies any gains that changed since the last call. Only does real work
+     * when something on the tab was edited.
+     */
+    public void periodic() {
+        long version = m_config.getVersion();
+        if (version == m_lastVersion) {
+            return;
+        }
+        m_lastVersion = version;
+
+        double kS = m_driveKS.get();
+        double kV = m_driveKV.get();
+        double kA = m_driveKA.get();
+        if (kS != m_feedforward.ks || kV != m_feedforward.kv || kA != m_feedforward.ka) {
+            m_feedforward = new SimpleMotorFeedforward(kS, kV, kA);
+            for (SwerveModule mod : m_modules) {
+                mod.setFeedforward(m_feedforward);
+            }
+            System.out.printf("Swerve feedforward set to kS %.4f, kV %.4f, kA %.4f\n", kS, kV, kA);
+        }
+
+        // One push at a time. It reads the latest values when it starts, so
+        // edits made while one is queued don't need another.
+        if (m_pushPending.compareAndSet(false, true)) {
+            m_executor.execute(this::pushGains);
+        }
+    }
+
+    private void pushGains() {
+        m_pushPending.set(false);
+
+        long startNanos = System.nanoTime();
+        int changed = 0;
+        int failed = 0;
+        for (Gain gain : GAINS) {
+            int index = gain.ordinal();
+
+            double driveValue = m_driveGains[index].get();
+            if (driveValue != m_appliedDriveGains[index]) {
+                changed++;
+                if (pushGain(gain, driveValue, true)) {
+                    m_appliedDriveGains[index] = driveValue;
+                } else {
+                    failed++;
+                }
+            }
+
+            double angleValue = m_angleGains[index].get();
+            if (angleValue != m_appliedAngleGains[index]) {
+                changed++;
+                if (pushGain(gain, angleValue, false)) {
+                    m_appliedAngleGains[index] = angleValue;
+                } else {
+                    failed++;
+                }
+            }
+        }
+
+        if (changed > 0) {
+            System.out.printf("Pushed %d swerve gains in %.1f ms, %d failed\n", changed,
+                    (System.nanoTime() - startNanos) / 1.0e6, failed);
+        }
+    }
+
+    // A gain that fails on any module is left marked as not applied, so it is
+    // sent to all of them again on the next edit
+    private boolean pushGain(Gain gain, double value, boolean drive) {
+        boolean ok = true;
+        for (SwerveModule mod : m_modules) {
+            if (drive) {
+                ok &= mod.getIO().configDriveGain(gain, value, Constants.Swerve.liveGainConfigTimeoutMs);
+            } else {
+                ok &= mod.getIO().configAngleGain(gain, value, Constants.Swerve.liveGainConfigTimeoutMs);
+            }
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,74 @@
+package frc.lib.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.lib.trajectory.MutableTrajectoryState;
+
+// HolonomicFollower has to drive exactly like the PathPlanner controller it replaced
+class HolonomicFollowerTest {
+    private static final PathConstraints CONSTRAINTS = new PathConstraints(1.5, 1.0);
+    private static final double EPSILON = 1e-9;
+    // Robot off the path, so the feedback terms matter
+    private static final Transform2d OFFSET = new Transform2d(new Translation2d(0.1, -0.05),
+            Rotation2d.fromDegrees(10.0));
+
+    private static PIDController[] createControllers() {
+        return new PIDController[] { new PIDController(0.1, 0, 0), new PIDController(0.12, 0, 0),
+                new PIDController(2.0, 0, 0) };
+    }
+
+    private static void copyState(PathPlannerState from, MutableTrajectoryState to) {
+        to.timeSeconds = from.timeSeconds;
+        to.xMeters = from.poseMeters.getX();
+        to.yMeters = from.poseMeters.getY();
+        to.headingRadians = from.poseMeters.getRotation().getRadians();
+        to.velocityMetersPerSecond = from.velocityMetersPerSecond;
+        to.accelerationMetersPerSecondSq = from.accelerationMetersPerSecondSq;
+        to.curvatureRadPerMeter = from.curvatureRadPerMeter;
+        to.holonomicRotationRadians = from.holonomicRotation.getRadians();
+        to.holonomicAngularVelocityRadPerSec = from.holonomicAngularVelocityRadPerSec;
+    }
+
+    @Test
+    void matchesPathPlannerController() {
+        PIDController[] pathPlannerControllers = createControllers();
+        PPHolonomicDriveController pathPlanner = new PPHolonomicDriveController(pathPlannerControllers[0],
+                pathPlannerControllers[1], pathPlannerControllers[2]);
+        PIDController[] followerControllers = createControllers();
+        HolonomicFollower follower = new HolonomicFollower(followerControllers[0], followerControllers[1],
+                followerControllers[2]);
+        MutableTrajectoryState reference = new MutableTrajectoryState();
+
+        // Spins as it goes round, so the rotation wraps
+        PathPlannerTrajectory trajectory = PathPlanner.loadPath("Spinning Circle", CONSTRAINTS);
+        List<Trajectory.State> states = trajectory.getStates();
+        for (int i = 0; i < states.size(); i += 10) {
+            PathPlannerState state = (PathPlannerState) states.get(i);
+            Pose2d pose = new Pose2d(state.poseMeters.getTranslation(), state.holonomicRotation).plus(OFFSET);
+            copyState(state, reference);
+
+            ChassisSpeeds expected = pathPlanner.calculate(pose, state);
+            ChassisSpeeds actual = follower.calculate(pose, reference);
+            assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, EPSILON, "state " + i);
+            assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, EPSILON, "state " + i);
+            assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, EPSILON, "state " + i);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package frc.lib.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyProbeTest {
+    private static final int STAGES = 3;
+
+    private static LatencyProbe createProbe(int windowSize) {
+        return new LatencyProbe("Test", windowSize, "Read", "Compute", "Write");
+    }
+
+    private static void assertCounts(LatencyProbe probe, int expected) {
+        for (int stage = 0; stage <= STAGES; stage++) {
+            assertEquals(expected, probe.getSampleCount(stage), "stage " + stage);
+        }
+    }
+
+    @Test
+    void armedCompleteCycleRecordsEveryStageAndTotal() {
+        LatencyProbe probe = createProbe(10);
+        probe.start();
+        probe.arm();
+        probe.mark(0);
+        probe.mark(1);
+        probe.mark(2);
+        probe.finish();
+
+        assertCounts(probe, 1);
+    }
+
+    @Test
+    void unarmedCycleRecordsNothing() {
+        LatencyProbe probe = createProbe(10);
+        probe.start();
+        probe.markUnarmed(0);
+        probe.mark(1);
+        probe.mark(2);
+        probe.finish();
+
+        assertCounts(probe, 0);
+    }
+
+    @Test
+    void unarmedMarksCountOnceArmed() {
+        LatencyProbe probe = createProbe(10);
+        probe.start();
+        probe.markUnarmed(0);
+        probe.arm();
+        probe.mark(1);
+        probe.mark(2);
+        probe.finish();
+
+        assertCounts(probe, 1);
+    }
+
+    @Test
+    void skippedStageRecordsNothing() {
+        LatencyProbe probe = createProbe(10);
+        probe.start();
+        probe.arm();
+        probe.mark(0);
+        probe.mark(2);
+        probe.finish();
+
+        assertCounts(probe, 0);
+    }
+
+    @Test
+    void marksAfterFinishAreIgnored() {
+        LatencyProbe probe = createProbe(10);
+        probe.start();
+        probe.arm();
+        probe.mark(0);
+        probe.mark(1);
+        probe.mark(2);
+        probe.finish();
+
+        // Another thread's loop calling in without a start()
+        probe.arm();
+        probe.mark(0);
+        probe.mark(1);
+        probe.mark(2);
+        probe.finish();
+
+        assertCounts(probe, 1);
+    }
+
+    @Test
+    void countsStopAtWindowSize() {
+        LatencyProbe probe = createProbe(4);
+        for (int cycle = 0; cycle < 10; cycle++) {
+            probe.start();
+            probe.arm();
+            probe.mark(0);
+            probe.mark(1);
+            probe.mark(2);
+            probe.finish();
+        }
+
+        assertCounts(probe, 4);
+    }
+}
@@ -0,0 +1,117 @@
+package frc.lib.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+
+class SwerveDrivePhysicsTest {
+    private static final Translation2d[] MODULE_LOCATIONS = new Translation2d[] {
+            new Translation2d(0.3, 0.3),
+            new Translation2d(0.3, -0.3),
+            new Translation2d(-0.3, 0.3),
+            new Translation2d(-0.3, -0.3)
+    };
+    private static final double WHEEL_RADIUS_METERS = 0.05;
+
+    private static SwerveDrivePhysics createPhysics(double coefficientOfFriction) {
+        return new SwerveDrivePhysics(MODULE_LOCATIONS, DCMotor.getFalcon500(1), DCMotor.getFalcon500(1),
+                6.75, 12.8, WHEEL_RADIUS_METERS, 50.0, 4.0, 0.003, 0.025, coefficientOfFriction, 0.001);
+    }
+
+    private static void driveAll(SwerveDrivePhysics physics, double volts) {
+        for (int i = 0; i < physics.getModuleCount(); i++) {
+            physics.setDriveVoltage(i, volts);
+        }
+    }
+
+    @Test
+    void staysPutWithNoVoltage() {
+        SwerveDrivePhysics physics = createPhysics(1.1);
+        physics.step(1.0);
+
+        assertEquals(0.0, physics.getPose().getX(), 1e-12);
+        assertEquals(0.0, physics.getPose().getY(), 1e-12);
+        assertEquals(0.0, physics.getHeadingRadians(), 1e-12);
+        assertEquals(1.0, physics.getElapsedSeconds(), 1e-9);
+    }
+
+    @Test
+    void drivesStraightWithoutSlipping() {
+        SwerveDrivePhysics physics = createPhysics(1.1);
+        driveAll(physics, 3.0);
+        physics.step(1.0);
+
+        Pose2d pose = physics.getPose();
+        assertTrue(pose.getX() > 0.1, "x " + pose.getX());
+        assertEquals(0.0, pose.getY(), 1e-6);
+        assertEquals(0.0, physics.getHeadingRadians(), 1e-6);
+        for (int i = 0; i < physics.getModuleCount(); i++) {
+            assertFalse(physics.isSlipping(i), "module " + i);
+            // A wheel that isn't slipping has rolled as far as the robot moved
+            assertEquals(pose.getX(), physics.getWheelPositionMeters(i), 0.01, "module " + i);
+        }
+    }
+
+    @Test
+    void drivesWhereModulesPoint() {
+        SwerveDrivePhysics physics = createPhysics(1.1);
+        for (int i = 0; i < physics.getModuleCount(); i++) {
+            physics.setSteerAngle(i, Math.PI / 2.0);
+        }
+        driveAll(physics, 3.0);
+        physics.step(1.0);
+
+        assertTrue(physics.getPose().getY() > 0.1, "y " + physics.getPose().getY());
+        assertEquals(0.0, physics.getPose().getX(), 1e-6);
+    }
+
+    @Test
+    void wheelsSlipPastTheFrictionLimit() {
+        SwerveDrivePhysics physics = createPhysics(0.05);
+        driveAll(physics, 12.0);
+        physics.step(0.02);
+
+        for (int i = 0; i < physics.getModuleCount(); i++) {
+            assertTrue(physics.isSlipping(i), "module " + i);
+        }
+        // The wheels spin up faster than the robot can follow
+        assertTrue(physics.getWheelVelocityMetersPerSec(0) > 0.0);
+    }
+
+    @Test
+    void resultsDoNotDependOnStepSize() {
+        SwerveDrivePhysics oneStep = createPhysics(1.1);
+        SwerveDrivePhysics manySteps = createPhysics(1.1);
+        for (SwerveDrivePhysics physics : new SwerveDrivePhysics[] { oneStep, manySteps }) {
+            driveAll(physics, 6.0);
+            physics.setSteerVoltage(0, 1.0);
+        }
+
+        oneStep.step(0.02);
+        for (int i = 0; i < 20; i++) {
+            manySteps.step(0.001);
+        }
+
+        assertEquals(oneStep.getPose(), manySteps.getPose());
+        assertEquals(oneStep.getWheelVelocityRadPerSec(0), manySteps.getWheelVelocityRadPerSec(0), 0.0);
+        assertEquals(oneStep.getSteerRadians(0), manySteps.getSteerRadians(0), 0.0);
+    }
+
+    @Test
+    void resetPoseStopsTheRobot() {
+        SwerveDrivePhysics physics = createPhysics(1.1);
+        driveAll(physics, 6.0);
+        physics.step(0.5);
+        physics.resetPose(new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(90.0)));
+
+        assertEquals(new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(90.0)), physics.getPose());
+        assertEquals(0.0, physics.getYawRateRadPerSec(), 0.0);
+    }
+}
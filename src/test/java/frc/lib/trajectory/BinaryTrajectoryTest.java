@@ -0,0 +1,94 @@
+package frc.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+
+// Packs the deployed paths the way the packTrajectories task does
+class BinaryTrajectoryTest {
+    private static final PathConstraints CONSTRAINTS = new PathConstraints(1.5, 1.0);
+    private static final double EPSILON = 1e-12;
+
+    @TempDir
+    Path m_directory;
+
+    private BinaryTrajectory pack(String pathName, PathPlannerTrajectory trajectory) throws IOException {
+        File file = m_directory.resolve(pathName + BinaryTrajectory.FILE_EXTENSION).toFile();
+        BinaryTrajectory.write(file, trajectory, CONSTRAINTS);
+        return BinaryTrajectory.load(file);
+    }
+
+    @Test
+    void samplesTheSameAsTheGeneratedPath() throws IOException {
+        PathPlannerTrajectory trajectory = PathPlanner.loadPath("Spinning Circle", CONSTRAINTS);
+        BinaryTrajectory packed = pack("Spinning Circle", trajectory);
+        TrajectorySampler expected = TrajectorySampler.fromPathPlanner(trajectory);
+        TrajectorySampler actual = TrajectorySampler.fromBinary(packed);
+        MutableTrajectoryState expectedState = new MutableTrajectoryState();
+        MutableTrajectoryState actualState = new MutableTrajectoryState();
+
+        assertEquals("Spinning Circle", packed.getName());
+        assertEquals(trajectory.getStates().size(), packed.getStateCount());
+        assertEquals(trajectory.getTotalTimeSeconds(), packed.getTotalTimeSeconds(), EPSILON);
+        assertEquals(trajectory.getInitialHolonomicPose(), packed.getInitialHolonomicPose());
+        for (double t = 0.0; t <= expected.getTotalTimeSeconds(); t += 0.01) {
+            expected.sample(t, expectedState);
+            actual.sample(t, actualState);
+            assertEquals(expectedState.xMeters, actualState.xMeters, EPSILON, "at " + t);
+            assertEquals(expectedState.yMeters, actualState.yMeters, EPSILON, "at " + t);
+            assertEquals(expectedState.headingRadians, actualState.headingRadians, EPSILON, "at " + t);
+            assertEquals(expectedState.velocityMetersPerSecond, actualState.velocityMetersPerSecond, EPSILON);
+            assertEquals(expectedState.holonomicRotationRadians, actualState.holonomicRotationRadians, EPSILON);
+        }
+    }
+
+    @Test
+    void keepsMarkersAndConstraints() throws IOException {
+        PathPlannerTrajectory trajectory = PathPlanner.loadPath("Event Testing", CONSTRAINTS);
+        BinaryTrajectory packed = pack("Event Testing", trajectory);
+        List<EventMarker> markers = trajectory.getMarkers();
+
+        assertEquals(markers.size(), packed.getMarkerCount());
+        for (int i = 0; i < markers.size(); i++) {
+            assertEquals(markers.get(i).timeSeconds, packed.getMarkerTime(i), EPSILON);
+            assertEquals(markers.get(i).names, packed.getMarkerNames(i));
+        }
+        assertTrue(packed.matches(CONSTRAINTS));
+        assertFalse(packed.matches(new PathConstraints(3.0, 1.0)));
+
+        Command command = new InstantCommand();
+        Map<String, Command> eventMap = Map.of("marker1", command);
+        EventMarkerTable fromPacked = EventMarkerTable.compile("Event Testing", packed, eventMap);
+        EventMarkerTable fromPath = EventMarkerTable.compile("Event Testing", markers, eventMap);
+        assertEquals(fromPath.size(), fromPacked.size());
+        for (int entry = 0; entry < fromPath.size(); entry++) {
+            assertEquals(fromPath.getTimeSeconds(entry), fromPacked.getTimeSeconds(entry), EPSILON);
+        }
+    }
+
+    @Test
+    void otherFilesThrow() throws IOException {
+        Path file = m_directory.resolve("Not A Path" + BinaryTrajectory.FILE_EXTENSION);
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> BinaryTrajectory.load(file.toFile()));
+    }
+}
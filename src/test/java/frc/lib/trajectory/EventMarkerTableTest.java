@@ -0,0 +1,82 @@
+package frc.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.InstantCommand;
+
+// Uses the markers of the deployed paths: Event Testing runs "marker1" and
+// Spinning Circle runs "event"
+class EventMarkerTableTest {
+    private static final PathConstraints CONSTRAINTS = new PathConstraints(1.5, 1.0);
+
+    private static EventMarker loadMarker(String pathName) {
+        List<EventMarker> markers = PathPlanner.loadPath(pathName, CONSTRAINTS).getMarkers();
+        assertEquals(1, markers.size(), pathName);
+        return markers.get(0);
+    }
+
+    @Test
+    void resolvesMarkersAtTheirTimes() {
+        EventMarker marker = loadMarker("Event Testing");
+        Command command = new InstantCommand();
+
+        EventMarkerTable table = EventMarkerTable.compile("Event Testing", List.of(marker),
+                Map.of("marker1", command));
+
+        assertEquals(1, table.size());
+        assertEquals(marker.timeSeconds, table.getTimeSeconds(0), 1e-9);
+        assertEquals(1, table.getCommandCount());
+        assertSame(command, table.getCommand(table.getCommandIndex(0)));
+    }
+
+    @Test
+    void missingCommandThrowsWithPathAndMarker() {
+        EventMarker marker = loadMarker("Event Testing");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EventMarkerTable.compile("Event Testing", List.of(marker), Map.of()));
+        assertTrue(e.getMessage().contains("Event Testing"), e.getMessage());
+        assertTrue(e.getMessage().contains("marker1"), e.getMessage());
+    }
+
+    @Test
+    void sortsByTimeAndSharesCommands() {
+        EventMarker late = loadMarker("Event Testing");
+        EventMarker early = loadMarker("Spinning Circle");
+        Map<EventMarker, Double> times = new IdentityHashMap<>();
+        times.put(late, 2.0);
+        times.put(early, 1.0);
+        Command command = new InstantCommand();
+
+        EventMarkerTable table = EventMarkerTable.compile("Chain", List.of(late, early), times::get,
+                Map.of("marker1", command, "event", command));
+
+        assertEquals(2, table.size());
+        assertEquals(1.0, table.getTimeSeconds(0), 1e-9);
+        assertEquals(2.0, table.getTimeSeconds(1), 1e-9);
+        // Both names map to the same command, so it's only held once
+        assertEquals(1, table.getCommandCount());
+        assertEquals(table.getCommandIndex(0), table.getCommandIndex(1));
+    }
+
+    @Test
+    void noMarkersMakesEmptyTable() {
+        EventMarkerTable table = EventMarkerTable.compile("Empty", List.of(), Map.of());
+        assertEquals(0, table.size());
+        assertEquals(0, table.getCommandCount());
+    }
+}
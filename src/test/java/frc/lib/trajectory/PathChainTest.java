@@ -0,0 +1,101 @@
+package frc.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathConstraints;
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+// Chains the deployed paths
+class PathChainTest {
+    private static final PathConstraints CONSTRAINTS = new PathConstraints(1.5, 1.0);
+    private static final double SAMPLE_STEP_SECONDS = 0.001;
+
+    private static PathChain buildChain(String... pathNames) {
+        List<PathPlannerTrajectory> paths = new ArrayList<>();
+        for (String pathName : pathNames) {
+            paths.add(PathPlanner.loadPath(pathName, CONSTRAINTS));
+        }
+        return PathChain.build(String.join(" + ", pathNames), paths, CONSTRAINTS);
+    }
+
+    // Slowest the chain goes between the two fractions of its duration
+    private static double minVelocity(TrajectorySampler sampler, double startFraction, double endFraction) {
+        MutableTrajectoryState state = new MutableTrajectoryState();
+        double total = sampler.getTotalTimeSeconds();
+        double min = Double.POSITIVE_INFINITY;
+        for (double t = total * startFraction; t <= total * endFraction; t += SAMPLE_STEP_SECONDS) {
+            sampler.sample(t, state);
+            min = Math.min(min, Math.abs(state.velocityMetersPerSecond));
+        }
+        return min;
+    }
+
+    @Test
+    void noPathsThrows() {
+        assertThrows(IllegalArgumentException.class, () -> PathChain.build("Empty", List.of(), CONSTRAINTS));
+    }
+
+    @Test
+    void gapBetweenPathsThrows() {
+        // NewStraight ends 4.4 m from where it starts
+        assertThrows(IllegalArgumentException.class, () -> buildChain("NewStraight", "NewStraight"));
+    }
+
+    @Test
+    void startsAndEndsAtRestWithinConstraints() {
+        PathChain chain = buildChain("Spinning Circle", "Spinning Circle");
+        TrajectorySampler sampler = chain.getSampler();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+
+        sampler.sample(0.0, state);
+        assertEquals(0.0, state.velocityMetersPerSecond, 1e-9);
+        sampler.sample(sampler.getTotalTimeSeconds(), state);
+        assertEquals(0.0, state.velocityMetersPerSecond, 1e-9);
+
+        for (double t = 0.0; t <= sampler.getTotalTimeSeconds(); t += SAMPLE_STEP_SECONDS) {
+            sampler.sample(t, state);
+            assertTrue(Math.abs(state.velocityMetersPerSecond) <= CONSTRAINTS.maxVelocity + 1e-9, "at " + t);
+        }
+    }
+
+    @Test
+    void keepsMovingThroughJoinThatDoesNotReverse() {
+        PathPlannerTrajectory single = PathPlanner.loadPath("Spinning Circle", CONSTRAINTS);
+        PathChain chain = buildChain("Spinning Circle", "Spinning Circle");
+        TrajectorySampler sampler = chain.getSampler();
+
+        // The circle ends heading the way it starts, so the join is driven through
+        assertTrue(minVelocity(sampler, 0.4, 0.6) > 0.3);
+        assertTrue(sampler.getTotalTimeSeconds() < 2.0 * single.getTotalTimeSeconds());
+    }
+
+    @Test
+    void stopsAtJoinThatReverses() {
+        // NewStraightBack drives back along NewStraight
+        TrajectorySampler sampler = buildChain("NewStraight", "NewStraightBack").getSampler();
+        assertTrue(minVelocity(sampler, 0.3, 0.7) < 0.05);
+    }
+
+    @Test
+    void keepsStopPointsInsidePaths() {
+        // auto1 has a stop point at its second waypoint
+        TrajectorySampler sampler = buildChain("auto1").getSampler();
+        assertTrue(minVelocity(sampler, 0.05, 0.95) < 0.05);
+    }
+
+    @Test
+    void initialPoseIsFirstPathStart() {
+        PathPlannerTrajectory first = PathPlanner.loadPath("NewStraight", CONSTRAINTS);
+        PathChain chain = buildChain("NewStraight", "NewStraightBack");
+
+        assertEquals(first.getInitialHolonomicPose(), chain.getInitialHolonomicPose());
+    }
+}
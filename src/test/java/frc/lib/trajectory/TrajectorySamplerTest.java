@@ -0,0 +1,107 @@
+package frc.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class TrajectorySamplerTest {
+    private static final double EPSILON = 1e-9;
+    private static final int STATE_COUNT = 101;
+
+    // A straight line along x at 1 m/s, with the heading wrapping through
+    // +/- pi halfway and the holonomic rotation turning steadily
+    private static TrajectorySampler createLine() {
+        double[] time = new double[STATE_COUNT];
+        double[] x = new double[STATE_COUNT];
+        double[] y = new double[STATE_COUNT];
+        double[] heading = new double[STATE_COUNT];
+        double[] velocity = new double[STATE_COUNT];
+        double[] acceleration = new double[STATE_COUNT];
+        double[] curvature = new double[STATE_COUNT];
+        double[] holonomicRotation = new double[STATE_COUNT];
+        double[] holonomicAngularVelocity = new double[STATE_COUNT];
+        for (int i = 0; i < STATE_COUNT; i++) {
+            time[i] = i * 0.1;
+            x[i] = i * 0.1;
+            velocity[i] = 1.0;
+            heading[i] = (i < STATE_COUNT / 2) ? Math.PI - 0.01 : -Math.PI + 0.01;
+            holonomicRotation[i] = i * 0.01;
+            holonomicAngularVelocity[i] = 0.1;
+        }
+        return new TrajectorySampler(time, x, y, heading, velocity, acceleration, curvature, holonomicRotation,
+                holonomicAngularVelocity);
+    }
+
+    @Test
+    void emptyTrajectoryThrows() {
+        double[] empty = new double[0];
+        assertThrows(IllegalArgumentException.class, () -> new TrajectorySampler(empty, empty, empty, empty,
+                empty, empty, empty, empty, empty));
+    }
+
+    @Test
+    void interpolatesBetweenStates() {
+        TrajectorySampler sampler = createLine();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+        sampler.sample(1.23, state);
+
+        assertEquals(1.23, state.timeSeconds, EPSILON);
+        assertEquals(1.23, state.xMeters, EPSILON);
+        assertEquals(0.0, state.yMeters, EPSILON);
+        assertEquals(1.0, state.velocityMetersPerSecond, EPSILON);
+        assertEquals(0.123, state.holonomicRotationRadians, EPSILON);
+    }
+
+    @Test
+    void clampsOutsideTrajectory() {
+        TrajectorySampler sampler = createLine();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+
+        sampler.sample(-1.0, state);
+        assertEquals(0.0, state.timeSeconds, EPSILON);
+        assertEquals(0.0, state.xMeters, EPSILON);
+
+        sampler.sample(100.0, state);
+        assertEquals(sampler.getTotalTimeSeconds(), state.timeSeconds, EPSILON);
+        assertEquals(10.0, state.xMeters, EPSILON);
+    }
+
+    @Test
+    void headingTakesShortWayAcrossPi() {
+        TrajectorySampler sampler = createLine();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+        // Halfway between a state at pi - 0.01 and the next at -pi + 0.01
+        sampler.sample(4.95, state);
+
+        assertEquals(Math.PI, Math.abs(state.headingRadians), EPSILON);
+    }
+
+    @Test
+    void samplesAreRightInAnyOrder() {
+        TrajectorySampler sampler = createLine();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+
+        // Small steps walk the cursor, big jumps and going back search
+        double[] times = { 0.05, 0.07, 0.31, 7.5, 2.0, 2.02, 9.99, 0.0, 4.44 };
+        for (double time : times) {
+            sampler.sample(time, state);
+            assertEquals(time, state.timeSeconds, EPSILON, "at " + time);
+            assertEquals(time, state.xMeters, EPSILON, "at " + time);
+        }
+    }
+
+    @Test
+    void copiesHaveTheirOwnCursor() {
+        TrajectorySampler original = createLine();
+        TrajectorySampler copy = original.copy();
+        MutableTrajectoryState state = new MutableTrajectoryState();
+
+        original.sample(9.0, state);
+        copy.sample(0.15, state);
+        assertEquals(0.15, state.xMeters, EPSILON);
+        original.sample(9.05, state);
+        assertEquals(9.05, state.xMeters, EPSILON);
+        assertEquals(original.getStateCount(), copy.getStateCount());
+    }
+}
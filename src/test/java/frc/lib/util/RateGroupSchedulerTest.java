@@ -0,0 +1,139 @@
+package frc.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.lib.util.RateGroupScheduler.Priority;
+import frc.lib.util.RateGroupScheduler.RateGroup;
+
+class RateGroupSchedulerTest {
+    // Long enough that a slow test machine doesn't change the outcome
+    private static final double PERIOD_SECONDS = 0.2;
+    // A reserve that leaves no time at all, or more than a whole period
+    private static final double NO_BUDGET_SECONDS = 1.0;
+    private static final double ENDLESS_BUDGET_SECONDS = -1.0;
+
+    private TimedRobot m_robot;
+
+    @BeforeAll
+    static void setupHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @BeforeEach
+    void createRobot() {
+        m_robot = new TimedRobot(PERIOD_SECONDS);
+    }
+
+    @AfterEach
+    void closeRobot() {
+        m_robot.close();
+    }
+
+    @Test
+    void usersShareGroupsByName() {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, 0.0, 0);
+        RateGroup first = scheduler.addGroup("Telemetry", 0.1, 0.005);
+        RateGroup second = scheduler.addGroup("Telemetry", 0.1, 0.005);
+        assertSame(first, second);
+    }
+
+    @Test
+    void sameNameWithDifferentRateThrows() {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, 0.0, 0);
+        scheduler.addGroup("Telemetry", 0.1, 0.005);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.addGroup("Telemetry", 0.2, 0.005));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.addGroup("Telemetry", 0.1, 0.01));
+    }
+
+    @Test
+    void configureAddsEveryUsersTasks() {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, ENDLESS_BUDGET_SECONDS, 0);
+        int[] runs = new int[2];
+        scheduler.configure(
+                s -> s.addGroup("Shared", 0.1, 0.0).add("First", Priority.LOW, 0.0, () -> runs[0]++),
+                s -> s.addGroup("Shared", 0.1, 0.0).add("Second", Priority.LOW, 0.0, () -> runs[1]++));
+
+        scheduler.startCycle();
+        scheduler.addGroup("Shared", 0.1, 0.0).run();
+        assertEquals(1, runs[0]);
+        assertEquals(1, runs[1]);
+    }
+
+    @Test
+    void tasksRunInPriorityOrder() {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, ENDLESS_BUDGET_SECONDS, 0);
+        List<String> order = new ArrayList<>();
+        RateGroup group = scheduler.addGroup("Group", 0.1, 0.0)
+                .add("Low", Priority.LOW, 0.0, () -> order.add("Low"))
+                .add("Normal", Priority.NORMAL, 0.0, () -> order.add("Normal"))
+                .add("Critical", Priority.CRITICAL, 0.0, () -> order.add("Critical"));
+
+        scheduler.startCycle();
+        group.run();
+        assertEquals(List.of("Critical", "Normal", "Low"), order);
+    }
+
+    @Test
+    void withoutBudgetOnlyCriticalAndOverdueNormalTasksRun() {
+        int maxDeferrals = 2;
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, NO_BUDGET_SECONDS, maxDeferrals);
+        int[] runs = new int[3];
+        RateGroup group = scheduler.addGroup("Group", 0.1, 0.0)
+                .add("Critical", Priority.CRITICAL, 0.0, () -> runs[0]++)
+                .add("Normal", Priority.NORMAL, 0.0, () -> runs[1]++)
+                .add("Low", Priority.LOW, 0.0, () -> runs[2]++);
+
+        scheduler.startCycle();
+        for (int i = 0; i < 6; i++) {
+            group.run();
+        }
+
+        assertEquals(6, runs[0]);
+        // Put off twice, then run anyway, twice over
+        assertEquals(2, runs[1]);
+        assertEquals(0, runs[2]);
+    }
+
+    @Test
+    void lateCycleLeavesLessBudget() throws InterruptedException {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, 0.0, 0);
+        int[] runs = new int[1];
+        // Fits in a whole period, but not in what's left of a late one
+        RateGroup group = scheduler.addGroup("Group", 0.1, 0.0)
+                .add("Low", Priority.LOW, PERIOD_SECONDS * 0.9, () -> runs[0]++);
+
+        scheduler.startCycle();
+        // The next tick is due at one period, this cycle starts a quarter late
+        Thread.sleep((long) (PERIOD_SECONDS * 1250));
+        scheduler.startCycle();
+        group.run();
+
+        assertEquals(0, runs[0]);
+    }
+
+    @Test
+    void onTimeCycleHasWholeBudget() {
+        RateGroupScheduler scheduler = new RateGroupScheduler(m_robot, 0.0, 0);
+        int[] runs = new int[1];
+        RateGroup group = scheduler.addGroup("Group", 0.1, 0.0)
+                .add("Low", Priority.LOW, PERIOD_SECONDS * 0.5, () -> runs[0]++);
+
+        scheduler.startCycle();
+        group.run();
+
+        assertEquals(1, runs[0]);
+    }
+}
@@ -0,0 +1,81 @@
+package frc.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WriteCoalescerTest {
+    private static final int PERCENT_OUTPUT = 0;
+    private static final int VELOCITY = 1;
+    // Long enough that a test never reaches it
+    private static final double NO_REFRESH_SECONDS = 3600.0;
+
+    @Test
+    void firstCommandIsSent() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.0, 0.01, 0.0, 0.01));
+        assertEquals(1, coalescer.getSentCount());
+        assertEquals(0, coalescer.getSuppressedCount());
+    }
+
+    @Test
+    void commandWithinToleranceIsSkipped() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.2, 0.01);
+
+        assertFalse(coalescer.shouldWrite(PERCENT_OUTPUT, 0.505, 0.01, 0.205, 0.01));
+        assertEquals(1, coalescer.getSentCount());
+        assertEquals(1, coalescer.getSuppressedCount());
+    }
+
+    @Test
+    void valueOrDemandOutsideToleranceIsSent() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.2, 0.01);
+
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.52, 0.01, 0.2, 0.01));
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.52, 0.01, 0.25, 0.01));
+        assertEquals(3, coalescer.getSentCount());
+    }
+
+    @Test
+    void skipsCompareAgainstLastSentCommand() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.0, 0.01, 0.0, 0.0);
+
+        // Small steps that each stay in tolerance of the previous one still
+        // add up to a resend
+        assertFalse(coalescer.shouldWrite(PERCENT_OUTPUT, 0.006, 0.01, 0.0, 0.0));
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.012, 0.01, 0.0, 0.0));
+    }
+
+    @Test
+    void modeChangeIsSent() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.0, 0.01, 0.0, 0.01);
+
+        assertTrue(coalescer.shouldWrite(VELOCITY, 0.0, 0.01, 0.0, 0.01));
+    }
+
+    @Test
+    void invalidateForcesNextCommand() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", NO_REFRESH_SECONDS);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.0, 0.01);
+        coalescer.invalidate();
+
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.0, 0.01));
+        assertFalse(coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.0, 0.01));
+    }
+
+    @Test
+    void refreshPeriodResendsUnchangedCommand() {
+        WriteCoalescer coalescer = new WriteCoalescer("Test", 0.0);
+        coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.0, 0.01);
+
+        assertTrue(coalescer.shouldWrite(PERCENT_OUTPUT, 0.5, 0.01, 0.0, 0.01));
+        assertEquals(2, coalescer.getSentCount());
+        assertEquals(0, coalescer.getSuppressedCount());
+    }
+}
@@ -0,0 +1,41 @@
+package frc.robot.autos;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.lib.trajectory.EventMarkerTable;
+import frc.robot.Constants;
+
+class AutoRoutinesTest {
+    private static final File PATH_DIRECTORY = new File("src/main/deploy/pathplanner");
+    private static final String PATH_EXTENSION = ".path";
+
+    @Test
+    void everyDeployedMarkerHasACommand() {
+        // The commands are built but never run, so they don't need an LED strip
+        Map<String, Command> eventMap = AutoRoutines.createEventMap(null);
+
+        File[] pathFiles = PATH_DIRECTORY.listFiles((dir, name) -> name.endsWith(PATH_EXTENSION));
+        assertNotNull(pathFiles, "No deploy directory at " + PATH_DIRECTORY.getAbsolutePath());
+        assertTrue(pathFiles.length > 0, "No paths in " + PATH_DIRECTORY.getAbsolutePath());
+
+        for (File pathFile : pathFiles) {
+            String fileName = pathFile.getName();
+            String pathName = fileName.substring(0, fileName.length() - PATH_EXTENSION.length());
+            PathPlannerTrajectory path = PathPlanner.loadPath(pathName,
+                    Constants.AutoConstants.kDefaultPathConstraints);
+            assertNotNull(path, pathName);
+            assertDoesNotThrow(() -> EventMarkerTable.compile(pathName, path.getMarkers(), eventMap), pathName);
+        }
+    }
+}